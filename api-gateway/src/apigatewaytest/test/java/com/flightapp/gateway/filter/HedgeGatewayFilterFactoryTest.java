@@ -0,0 +1,253 @@
+package com.flightapp.gateway.filter;
+
+import com.flightapp.gateway.metrics.UpstreamTimingGlobalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+@ExtendWith(MockitoExtension.class)
+class HedgeGatewayFilterFactoryTest {
+
+    private static final String FLIGHT = "{\"id\":\"flight123\",\"flightNumber\":\"AI101\"}";
+    private static final String HEDGED_FLIGHT = "{\"id\":\"flight123\",\"flightNumber\":\"AI101\",\"hedged\":true}";
+
+    @Mock
+    private ReactiveDiscoveryClient discoveryClient;
+
+    @Mock
+    private ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+
+    private MeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger proxied = new AtomicInteger();
+    private final AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+    // How the primary attempt behaves; hedges answer at once
+    private Duration primaryDelay = Duration.ZERO;
+    private HttpStatus primaryStatus = HttpStatus.OK;
+
+    // Stands in for load balancing and the routing filters: the primary always goes to 10.0.0.1
+    private final GatewayFilterChain proxy = exchange -> {
+        proxied.incrementAndGet();
+        URI upstream = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                .scheme("http")
+                .host("10.0.0.1")
+                .port(8081)
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, upstream);
+        return Mono.delay(primaryDelay)
+                .then(Mono.defer(() -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(primaryStatus);
+                    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return response.writeWith(Flux.just(
+                            response.bufferFactory().wrap(FLIGHT.substring(0, 10).getBytes(StandardCharsets.UTF_8)),
+                            response.bufferFactory().wrap(FLIGHT.substring(10).getBytes(StandardCharsets.UTF_8))));
+                }))
+                .doOnCancel(() -> primaryCancelled.set(true));
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(discoveryClient.getInstances("FLIGHT-SERVICE")).thenReturn(Flux.just(
+                new DefaultServiceInstance("flight-service-1", "FLIGHT-SERVICE", "10.0.0.1", 8081, false),
+                new DefaultServiceInstance("flight-service-2", "FLIGHT-SERVICE", "10.0.0.2", 8081, false)));
+        lenient().when(headersFilters.getIfAvailable(any())).thenReturn(List.of());
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body(HEDGED_FLIGHT)
+                    .build());
+        });
+        HedgeGatewayFilterFactory factory = new HedgeGatewayFilterFactory(webClientBuilder, HttpClient.create(),
+                discoveryClient, headersFilters, meterRegistry, 0.95);
+        ReflectionTestUtils.setField(factory, "enabled", true);
+        ReflectionTestUtils.setField(factory, "initialDelayMs", 50L);
+        ReflectionTestUtils.setField(factory, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(factory, "maxDelayMs", 1000L);
+        ReflectionTestUtils.setField(factory, "minSamples", 100L);
+        ReflectionTestUtils.setField(factory, "instancesRefreshMs", 60000L);
+        HedgeGatewayFilterFactory.Config config = new HedgeGatewayFilterFactory.Config();
+        config.setRouteId("flight-service");
+        filter = factory.apply(config);
+    }
+
+    private static MockServerWebExchange routed(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("flight-service")
+                .uri("lb://FLIGHT-SERVICE")
+                .predicate(ignored -> true)
+                .build());
+        return exchange;
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "route", "flight-service").count();
+    }
+
+    @Test
+    void testFilter_SlowPrimaryIsHedgedToOtherInstance() {
+        // Arrange
+        primaryDelay = Duration.ofSeconds(5);
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/api/v1/flight/flight123?fields=all"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+
+        // Assert
+        assertEquals(1, proxied.get());
+        assertTrue(primaryCancelled.get());
+        assertEquals(1, requests.size());
+        assertEquals("10.0.0.2", requests.get(0).url().getHost());
+        assertEquals("/api/v1/flight/flight123", requests.get(0).url().getPath());
+        assertEquals("fields=all", requests.get(0).url().getQuery());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(HEDGED_FLIGHT, exchange.getResponse().getBodyAsString().block());
+        assertEquals("10.0.0.2:8081", exchange.getAttribute(UpstreamTimingGlobalFilter.UPSTREAM_INSTANCE_ATTR));
+        assertEquals(1.0, count("gateway.hedge.sent"));
+        assertEquals(1.0, count("gateway.hedge.won"));
+        assertEquals(1.0, meterRegistry.get("gateway.hedge.rate").tag("route", "flight-service").gauge().value());
+    }
+
+    @Test
+    void testFilter_FastPrimaryIsStreamedAndNotHedged() throws InterruptedException {
+        // Arrange
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/api/v1/flight/flight123"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+        Thread.sleep(100);
+
+        // Assert
+        assertEquals(1, proxied.get());
+        assertTrue(requests.isEmpty());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+        assertEquals(FLIGHT, exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, count("gateway.hedge.requests"));
+        assertEquals(0.0, count("gateway.hedge.sent"));
+        verifyNoInteractions(discoveryClient);
+    }
+
+    @Test
+    void testFilter_ServerErrorAfterHedgeLeavesHedgeToAnswer() {
+        // Arrange
+        primaryDelay = Duration.ofMillis(80);
+        primaryStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/api/v1/flight/flight123"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+
+        // Assert
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(HEDGED_FLIGHT, exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, count("gateway.hedge.won"));
+    }
+
+    @Test
+    void testFilter_ClientErrorBeforeHedgeDelayIsReturnedAtOnce() {
+        // Arrange
+        primaryStatus = HttpStatus.NOT_FOUND;
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/api/v1/flight/missing"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void testFilter_NonGetGoesThroughNormalProxy() {
+        // Arrange
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.put("/api/v1/flight/flight123/seats?seatsToReduce=2"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+
+        // Assert
+        assertEquals(1, proxied.get());
+        assertTrue(requests.isEmpty());
+        assertEquals(0.0, count("gateway.hedge.requests"));
+        verifyNoInteractions(discoveryClient);
+    }
+
+    @Test
+    void testFilter_NoOtherInstanceLeavesPrimaryToAnswer() {
+        // Arrange
+        primaryDelay = Duration.ofMillis(150);
+        when(discoveryClient.getInstances("FLIGHT-SERVICE")).thenReturn(Flux.just(
+                new DefaultServiceInstance("flight-service-1", "FLIGHT-SERVICE", "10.0.0.1", 8081, false)));
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/api/v1/flight/flight123"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, proxy)).verifyComplete();
+
+        // Assert
+        assertTrue(requests.isEmpty());
+        assertEquals(FLIGHT, exchange.getResponse().getBodyAsString().block());
+        assertEquals(0.0, count("gateway.hedge.sent"));
+    }
+
+    @Test
+    void testFilter_InstanceListIsCachedAcrossHedges() {
+        // Arrange
+        primaryDelay = Duration.ofSeconds(5);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(filter.filter(routed(MockServerHttpRequest.get("/api/v1/flight/flight123")), proxy))
+                    .verifyComplete();
+        }
+
+        // Assert
+        assertEquals(3, requests.size());
+        verify(discoveryClient, times(1)).getInstances("FLIGHT-SERVICE");
+    }
+}
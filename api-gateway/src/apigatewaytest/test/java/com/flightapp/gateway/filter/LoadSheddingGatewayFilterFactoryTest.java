@@ -0,0 +1,148 @@
+package com.flightapp.gateway.filter;
+
+import com.flightapp.gateway.filter.LoadSheddingGatewayFilterFactory.Priority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadSheddingGatewayFilterFactoryTest {
+
+    private MeterRegistry meterRegistry;
+    private LoadSheddingGatewayFilterFactory factory;
+    private GatewayFilter searchFilter;
+    private GatewayFilter bookingFilter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    // Upstream calls stay in flight until the sink is completed
+    private final Sinks.Empty<Void> upstreamDone = Sinks.empty();
+    private final GatewayFilterChain slowUpstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        return upstreamDone.asMono();
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new LoadSheddingGatewayFilterFactory(10, 2, 20, 0.5, 0.8, meterRegistry);
+        searchFilter = factory.apply(config("flight-search", Priority.LOW));
+        bookingFilter = factory.apply(config("booking-service", Priority.HIGH));
+    }
+
+    private static LoadSheddingGatewayFilterFactory.Config config(String routeId, Priority priority) {
+        LoadSheddingGatewayFilterFactory.Config config = new LoadSheddingGatewayFilterFactory.Config().setPriority(priority);
+        config.setRouteId(routeId);
+        return config;
+    }
+
+    private static MockServerWebExchange request(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    @Test
+    void testFilter_LowPriorityShedBeforeHighPriority() {
+        // Arrange: low priority may use half of the 10 slots
+        for (int i = 0; i < 5; i++) {
+            searchFilter.filter(request("/api/v1/flight/search"), slowUpstream).subscribe();
+        }
+
+        // Act
+        MockServerWebExchange search = request("/api/v1/flight/search");
+        StepVerifier.create(searchFilter.filter(search, slowUpstream)).verifyComplete();
+        List<MockServerWebExchange> bookings = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            MockServerWebExchange booking = request("/api/v1/booking/book/flight123");
+            bookings.add(booking);
+            bookingFilter.filter(booking, slowUpstream).subscribe();
+        }
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, search.getResponse().getStatusCode());
+        assertEquals(10, upstreamCalls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, bookings.get(5).getResponse().getStatusCode());
+        assertNull(bookings.get(0).getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("gateway.load-shedding.rejected",
+                "route", "flight-search", "priority", "low").count());
+        assertEquals(1.0, meterRegistry.counter("gateway.load-shedding.rejected",
+                "route", "booking-service", "priority", "high").count());
+        assertEquals(10.0, meterRegistry.get("gateway.load-shedding.in.flight").gauge().value());
+    }
+
+    @Test
+    void testFilter_ShedResponseIsBare503WithRetryAfter() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            searchFilter.filter(request("/api/v1/flight/search"), slowUpstream).subscribe();
+        }
+        MockServerWebExchange search = request("/api/v1/flight/search");
+
+        // Act
+        StepVerifier.create(searchFilter.filter(search, slowUpstream)).verifyComplete();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, search.getResponse().getStatusCode());
+        assertEquals("1", search.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("", search.getResponse().getBodyAsString().block());
+        assertEquals(5, upstreamCalls.get());
+    }
+
+    @Test
+    void testFilter_CompletedRequestsFreeTheirSlots() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            searchFilter.filter(request("/api/v1/flight/search"), slowUpstream).subscribe();
+        }
+
+        // Act
+        upstreamDone.tryEmitEmpty();
+        MockServerWebExchange search = request("/api/v1/flight/search");
+        StepVerifier.create(searchFilter.filter(search, exchange -> Mono.error(new IllegalStateException("upstream"))))
+                .verifyError(IllegalStateException.class);
+
+        // Assert
+        assertNull(search.getResponse().getStatusCode());
+        assertEquals(0.0, meterRegistry.get("gateway.load-shedding.in.flight").gauge().value());
+        assertEquals(0.0, meterRegistry.get("gateway.load-shedding.route.in.flight")
+                .tag("route", "flight-search").gauge().value());
+    }
+
+    @Test
+    void testFilter_SlowResponsesLowerTheLimits() {
+        // Arrange
+        assertEquals(10.0, meterRegistry.get("gateway.load-shedding.limit").tag("priority", "high").gauge().value());
+        assertEquals(5.0, meterRegistry.get("gateway.load-shedding.limit").tag("priority", "low").gauge().value());
+        // Blocks the calling thread, so the latency has been recorded by the time the filter completes
+        GatewayFilterChain upstream = exchange -> Mono.fromRunnable(() -> {
+            try {
+                Thread.sleep(80);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Act
+        StepVerifier.create(bookingFilter.filter(request("/api/v1/booking/book/flight123"), upstream)).verifyComplete();
+
+        // Assert: at four times the 20 ms target the limit drops to a quarter or less, but not below the floor of 2
+        assertEquals(2.0, meterRegistry.get("gateway.load-shedding.limit").tag("priority", "high").gauge().value());
+        assertEquals(1.0, meterRegistry.get("gateway.load-shedding.limit").tag("priority", "low").gauge().value());
+        assertTrue(meterRegistry.get("gateway.load-shedding.route.latency").tag("route", "booking-service")
+                .timeGauge().value(TimeUnit.MILLISECONDS) >= 80);
+    }
+}
@@ -0,0 +1,149 @@
+package com.flightapp.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCacheGatewayFilterFactoryTest {
+
+    private static final String RESULTS = "[{\"id\":\"flight123\",\"flightNumber\":\"AI101\"}]";
+
+    private MeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private HttpStatus upstreamStatus = HttpStatus.OK;
+    private Duration upstreamDelay = Duration.ZERO;
+
+    // Stands in for the proxied call to flight-service
+    private final GatewayFilterChain upstream = exchange -> exchange.getRequest().getBody()
+            .then(Mono.delay(upstreamDelay))
+            .then(Mono.defer(() -> {
+                upstreamCalls.incrementAndGet();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(upstreamStatus);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                response.getHeaders().set("X-Next-Cursor", "cursor1");
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(RESULTS.getBytes(StandardCharsets.UTF_8))));
+            }));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        SearchCacheGatewayFilterFactory factory = new SearchCacheGatewayFilterFactory(100, 60, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(factory, "maxRequestBytes", 4096);
+        ReflectionTestUtils.setField(factory, "maxResponseBytes", 262144);
+        filter = factory.apply(new SearchCacheGatewayFilterFactory.Config());
+    }
+
+    private MockServerWebExchange search(String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/flight/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+    private String bodyOf(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    void testSearch_SameSearchWithReorderedFieldsIsServedFromCache() {
+        // Arrange
+        MockServerWebExchange first = search("{\"fromPlace\":\"Delhi\",\"toPlace\":\"Mumbai\",\"journeyDate\":\"2026-11-01\"}");
+        MockServerWebExchange second = search("{ \"journeyDate\": \"2026-11-01\", \"toPlace\": \"Mumbai\", \"fromPlace\": \"Delhi\" }");
+
+        // Act
+        StepVerifier.create(filter.filter(first, upstream)).verifyComplete();
+        StepVerifier.create(filter.filter(second, upstream)).verifyComplete();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals("cursor1", second.getResponse().getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(RESULTS, bodyOf(first));
+        assertEquals(RESULTS, bodyOf(second));
+        assertEquals(0.5, meterRegistry.get("gateway.search.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void testSearch_ConcurrentIdenticalMissesShareOneUpstreamCall() {
+        // Arrange
+        upstreamDelay = Duration.ofMillis(100);
+        String body = "{\"fromPlace\":\"Delhi\",\"toPlace\":\"Mumbai\",\"journeyDate\":\"2026-11-01\"}";
+        MockServerWebExchange first = search(body);
+        MockServerWebExchange second = search(body);
+
+        // Act
+        StepVerifier.create(Mono.when(filter.filter(first, upstream), filter.filter(second, upstream)))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("COALESCED", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(RESULTS, bodyOf(second));
+        assertEquals(1.0, meterRegistry.counter("gateway.search.cache.requests", "result", "coalesced").count());
+    }
+
+    @Test
+    void testSearch_ErrorResponsesAreNotCached() {
+        // Arrange
+        upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        String body = "{\"fromPlace\":\"Delhi\",\"toPlace\":\"Mumbai\",\"journeyDate\":\"2026-11-01\"}";
+
+        // Act
+        StepVerifier.create(filter.filter(search(body), upstream)).verifyComplete();
+        StepVerifier.create(filter.filter(search(body), upstream)).verifyComplete();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testSearch_DifferentSearchesAreCachedSeparately() {
+        // Act
+        StepVerifier.create(filter.filter(search("{\"fromPlace\":\"Delhi\",\"toPlace\":\"Mumbai\"}"), upstream))
+                .verifyComplete();
+        StepVerifier.create(filter.filter(search("{\"fromPlace\":\"Delhi\",\"toPlace\":\"Chennai\"}"), upstream))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testSearch_InvalidJsonPassesThroughWithBody() {
+        // Arrange
+        MockServerWebExchange exchange = search("not json");
+        GatewayFilterChain echo = forwarded -> DataBufferUtils.join(forwarded.getRequest().getBody())
+                .doOnNext(buffer -> assertEquals("not json", buffer.toString(StandardCharsets.UTF_8)))
+                .then(upstream.filter(forwarded));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, echo)).verifyComplete();
+
+        // Assert
+        assertNull(exchange.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(1.0, meterRegistry.counter("gateway.search.cache.requests", "result", "bypass").count());
+    }
+}
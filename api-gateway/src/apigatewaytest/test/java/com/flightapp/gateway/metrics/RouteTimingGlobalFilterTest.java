@@ -0,0 +1,158 @@
+package com.flightapp.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RouteTimingGlobalFilterTest {
+
+    private final UpstreamTimingGlobalFilter upstreamTiming = new UpstreamTimingGlobalFilter();
+
+    private static RouteTimingGlobalFilter routeTiming(MeterRegistry meterRegistry) {
+        RouteTimingGlobalFilter filter = new RouteTimingGlobalFilter(meterRegistry);
+        ReflectionTestUtils.setField(filter, "percentiles", new double[] {0.5, 0.95, 0.99});
+        ReflectionTestUtils.setField(filter, "maxExpectedMs", 30000L);
+        return filter;
+    }
+
+    @Test
+    void testPrometheusScrape_HistogramBucketsWhenEnabled() {
+        // Arrange
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        RouteTimingGlobalFilter filter = routeTiming(meterRegistry);
+        ReflectionTestUtils.setField(filter, "publishBuckets", true);
+
+        // Act
+        StepVerifier.create(filter.filter(routedExchange(), gateway(0, 20))).verifyComplete();
+
+        // Assert
+        assertTrue(meterRegistry.scrape().contains("gateway_route_latency_seconds_bucket{"));
+    }
+
+    private static MockServerWebExchange routedExchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/flight/flight123"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("flight-service")
+                .uri("lb://FLIGHT-SERVICE")
+                .predicate(ignored -> true)
+                .build());
+        // What the load balancer filter leaves behind once it has picked an instance
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("http://10.0.0.5:8081/api/v1/flight/flight123"));
+        return exchange;
+    }
+
+    // Route filters ahead of the proxied call take filterMillis, the upstream takes upstreamMillis. Both block
+    // the calling thread, so the timers have been updated by the time the filter's Mono completes.
+    private GatewayFilterChain gateway(long filterMillis, long upstreamMillis) {
+        GatewayFilterChain upstream = exchange -> Mono.fromRunnable(() -> {
+            sleep(upstreamMillis);
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+        });
+        return exchange -> Mono.fromRunnable(() -> sleep(filterMillis))
+                .then(Mono.defer(() -> upstreamTiming.filter(exchange, upstream)));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testFilter_SplitsUpstreamTimeFromFilterTime() {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RouteTimingGlobalFilter filter = routeTiming(meterRegistry);
+
+        // Act
+        StepVerifier.create(filter.filter(routedExchange(), gateway(30, 100)))
+                .verifyComplete();
+
+        // Assert
+        Timer total = meterRegistry.get("gateway.route.latency")
+                .tags("route", "flight-service", "status", "200", "instance", "10.0.0.5:8081").timer();
+        Timer upstream = meterRegistry.get("gateway.route.upstream")
+                .tags("route", "flight-service", "status", "200", "instance", "10.0.0.5:8081").timer();
+        Timer filters = meterRegistry.get("gateway.route.filters")
+                .tags("route", "flight-service", "status", "200", "instance", "10.0.0.5:8081").timer();
+        assertEquals(1, total.count());
+        assertTrue(upstream.totalTime(TimeUnit.MILLISECONDS) >= 100);
+        assertTrue(filters.totalTime(TimeUnit.MILLISECONDS) >= 30);
+        assertTrue(filters.totalTime(TimeUnit.MILLISECONDS) < upstream.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(total.totalTime(TimeUnit.NANOSECONDS),
+                upstream.totalTime(TimeUnit.NANOSECONDS) + filters.totalTime(TimeUnit.NANOSECONDS), 1);
+    }
+
+    @Test
+    void testFilter_ResponseWithoutUpstreamCallHasNoUpstreamTime() {
+        // Arrange: e.g. a search cache hit or a shed request
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RouteTimingGlobalFilter filter = routeTiming(meterRegistry);
+        MockServerWebExchange exchange = routedExchange();
+        exchange.getAttributes().remove(GATEWAY_REQUEST_URL_ATTR);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, answered -> {
+            answered.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return answered.getResponse().setComplete();
+        })).verifyComplete();
+
+        // Assert
+        assertEquals(1, meterRegistry.get("gateway.route.latency")
+                .tags("route", "flight-service", "status", "503", "instance", "none").timer().count());
+        assertEquals(0, meterRegistry.get("gateway.route.upstream")
+                .tags("route", "flight-service", "status", "503").timer().count());
+    }
+
+    @Test
+    void testFilter_UpstreamErrorWithoutStatus() {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RouteTimingGlobalFilter filter = routeTiming(meterRegistry);
+
+        // Act
+        StepVerifier.create(filter.filter(routedExchange(),
+                        exchange -> upstreamTiming.filter(exchange, failed -> Mono.error(new IllegalStateException("refused")))))
+                .verifyError(IllegalStateException.class);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("gateway.route.upstream")
+                .tags("route", "flight-service", "status", "error", "instance", "10.0.0.5:8081").timer().count());
+    }
+
+    @Test
+    void testPrometheusScrape_ExposesPercentiles() {
+        // Arrange
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        RouteTimingGlobalFilter filter = routeTiming(meterRegistry);
+
+        // Act
+        StepVerifier.create(filter.filter(routedExchange(), gateway(0, 20)))
+                .verifyComplete();
+        String scrape = meterRegistry.scrape();
+
+        // Assert
+        assertTrue(scrape.contains("gateway_route_upstream_seconds{instance=\"10.0.0.5:8081\",route=\"flight-service\",status=\"200\",quantile=\"0.99\"}"));
+        assertTrue(scrape.contains("gateway_route_filters_seconds_count{instance=\"10.0.0.5:8081\",route=\"flight-service\",status=\"200\"} 1"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.flightapp.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Per-request overhead of the RequestRateLimiter filter with LocalRateLimiter: the filter on its own (time and
+// bytes allocated per request, against the same exchange passed straight to the chain) and bucket throughput
+// with 8 threads hitting one client key. Limits are set high enough that every request is allowed.
+// Tagged perf, so it only runs when asked for: mvn test -DexcludedGroups= -Dgroups=perf
+@Slf4j
+@Tag("perf")
+class LocalRateLimiterCostTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int REQUESTS = 200_000;
+    private static final int THREADS = 8;
+
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter(
+            new ConfigurationService(new DefaultListableBeanFactory(), DefaultConversionService::getSharedInstance, () -> null),
+            new SimpleMeterRegistry(), 1000, 600);
+
+    private final ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/flight/flight123")
+            .remoteAddress(new InetSocketAddress("10.0.0.9", 50000)));
+
+    private final GatewayFilterChain chain = forwarded -> Mono.empty();
+
+    LocalRateLimiterCostTest() {
+        rateLimiter.getConfig().put("flight-service", (LocalRateLimiter.Config) new LocalRateLimiter.Config()
+                .setReplenishRate(1_000_000_000)
+                .setBurstCapacity(1_000_000_000));
+    }
+
+    @Test
+    void filterOverhead() {
+        RequestRateLimiterGatewayFilterFactory.Config config = new RequestRateLimiterGatewayFilterFactory.Config();
+        config.setRouteId("flight-service");
+        GatewayFilter filter = new RequestRateLimiterGatewayFilterFactory(rateLimiter, new ClientKeyResolver(rateLimiter)).apply(config);
+
+        long[] baseline = measure(request -> chain.filter(exchange));
+        long[] limited = measure(request -> filter.filter(exchange, chain));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+
+        log.info("Rate limit filter cost: {} ns/request, {} bytes allocated/request (chain alone: {} ns, {} bytes)",
+                limited[0] - baseline[0], limited[1] - baseline[1], baseline[0], baseline[1]);
+    }
+
+    @Test
+    void contendedBucket() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < REQUESTS / THREADS; i++) {
+                    assertTrue(rateLimiter.tryAcquire("flight-service", "10.0.0.9",
+                            rateLimiter.getConfig().get("flight-service")).isAllowed());
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("Rate limit bucket throughput: {} requests/sec on {} threads sharing one client key",
+                String.format("%.0f", REQUESTS / seconds), THREADS);
+    }
+
+    // Returns {ns per request, bytes allocated per request}
+    private long[] measure(Function<Integer, Mono<Void>> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            request.apply(i).block();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.apply(i).block();
+        }
+        long nanosPerRequest = (System.nanoTime() - start) / REQUESTS;
+        long bytesPerRequest = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / REQUESTS;
+        return new long[] {nanosPerRequest, bytesPerRequest};
+    }
+}
@@ -0,0 +1,188 @@
+package com.flightapp.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class LocalRateLimiterTest {
+
+    private MeterRegistry meterRegistry;
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConfigurationService configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+                DefaultConversionService::getSharedInstance, () -> null);
+        rateLimiter = new LocalRateLimiter(configurationService, meterRegistry, 1000, 600);
+        // What the route definition in application.yml publishes for the RequestRateLimiter filter
+        rateLimiter.onApplicationEvent(new FilterArgsEvent(this, "booking-service", Map.of(
+                "local-rate-limiter.replenish-rate", "1",
+                "local-rate-limiter.burst-capacity", "3",
+                "local-rate-limiter.clients.partner-portal.replenish-rate", "100",
+                "local-rate-limiter.clients.partner-portal.burst-capacity", "10")));
+    }
+
+    @Test
+    void testIsAllowed_BurstThenRejectedWithRetryAfter() {
+        // Act & Assert
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            long expectedRemaining = remaining;
+            StepVerifier.create(rateLimiter.isAllowed("booking-service", "10.0.0.1"))
+                    .assertNext(response -> {
+                        assertTrue(response.isAllowed());
+                        assertEquals(String.valueOf(expectedRemaining),
+                                response.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+                    })
+                    .verifyComplete();
+        }
+
+        StepVerifier.create(rateLimiter.isAllowed("booking-service", "10.0.0.1"))
+                .assertNext(response -> {
+                    assertFalse(response.isAllowed());
+                    assertEquals("1", response.getHeaders().get(HttpHeaders.RETRY_AFTER));
+                    assertEquals("0", response.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+                })
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.counter("gateway.rate-limit.rejected", "route", "booking-service").count());
+    }
+
+    @Test
+    void testIsAllowed_ClientsHaveSeparateBuckets() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.isAllowed("booking-service", "10.0.0.1").block();
+        }
+
+        // Act & Assert
+        StepVerifier.create(rateLimiter.isAllowed("booking-service", "10.0.0.2"))
+                .assertNext(response -> assertTrue(response.isAllowed()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testIsAllowed_ClientOverride() {
+        // Act
+        long allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (rateLimiter.isAllowed("booking-service", "partner-portal").block().isAllowed()) {
+                allowed++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, allowed);
+        assertEquals("100", rateLimiter.isAllowed("booking-service", "partner-portal").block()
+                .getHeaders().get(LocalRateLimiter.REPLENISH_RATE_HEADER));
+    }
+
+    @Test
+    void testIsAllowed_RefillsOverTime() throws InterruptedException {
+        // Arrange
+        rateLimiter.getConfig().put("flight-service", (LocalRateLimiter.Config) new LocalRateLimiter.Config()
+                .setReplenishRate(20)
+                .setBurstCapacity(1));
+        assertTrue(rateLimiter.isAllowed("flight-service", "10.0.0.1").block().isAllowed());
+        assertFalse(rateLimiter.isAllowed("flight-service", "10.0.0.1").block().isAllowed());
+
+        // Act
+        Thread.sleep(60);
+
+        // Assert
+        assertTrue(rateLimiter.isAllowed("flight-service", "10.0.0.1").block().isAllowed());
+    }
+
+    @Test
+    void testIsAllowed_UnconfiguredRoute() {
+        // Act & Assert
+        StepVerifier.create(rateLimiter.isAllowed("unknown", "10.0.0.1"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testRequestRateLimiterFilter_Returns429WithRetryAfter() {
+        // Arrange
+        RequestRateLimiterGatewayFilterFactory factory =
+                new RequestRateLimiterGatewayFilterFactory(rateLimiter, new ClientKeyResolver(rateLimiter));
+        RequestRateLimiterGatewayFilterFactory.Config config = new RequestRateLimiterGatewayFilterFactory.Config();
+        config.setRouteId("booking-service");
+        GatewayFilter filter = factory.apply(config);
+        AtomicInteger forwarded = new AtomicInteger();
+
+        // Act
+        MockServerWebExchange last = null;
+        for (int i = 0; i < 4; i++) {
+            last = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/booking/PNR1")
+                    .remoteAddress(new InetSocketAddress("10.0.0.9", 50000)));
+            filter.filter(last, exchange -> {
+                forwarded.incrementAndGet();
+                return Mono.empty();
+            }).block();
+        }
+
+        // Assert
+        assertEquals(3, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, last.getResponse().getStatusCode());
+        assertEquals("1", last.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testClientKeyResolver_HonoursClientIdOnlyForConfiguredClients() {
+        // Arrange
+        ClientKeyResolver resolver = new ClientKeyResolver(rateLimiter);
+
+        // Act & Assert
+        StepVerifier.create(resolver.resolve(bookingRequest("partner-portal"))).expectNext("partner-portal").verifyComplete();
+        StepVerifier.create(resolver.resolve(bookingRequest("made-up-client"))).expectNext("10.0.0.9").verifyComplete();
+        StepVerifier.create(resolver.resolve(bookingRequest(null))).expectNext("10.0.0.9").verifyComplete();
+    }
+
+    @Test
+    void testConfig_RejectsRatesTheBucketCannotHonour() {
+        // Act & Assert
+        for (String rate : new String[] {"0", "-5", "2000000000"}) {
+            assertThrows(RuntimeException.class, () -> rateLimiter.onApplicationEvent(new FilterArgsEvent(this,
+                    "flight-service", Map.of("local-rate-limiter.replenish-rate", rate))), rate);
+        }
+        assertThrows(RuntimeException.class, () -> rateLimiter.onApplicationEvent(new FilterArgsEvent(this,
+                "flight-service", Map.of("local-rate-limiter.burst-capacity", "0"))));
+        assertFalse(rateLimiter.getConfig().containsKey("flight-service"));
+    }
+
+    private MockServerWebExchange bookingRequest(String clientId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/booking/PNR1")
+                .remoteAddress(new InetSocketAddress("10.0.0.9", 50000));
+        if (clientId != null) {
+            request.header(ClientKeyResolver.CLIENT_ID_HEADER, clientId);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("booking-service")
+                .uri("lb://BOOKING-SERVICE")
+                .predicate(ignored -> true)
+                .build());
+        return exchange;
+    }
+}
@@ -0,0 +1,404 @@
+package com.flightapp.gateway.filter;
+
+import com.flightapp.gateway.metrics.UpstreamTimingGlobalFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Hedged requests for idempotent GETs on lb:// routes, off unless gateway.hedging.enabled is set. The GET goes
+// down the filter chain as usual, so the load balancer picks the instance and the routing filters proxy it. If
+// no response has arrived within the hedge delay, it is also sent to another instance of the route's service,
+// taken from an instance list cached per service. The first answer is streamed back and the other attempt is
+// cancelled. A failure (an error or a 5xx) only decides the request once no other attempt can still answer.
+//
+// The delay follows a percentile (p95 by default) of recent attempts on the route. Other methods go through the
+// normal proxy. List it last in the route's filters, so the CircuitBreaker ahead of it sees the hedged outcome.
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Attempts of a hedged read, as bits so a failure is counted once per attempt
+    private static final int NONE = 0;
+    private static final int PRIMARY = 1;
+    private static final int HEDGE = 2;
+    private static final int BOTH = PRIMARY | HEDGE;
+
+    private final WebClient webClient;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final MeterRegistry meterRegistry;
+    private final double percentile;
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+    private final Map<String, Mono<List<ServiceInstance>>> instanceLists = new ConcurrentHashMap<>();
+
+    @Value("${gateway.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gateway.hedging.initial-delay-ms:100}")
+    private long initialDelayMs;
+
+    @Value("${gateway.hedging.min-delay-ms:10}")
+    private long minDelayMs;
+
+    @Value("${gateway.hedging.max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    @Value("${gateway.hedging.min-samples:100}")
+    private long minSamples;
+
+    @Value("${gateway.hedging.instances-refresh-ms:10000}")
+    private long instancesRefreshMs;
+
+    // Uses the gateway's own HttpClient, so hedges share the proxy's connection pool and timeouts
+    @Autowired
+    public HedgeGatewayFilterFactory(WebClient.Builder webClientBuilder, HttpClient httpClient,
+                                     ReactiveDiscoveryClient discoveryClient,
+                                     ObjectProvider<List<HttpHeadersFilter>> headersFilters, MeterRegistry meterRegistry,
+                                     @Value("${gateway.hedging.percentile:0.95}") double percentile) {
+        super(Config.class);
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.discoveryClient = discoveryClient;
+        this.headersFilters = headersFilters;
+        this.meterRegistry = meterRegistry;
+        this.percentile = percentile;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        // Routes are rebuilt on refresh; reuse the state so latency history and gauges carry over
+        RouteHedging hedging = routes.computeIfAbsent(routeId, RouteHedging::new);
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (!enabled || exchange.getRequest().getMethod() != HttpMethod.GET
+                    || route == null || !"lb".equals(route.getUri().getScheme())) {
+                return chain.filter(exchange);
+            }
+            return new HedgedRead(exchange, hedging, route.getUri().getHost()).run(chain);
+        };
+    }
+
+    // Only looked up when a hedge is due, and then at most once per instances-refresh-ms per service.
+    // A failed lookup is not kept, so the next hedge asks again.
+    private Mono<List<ServiceInstance>> instances(String serviceId) {
+        return instanceLists.computeIfAbsent(serviceId, id -> discoveryClient.getInstances(id)
+                .collectList()
+                .cache(list -> Duration.ofMillis(instancesRefreshMs), error -> Duration.ZERO, () -> Duration.ZERO));
+    }
+
+    private Runnable recorder(RouteHedging hedging) {
+        long start = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        return () -> {
+            if (recorded.compareAndSet(false, true)) {
+                hedging.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private static double ratio(Counter part, Counter whole) {
+        return whole.count() == 0 ? 0 : part.count() / whole.count();
+    }
+
+    // One hedgeable GET: the primary attempt down the filter chain and, after the delay, at most one hedge
+    private final class HedgedRead {
+
+        private final ServerWebExchange exchange;
+        private final RouteHedging hedging;
+        private final String serviceId;
+        private final AtomicInteger winner = new AtomicInteger(NONE);
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean hedged = new AtomicBoolean();
+        private final Sinks.Empty<Void> primaryLost = Sinks.empty();
+        private final Sinks.Empty<Void> hedgeLost = Sinks.empty();
+
+        HedgedRead(ServerWebExchange exchange, RouteHedging hedging, String serviceId) {
+            this.exchange = exchange;
+            this.hedging = hedging;
+            this.serviceId = serviceId;
+        }
+
+        Mono<Void> run(GatewayFilterChain chain) {
+            hedging.reads.increment();
+            Runnable record = recorder(hedging);
+            PrimaryResponse response = new PrimaryResponse(exchange.getResponse(), record);
+            Mono<Void> primary = chain.filter(exchange.mutate().response(response).build())
+                    .onErrorResume(error -> {
+                        record.run();
+                        return claim(PRIMARY, false) ? Mono.error(error) : Mono.empty();
+                    })
+                    // A loser is recorded as at least as slow as the winner, so the tail stays in the samples
+                    .doOnCancel(record)
+                    .takeUntilOther(primaryLost.asMono());
+            Mono<Void> hedge = Mono.delay(hedging.delay())
+                    .flatMap(tick -> instances(serviceId))
+                    .flatMap(this::hedge)
+                    .takeUntilOther(hedgeLost.asMono());
+            return Mono.when(primary, hedge);
+        }
+
+        // True once this attempt's outcome is the request's: it answered first, or it failed and no other
+        // attempt can still answer. A failure ahead of the hedge decides at once.
+        boolean claim(int attempt, boolean answered) {
+            if (winner.get() == attempt) {
+                return true;
+            }
+            if (!answered && hedged.get() && failed.updateAndGet(attempts -> attempts | attempt) != BOTH) {
+                return false;
+            }
+            if (!winner.compareAndSet(NONE, attempt)) {
+                return false;
+            }
+            (attempt == PRIMARY ? hedgeLost : primaryLost).tryEmitEmpty();
+            return true;
+        }
+
+        // Goes to an instance other than the one the load balancer picked for the primary attempt
+        private Mono<Void> hedge(List<ServiceInstance> instances) {
+            URI primary = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            List<ServiceInstance> others = instances.stream()
+                    .filter(instance -> primary == null || !instance.getHost().equals(primary.getHost())
+                            || instance.getPort() != primary.getPort())
+                    .toList();
+            if (others.isEmpty() || winner.get() != NONE) {
+                return Mono.empty();
+            }
+            ServiceInstance instance = others.get(ThreadLocalRandom.current().nextInt(others.size()));
+            URI uri = UriComponentsBuilder.fromUri(primary != null ? primary : exchange.getRequest().getURI())
+                    .scheme(instance.isSecure() ? "https" : "http")
+                    .host(instance.getHost())
+                    .port(instance.getPort())
+                    .build(true)
+                    .toUri();
+            HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange);
+            hedged.set(true);
+            hedging.hedges.increment();
+            long start = System.nanoTime();
+            Runnable record = recorder(hedging);
+            return webClient.get()
+                    .uri(uri)
+                    .headers(outgoing -> {
+                        outgoing.addAll(headers);
+                        outgoing.remove(HttpHeaders.HOST);
+                    })
+                    .exchangeToMono(upstream -> {
+                        record.run();
+                        boolean answered = !upstream.statusCode().is5xxServerError();
+                        if (!claim(HEDGE, answered)) {
+                            return upstream.releaseBody();
+                        }
+                        if (answered) {
+                            hedging.wins.increment();
+                        }
+                        // What UpstreamTimingGlobalFilter records for a proxied call; the cancelled primary
+                        // has already left its own values, which these replace
+                        exchange.getAttributes().put(UpstreamTimingGlobalFilter.UPSTREAM_INSTANCE_ATTR,
+                                instance.getHost() + ":" + instance.getPort());
+                        exchange.getAttributes().put(UpstreamTimingGlobalFilter.UPSTREAM_NANOS_ATTR,
+                                System.nanoTime() - start);
+                        return write(upstream);
+                    })
+                    .onErrorResume(error -> {
+                        record.run();
+                        return claim(HEDGE, false) ? Mono.error(error) : Mono.empty();
+                    })
+                    .doOnCancel(record);
+        }
+
+        // Streamed through, as the routing filters would have done for the primary attempt
+        private Mono<Void> write(ClientResponse upstream) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(upstream.statusCode());
+            response.getHeaders().putAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+                    upstream.headers().asHttpHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE));
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+            return response.writeWith(upstream.bodyToFlux(DataBuffer.class));
+        }
+
+        // The primary's status and headers are held back until it is known to be the answer; its body is then
+        // streamed straight to the client, or drained and dropped when it is not
+        private final class PrimaryResponse extends ServerHttpResponseDecorator {
+
+            private final HttpHeaders headers = new HttpHeaders();
+            private final Runnable record;
+            private HttpStatusCode status;
+            private Boolean claimed;
+
+            PrimaryResponse(ServerHttpResponse delegate, Runnable record) {
+                super(delegate);
+                this.record = record;
+            }
+
+            @Override
+            public boolean setStatusCode(HttpStatusCode status) {
+                this.status = status;
+                return true;
+            }
+
+            @Override
+            @Deprecated
+            public boolean setRawStatusCode(Integer status) {
+                return setStatusCode(status != null ? HttpStatusCode.valueOf(status) : null);
+            }
+
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return claimed() ? getDelegate().writeWith(body)
+                        : Flux.from(body).doOnNext(DataBufferUtils::release).then();
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                return claimed() ? getDelegate().writeAndFlushWith(body)
+                        : Flux.from(body).concatMap(Flux::from).doOnNext(DataBufferUtils::release).then();
+            }
+
+            @Override
+            public Mono<Void> setComplete() {
+                return claimed() ? getDelegate().setComplete() : Mono.empty();
+            }
+
+            private boolean claimed() {
+                if (claimed == null) {
+                    record.run();
+                    claimed = claim(PRIMARY, status == null || !status.is5xxServerError());
+                    if (claimed) {
+                        if (status != null) {
+                            getDelegate().setStatusCode(status);
+                        }
+                        getDelegate().getHeaders().putAll(headers);
+                    }
+                }
+                return claimed;
+            }
+        }
+    }
+
+    private class RouteHedging {
+
+        private final Timer latency;
+        private final Counter reads;
+        private final Counter hedges;
+        private final Counter wins;
+        private volatile long delayNanos;
+        private volatile long delayRefreshedAt = System.nanoTime() - DELAY_REFRESH_NANOS;
+
+        RouteHedging(String routeId) {
+            latency = Timer.builder("gateway.hedge.attempt.latency")
+                    .description("Time for one attempt at a hedgeable GET; losing attempts count until cancelled")
+                    .tag("route", routeId)
+                    .publishPercentiles(percentile)
+                    .register(meterRegistry);
+            reads = counter("gateway.hedge.requests", "GETs proxied by the hedge filter", routeId);
+            hedges = counter("gateway.hedge.sent", "Second attempts sent after the hedge delay", routeId);
+            wins = counter("gateway.hedge.won", "Requests answered by the second attempt", routeId);
+            Gauge.builder("gateway.hedge.rate", this, route -> ratio(route.hedges, route.reads))
+                    .description("Share of hedgeable GETs that sent a second attempt")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.hedge.win.rate", this, route -> ratio(route.wins, route.hedges))
+                    .description("Share of second attempts that answered first")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            TimeGauge.builder("gateway.hedge.delay", this, TimeUnit.NANOSECONDS, route -> route.delayNanos)
+                    .description("Current wait before a GET is sent to a second instance")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private Counter counter(String name, String description, String routeId) {
+            return Counter.builder(name)
+                    .description(description)
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        // The configured percentile of recent attempts, refreshed at most once a second, within min/max delay
+        Duration delay() {
+            long now = System.nanoTime();
+            if (now - delayRefreshedAt >= DELAY_REFRESH_NANOS) {
+                delayRefreshedAt = now;
+                HistogramSnapshot snapshot = latency.takeSnapshot();
+                ValueAtPercentile[] percentiles = snapshot.percentileValues();
+                long delay = snapshot.count() < minSamples || percentiles.length == 0
+                        ? TimeUnit.MILLISECONDS.toNanos(initialDelayMs)
+                        : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+                delayNanos = Math.min(Math.max(delay, TimeUnit.MILLISECONDS.toNanos(minDelayMs)),
+                        TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+            }
+            return Duration.ofNanos(delayNanos);
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
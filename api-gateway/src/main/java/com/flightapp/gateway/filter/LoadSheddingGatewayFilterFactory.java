@@ -0,0 +1,188 @@
+package com.flightapp.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Admission control shared by every route that uses the filter. Requests are counted while in flight across
+// the whole gateway, and each priority may only use a share of the in-flight limit: low priority (search)
+// is refused first, high priority (booking) last. The limit itself shrinks while the smoothed latency of
+// admitted requests is above the target, so overload is detected before connections pile up.
+//
+// A refused request gets a bare 503 with Retry-After and never reaches the route's circuit breaker or
+// FallbackController. List it ahead of RequestRateLimiter and CircuitBreaker in the route's filters.
+@Component
+public class LoadSheddingGatewayFilterFactory extends AbstractGatewayFilterFactory<LoadSheddingGatewayFilterFactory.Config> {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong latencyNanos = new AtomicLong();
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final int minInFlight;
+    private final long latencyTargetNanos;
+
+    @Autowired
+    public LoadSheddingGatewayFilterFactory(@Value("${gateway.load-shedding.max-in-flight:200}") int maxInFlight,
+                                            @Value("${gateway.load-shedding.min-in-flight:20}") int minInFlight,
+                                            @Value("${gateway.load-shedding.latency-target-ms:500}") long latencyTargetMs,
+                                            @Value("${gateway.load-shedding.low-priority-share:0.5}") double lowPriorityShare,
+                                            @Value("${gateway.load-shedding.normal-priority-share:0.8}") double normalPriorityShare,
+                                            MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.maxInFlight = maxInFlight;
+        this.minInFlight = minInFlight;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        this.meterRegistry = meterRegistry;
+        shares.put(Priority.LOW, lowPriorityShare);
+        shares.put(Priority.NORMAL, normalPriorityShare);
+        shares.put(Priority.HIGH, 1.0);
+
+        Gauge.builder("gateway.load-shedding.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests admitted by the load shedder and not yet completed")
+                .register(meterRegistry);
+        TimeGauge.builder("gateway.load-shedding.latency", latencyNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Smoothed latency of admitted requests across all routes")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            Gauge.builder("gateway.load-shedding.limit", () -> limitFor(priority))
+                    .description("In-flight count above which requests of this priority are refused")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    // Allows the short form "- LoadShedding=LOW" in route definitions
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("priority");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Priority priority = config.getPriority();
+        // Routes are rebuilt on refresh; reuse the stats so their gauges keep reporting
+        RouteStats stats = routes.computeIfAbsent(routeId, this::routeStats);
+        Counter shed = Counter.builder("gateway.load-shedding.rejected")
+                .description("Requests refused with 503 by the load shedder")
+                .tag("route", routeId)
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!tryAdmit(priority)) {
+                shed.increment();
+                return reject(exchange);
+            }
+            stats.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        stats.inFlight.decrementAndGet();
+                        // A client that hung up says nothing about how long the upstream would have taken
+                        if (signal != SignalType.CANCEL) {
+                            long elapsed = System.nanoTime() - start;
+                            smooth(latencyNanos, elapsed);
+                            smooth(stats.latencyNanos, elapsed);
+                        }
+                    });
+        };
+    }
+
+    private boolean tryAdmit(Priority priority) {
+        if (inFlight.incrementAndGet() <= limitFor(priority)) {
+            return true;
+        }
+        inFlight.decrementAndGet();
+        return false;
+    }
+
+    // Full limit while latency is on target, scaled down in proportion once it is above, never below the floor
+    int limitFor(Priority priority) {
+        long latency = latencyNanos.get();
+        int limit = latency <= latencyTargetNanos ? maxInFlight
+                : Math.max(minInFlight, (int) (maxInFlight * latencyTargetNanos / latency));
+        return Math.max(1, (int) (limit * shares.get(priority)));
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    // Exponentially weighted moving average, each sample weighted 1/8
+    private static void smooth(AtomicLong average, long sample) {
+        average.accumulateAndGet(sample, (current, next) -> current == 0 ? next : current + (next - current) / 8);
+    }
+
+    private RouteStats routeStats(String routeId) {
+        RouteStats stats = new RouteStats();
+        Gauge.builder("gateway.load-shedding.route.in.flight", stats.inFlight, AtomicInteger::get)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        TimeGauge.builder("gateway.load-shedding.route.latency", stats.latencyNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return stats;
+    }
+
+    private static class RouteStats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong latencyNanos = new AtomicLong();
+    }
+
+    public enum Priority {
+        LOW, NORMAL, HIGH
+    }
+
+    public static class Config implements HasRouteId {
+
+        private Priority priority = Priority.NORMAL;
+        private String routeId;
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public Config setPriority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.flightapp.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Caches flight search responses at the gateway for a few seconds. Requests are keyed on the JSON body with
+// its fields in a fixed order plus the Accept header, so clients that send the same search differently share
+// an entry. While one request for a key is upstream, identical requests wait for its response instead of
+// going upstream too. Only complete 200 JSON responses are cached; streams and errors pass straight through.
+@Component
+public class SearchCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<SearchCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    // Hop-by-hop and per-response headers are not replayed from the cache
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE, HttpHeaders.SET_COOKIE, CACHE_HEADER);
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ObjectMapper canonicalMapper;
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+    private final Counter bypassed;
+
+    @Value("${gateway.search-cache.max-request-bytes:4096}")
+    private int maxRequestBytes;
+
+    @Value("${gateway.search-cache.max-response-bytes:262144}")
+    private int maxResponseBytes;
+
+    @Autowired
+    public SearchCacheGatewayFilterFactory(@Value("${gateway.search-cache.max-size:10000}") long maxSize,
+                                           @Value("${gateway.search-cache.ttl-seconds:5}") long ttlSeconds,
+                                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.hits = requests(meterRegistry, "hit");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.misses = requests(meterRegistry, "miss");
+        this.bypassed = requests(meterRegistry, "bypass");
+        Gauge.builder("gateway.search.cache.hit.ratio", this, SearchCacheGatewayFilterFactory::hitRatio)
+                .description("Share of cacheable searches answered without their own upstream call")
+                .register(meterRegistry);
+        Gauge.builder("gateway.search.cache.size", cache, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.search.cache.requests")
+                .description("Search requests seen by the gateway cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + coalesced.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    // Runs before NettyWriteResponseFilter so the response it writes goes through the capturing decorator
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter(this::filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        long contentLength = request.getHeaders().getContentLength();
+        if (request.getMethod() != HttpMethod.POST || contentLength > maxRequestBytes) {
+            bypassed.increment();
+            return chain.filter(exchange);
+        }
+
+        return DataBufferUtils.join(request.getBody(), maxRequestBytes)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    ServerWebExchange replayable = exchange.mutate().request(withBody(request, body)).build();
+                    String key = keyOf(request, body);
+                    if (key == null) {
+                        bypassed.increment();
+                        return chain.filter(replayable);
+                    }
+                    return lookup(replayable, chain, key);
+                });
+    }
+
+    private Mono<Void> lookup(ServerWebExchange exchange, GatewayFilterChain chain, String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return write(exchange.getResponse(), cached, "HIT");
+        }
+
+        CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, response);
+        if (leader != null) {
+            coalesced.increment();
+            // A leader that failed or got an uncacheable answer completes with null; then go upstream ourselves
+            return Mono.fromFuture(leader)
+                    .map(shared -> write(exchange.getResponse(), shared, "COALESCED"))
+                    .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                    .flatMap(Function.identity());
+        }
+
+        misses.increment();
+        exchange.getResponse().getHeaders().set(CACHE_HEADER, "MISS");
+        return chain.filter(exchange.mutate().response(new CapturingResponse(exchange.getResponse(), key, response)).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, response);
+                    response.complete(null);
+                });
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, CachedResponse cached, String cacheStatus) {
+        response.setStatusCode(HttpStatus.valueOf(cached.status()));
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().set(CACHE_HEADER, cacheStatus);
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(
+                Duration.ofNanos(System.nanoTime() - cached.storedAtNanos()).toSeconds()));
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Null when the body is not JSON; flight-service rejects it and there is nothing worth caching
+    private String keyOf(ServerHttpRequest request, byte[] body) {
+        try {
+            Object search = canonicalMapper.readValue(body, Object.class);
+            return request.getURI().getPath() + "|" + request.getHeaders().getFirst(HttpHeaders.ACCEPT)
+                    + "|" + canonicalMapper.writeValueAsString(search);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static ServerHttpRequest withBody(ServerHttpRequest request, byte[] body) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body.length == 0 ? Flux.empty()
+                        : Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+            }
+        };
+    }
+
+    // Passes the upstream response through to the client and keeps a copy of it when it can be cached
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final CompletableFuture<CachedResponse> result;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, CompletableFuture<CachedResponse> result) {
+            super(delegate);
+            this.key = key;
+            this.result = result;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .flatMap(buffer -> {
+                        if (buffer.readableByteCount() <= maxResponseBytes) {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            int position = buffer.readPosition();
+                            buffer.read(bytes);
+                            buffer.readPosition(position);
+                            CachedResponse cached = new CachedResponse(getStatusCode().value(), cacheableHeaders(),
+                                    bytes, System.nanoTime());
+                            cache.put(key, cached);
+                            result.complete(cached);
+                        }
+                        return super.writeWith(Mono.just(buffer));
+                    });
+        }
+
+        private boolean isCacheable() {
+            MediaType contentType = getHeaders().getContentType();
+            return getStatusCode() != null && getStatusCode().value() == HttpStatus.OK.value()
+                    && contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+        }
+
+        private HttpHeaders cacheableHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.addAll(name, values);
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+
+    private record CachedResponse(int status, HttpHeaders headers, byte[] body, long storedAtNanos) {
+    }
+
+    public static class Config {
+    }
+}
@@ -0,0 +1,43 @@
+package com.flightapp.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+// Times the proxied call itself: runs after load balancing has picked an instance and just ahead of the
+// routing filters, so what it measures ends when the upstream's response headers arrive. Requests that never
+// get this far (cache hits, shed or rate limited) have no upstream time. RouteTimingGlobalFilter records it.
+@Component
+public class UpstreamTimingGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String UPSTREAM_NANOS_ATTR = UpstreamTimingGlobalFilter.class.getName() + ".upstreamNanos";
+    public static final String UPSTREAM_INSTANCE_ATTR = UpstreamTimingGlobalFilter.class.getName() + ".upstreamInstance";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI upstream = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (upstream != null && upstream.getHost() != null) {
+            exchange.getAttributes().put(UPSTREAM_INSTANCE_ATTR, upstream.getHost() + ":" + upstream.getPort());
+        }
+        long start = System.nanoTime();
+        // Set before the outcome travels back out, so RouteTimingGlobalFilter sees it when it records; a
+        // cancel (client gone, circuit breaker timeout) counts as the end of the upstream call too
+        Runnable stop = () -> exchange.getAttributes().putIfAbsent(UPSTREAM_NANOS_ATTR, System.nanoTime() - start);
+        return chain.filter(exchange)
+                .doOnTerminate(stop)
+                .doOnCancel(stop);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 10;
+    }
+}
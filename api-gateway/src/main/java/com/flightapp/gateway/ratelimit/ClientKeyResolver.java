@@ -0,0 +1,43 @@
+package com.flightapp.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Rate limit key for RequestRateLimiter: the caller's address. X-Client-Id is only taken when it names a client
+// with its own limits on the route (local-rate-limiter.clients.*); the header is not authenticated, and honouring
+// any value would let a caller get a fresh bucket per request. X-Forwarded-For is not trusted for the same reason.
+@Component("clientKeyResolver")
+public class ClientKeyResolver implements KeyResolver {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final LocalRateLimiter rateLimiter;
+
+    public ClientKeyResolver(LocalRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String clientId = exchange.getRequest().getHeaders().getFirst(CLIENT_ID_HEADER);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (StringUtils.hasText(clientId) && route != null && rateLimiter.hasClientLimit(route.getId(), clientId)) {
+            return Mono.just(clientId);
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return Mono.empty();
+        }
+        return Mono.just(remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString());
+    }
+}
@@ -0,0 +1,164 @@
+package com.flightapp.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory token buckets for the RequestRateLimiter filter, one per route and client key, with limits set in
+// each route's args under local-rate-limiter.*. Limits are per gateway instance; nothing is shared between them.
+//
+// A bucket is a single AtomicLong holding the time at which it will be full again (the GCRA form of a token
+// bucket): a request is allowed while that time is at most burstCapacity intervals ahead of now, and pushes it
+// one interval further. Taking a token is one CAS, with no lock and no allocation on the bucket itself.
+@Component("localRateLimiter")
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<BucketKey, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limit.max-clients:100000}") long maxClients,
+                            @Value("${gateway.rate-limit.idle-timeout-seconds:600}") long idleTimeoutSeconds) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        // A bucket left idle that long is full anyway, so dropping it loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofSeconds(idleTimeoutSeconds))
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            return Mono.error(new IllegalArgumentException("No local-rate-limiter configuration found for route " + routeId));
+        }
+        return Mono.just(tryAcquire(routeId, id, config.limitFor(id)));
+    }
+
+    boolean hasClientLimit(String routeId, String clientKey) {
+        Config config = getConfig().get(routeId);
+        return config != null && config.getClients().containsKey(clientKey);
+    }
+
+    Response tryAcquire(String routeId, String id, Limit limit) {
+        long interval = NANOS_PER_SECOND / limit.getReplenishRate();
+        long burst = interval * limit.getBurstCapacity();
+        AtomicLong fullAt = buckets.get(new BucketKey(routeId, id), key -> new AtomicLong(System.nanoTime()));
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long ahead = next - now;
+            if (ahead > burst) {
+                rejectedCounter(routeId).increment();
+                return new Response(false, headers(limit, 0, ahead - burst));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Response(true, headers(limit, (burst - ahead) / interval, 0));
+            }
+        }
+    }
+
+    private Map<String, String> headers(Limit limit, long remaining, long retryAfterNanos) {
+        Map<String, String> headers = new HashMap<>(6);
+        headers.put(REMAINING_HEADER, Long.toString(remaining));
+        headers.put(REPLENISH_RATE_HEADER, Integer.toString(limit.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Integer.toString(limit.getBurstCapacity()));
+        if (retryAfterNanos > 0) {
+            // Whole seconds, rounded up so a client that waits exactly this long gets a token
+            headers.put(HttpHeaders.RETRY_AFTER, Long.toString((retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+        }
+        return headers;
+    }
+
+    private Counter rejectedCounter(String routeId) {
+        return rejected.computeIfAbsent(routeId, route -> Counter.builder("gateway.rate-limit.rejected")
+                .description("Requests refused with 429 by the local rate limiter")
+                .tag("route", route)
+                .register(meterRegistry));
+    }
+
+    private record BucketKey(String routeId, String clientKey) {
+    }
+
+    public static class Limit {
+
+        // Tokens added per second
+        private int replenishRate = 1;
+
+        // Most tokens a bucket holds, i.e. the largest burst allowed after a quiet period
+        private int burstCapacity = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        // At most one token per nanosecond, so the interval between tokens is never zero
+        public Limit setReplenishRate(int replenishRate) {
+            if (replenishRate < 1 || replenishRate > NANOS_PER_SECOND) {
+                throw new IllegalArgumentException(
+                        "local-rate-limiter replenish-rate must be between 1 and " + NANOS_PER_SECOND + ", was " + replenishRate);
+            }
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Limit setBurstCapacity(int burstCapacity) {
+            if (burstCapacity < 1) {
+                throw new IllegalArgumentException("local-rate-limiter burst-capacity must be at least 1, was " + burstCapacity);
+            }
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+    }
+
+    // Route default plus optional overrides per client key, e.g. local-rate-limiter.clients.partner-a.replenish-rate
+    public static class Config extends Limit {
+
+        private Map<String, Limit> clients = new HashMap<>();
+
+        public Map<String, Limit> getClients() {
+            return clients;
+        }
+
+        public Config setClients(Map<String, Limit> clients) {
+            this.clients = clients;
+            return this;
+        }
+
+        Limit limitFor(String clientKey) {
+            return clients.getOrDefault(clientKey, this);
+        }
+    }
+}
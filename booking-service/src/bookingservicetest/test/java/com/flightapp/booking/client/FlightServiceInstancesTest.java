@@ -0,0 +1,99 @@
+package com.flightapp.booking.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightServiceInstancesTest {
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    @InjectMocks
+    private FlightServiceInstances flightServiceInstances;
+
+    private ServiceInstance instanceA;
+    private ServiceInstance instanceB;
+
+    @BeforeEach
+    void setUp() {
+        instanceA = new DefaultServiceInstance("flight-service-1", "flight-service", "10.0.0.1", 8081, false);
+        instanceB = new DefaultServiceInstance("flight-service-2", "flight-service", "10.0.0.2", 8081, false);
+    }
+
+    @Test
+    void testCall_FallsBackToLocalhostWithoutInstances() {
+        // Arrange
+        when(discoveryClient.getInstances("flight-service")).thenReturn(List.of());
+
+        // Act & Assert
+        StepVerifier.create(flightServiceInstances.call(Mono::just))
+                .expectNext("http://localhost:8081")
+                .verifyComplete();
+    }
+
+    @Test
+    void testCall_UsesCachedInstanceList() {
+        // Arrange
+        when(discoveryClient.getInstances("flight-service")).thenReturn(List.of(instanceA, instanceB));
+        flightServiceInstances.refresh();
+
+        // Act
+        IntStream.range(0, 10).forEach(i -> flightServiceInstances.call(Mono::just).block());
+
+        // Assert
+        verify(discoveryClient, times(1)).getInstances("flight-service");
+    }
+
+    @Test
+    void testChoose_PrefersInstanceWithFewerOutstandingRequests() {
+        // Arrange
+        when(discoveryClient.getInstances("flight-service")).thenReturn(List.of(instanceA, instanceB));
+        flightServiceInstances.refresh();
+        Sinks.Empty<String> slow = Sinks.empty();
+        flightServiceInstances.call(url -> slow.asMono()).subscribe();
+
+        // Act
+        Map<String, Long> picks = IntStream.range(0, 20)
+                .mapToObj(i -> flightServiceInstances.choose().getUrl())
+                .collect(Collectors.groupingBy(url -> url, Collectors.counting()));
+
+        // Assert
+        assertEquals(1, picks.size());
+        slow.tryEmitEmpty();
+        assertEquals(0, flightServiceInstances.choose().getOutstanding());
+    }
+
+    @Test
+    void testRefresh_KeepsPreviousInstancesWhenDiscoveryFails() {
+        // Arrange
+        when(discoveryClient.getInstances("flight-service"))
+                .thenReturn(List.of(instanceA))
+                .thenThrow(new RuntimeException("Eureka unavailable"));
+        flightServiceInstances.refresh();
+
+        // Act
+        flightServiceInstances.refresh();
+
+        // Assert
+        assertEquals("http://10.0.0.1:8081", flightServiceInstances.choose().getUrl());
+    }
+}
@@ -0,0 +1,171 @@
+package com.flightapp.booking.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightServiceWebClientTest {
+
+    private static final String BATCH_RESPONSE = "["
+            + "{\"seats\":2,\"status\":201,\"hold\":{\"holdId\":\"hold1\",\"flightId\":\"flight123\",\"seats\":2,\"status\":\"HELD\"}},"
+            + "{\"seats\":300,\"status\":400,\"error\":\"Not enough available seats\"}]";
+
+    private static final String SINGLE_RESPONSE =
+            "{\"holdId\":\"hold1\",\"flightId\":\"flight123\",\"seats\":2,\"status\":\"HELD\"}";
+
+    private static final String FLIGHT_RESPONSE =
+            "{\"id\":\"flight123\",\"flightNumber\":\"AI101\",\"availableSeats\":178,\"ticketPrice\":5000.0}";
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private MeterRegistry meterRegistry;
+    private FlightServiceWebClient flightServiceWebClient;
+    private Duration responseDelay = Duration.ZERO;
+
+    @BeforeEach
+    void setUp() {
+        when(discoveryClient.getInstances("flight-service")).thenReturn(List.of());
+        meterRegistry = new SimpleMeterRegistry();
+
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            String path = request.url().getPath();
+            String body = path.endsWith("/holds/batch") ? BATCH_RESPONSE
+                    : path.endsWith("/holds") ? SINGLE_RESPONSE
+                    : FLIGHT_RESPONSE;
+            Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+            return responseDelay.isZero() ? response : response.delayElement(responseDelay);
+        }).build();
+        FlightServiceInstances flightServiceInstances = new FlightServiceInstances(discoveryClient);
+        flightServiceWebClient = new FlightServiceWebClient(webClient, flightServiceInstances,
+                new HedgedFlightReads(flightServiceInstances, meterRegistry, 0.95), meterRegistry);
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchWindowMs", 50L);
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchMaxSize", 10);
+    }
+
+    @Test
+    void testCreateHold_CollapsesConcurrentRequestsForOneFlight() {
+        // Act
+        Mono<Void> both = Mono.when(
+                flightServiceWebClient.createHold("flight123", 2)
+                        .doOnNext(hold -> assertEquals("hold1", hold.getHoldId())),
+                flightServiceWebClient.createHold("flight123", 300)
+                        .onErrorResume(IllegalArgumentException.class, error -> {
+                            assertEquals("Not enough available seats", error.getMessage());
+                            return Mono.empty();
+                        }));
+
+        // Assert
+        StepVerifier.create(both).verifyComplete();
+
+        assertEquals(1, requests.size());
+        assertEquals(HttpMethod.POST, requests.get(0).method());
+        assertEquals("/api/v1/flight/flight123/holds/batch", requests.get(0).url().getPath());
+        assertEquals(2.0, meterRegistry.summary("flight.client.hold.batch.size").max());
+    }
+
+    @Test
+    void testCreateHold_SingleRequestUsesSingleEndpoint() {
+        // Act & Assert
+        StepVerifier.create(flightServiceWebClient.createHold("flight123", 2))
+                .assertNext(hold -> assertEquals("hold1", hold.getHoldId()))
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+        assertEquals("/api/v1/flight/flight123/holds", requests.get(0).url().getPath());
+    }
+
+    @Test
+    void testCreateHold_FullBatchIsSentWithoutWaiting() {
+        // Arrange
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchWindowMs", 60_000L);
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchMaxSize", 2);
+
+        // Act
+        Mono<Void> both = Mono.when(
+                flightServiceWebClient.createHold("flight123", 2),
+                flightServiceWebClient.createHold("flight123", 300).onErrorResume(error -> Mono.empty()));
+
+        // Assert
+        StepVerifier.create(both).verifyComplete();
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testCreateHold_CancelledCallerLeavesBatch() {
+        // Arrange
+        Disposable cancelled = flightServiceWebClient.createHold("flight123", 300).subscribe();
+        cancelled.dispose();
+
+        // Act & Assert
+        StepVerifier.create(flightServiceWebClient.createHold("flight123", 2))
+                .assertNext(hold -> assertEquals("hold1", hold.getHoldId()))
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+        assertEquals("/api/v1/flight/flight123/holds", requests.get(0).url().getPath());
+        assertEquals("seats=2", requests.get(0).url().getQuery());
+    }
+
+    @Test
+    void testCreateHold_HoldOfCallerCancelledInFlightIsReleased() throws InterruptedException {
+        // Arrange
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchWindowMs", 60_000L);
+        ReflectionTestUtils.setField(flightServiceWebClient, "holdBatchMaxSize", 2);
+        responseDelay = Duration.ofMillis(100);
+
+        // Act: the full batch is sent, then the caller of the first hold goes away
+        Disposable cancelled = flightServiceWebClient.createHold("flight123", 2).subscribe();
+        flightServiceWebClient.createHold("flight123", 300).subscribe(hold -> { }, error -> { });
+        cancelled.dispose();
+        for (int i = 0; i < 50 && requests.size() < 2; i++) {
+            Thread.sleep(20);
+        }
+
+        // Assert
+        assertEquals(2, requests.size());
+        assertEquals("/api/v1/flight/flight123/holds/batch", requests.get(0).url().getPath());
+        assertEquals(HttpMethod.DELETE, requests.get(1).method());
+        assertEquals("/api/v1/flight/holds/hold1", requests.get(1).url().getPath());
+    }
+
+    @Test
+    void testReleaseSeats_SendsReleaseIdWithSeatCount() {
+        // Act & Assert
+        StepVerifier.create(flightServiceWebClient.releaseSeats("flight123", 3, "release-1"))
+                .assertNext(flight -> assertEquals("flight123", flight.getId()))
+                .verifyComplete();
+
+        assertEquals(HttpMethod.PUT, requests.get(0).method());
+        assertEquals("/api/v1/flight/flight123/seats/release", requests.get(0).url().getPath());
+        assertEquals("seats=3&releaseId=release-1", requests.get(0).url().getQuery());
+    }
+}
@@ -0,0 +1,148 @@
+package com.flightapp.booking.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedFlightReadsTest {
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private MeterRegistry meterRegistry;
+    private HedgedFlightReads hedgedFlightReads;
+    private final List<String> calledUrls = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(discoveryClient.getInstances("flight-service")).thenReturn(List.of(
+                new DefaultServiceInstance("flight-service-1", "flight-service", "10.0.0.1", 8081, false),
+                new DefaultServiceInstance("flight-service-2", "flight-service", "10.0.0.2", 8081, false)));
+        FlightServiceInstances flightServiceInstances = new FlightServiceInstances(discoveryClient);
+        flightServiceInstances.refresh();
+        meterRegistry = new SimpleMeterRegistry();
+        hedgedFlightReads = new HedgedFlightReads(flightServiceInstances, meterRegistry, 0.95);
+        ReflectionTestUtils.setField(hedgedFlightReads, "enabled", true);
+        ReflectionTestUtils.setField(hedgedFlightReads, "initialDelayMs", 50L);
+        ReflectionTestUtils.setField(hedgedFlightReads, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(hedgedFlightReads, "maxDelayMs", 1000L);
+        ReflectionTestUtils.setField(hedgedFlightReads, "minSamples", 100L);
+    }
+
+    // The first attempt behaves like firstAttempt, any later one answers at once with the instance's URL
+    private Function<String, Mono<String>> request(Function<String, Mono<String>> firstAttempt) {
+        return baseUrl -> {
+            calledUrls.add(baseUrl);
+            return calledUrls.size() == 1 ? firstAttempt.apply(baseUrl) : Mono.just(baseUrl);
+        };
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    @Test
+    void testCall_SlowFirstAttemptIsHedgedToOtherInstance() {
+        // Act & Assert
+        StepVerifier.create(hedgedFlightReads.call(request(baseUrl -> Mono.delay(Duration.ofSeconds(5)).thenReturn("slow"))))
+                .assertNext(answer -> assertEquals(calledUrls.get(1), answer))
+                .verifyComplete();
+
+        assertEquals(2, calledUrls.size());
+        assertNotEquals(calledUrls.get(0), calledUrls.get(1));
+        assertEquals(1.0, count("flight.client.hedge.sent"));
+        assertEquals(1.0, count("flight.client.hedge.won"));
+        assertEquals(1.0, meterRegistry.get("flight.client.hedge.win.rate").gauge().value());
+    }
+
+    @Test
+    void testCall_FastAnswerIsNotHedged() throws InterruptedException {
+        // Act & Assert
+        StepVerifier.create(hedgedFlightReads.call(request(baseUrl -> Mono.just("fast"))))
+                .expectNext("fast")
+                .verifyComplete();
+
+        Thread.sleep(100);
+        assertEquals(1, calledUrls.size());
+        assertEquals(1.0, count("flight.client.hedge.reads"));
+        assertEquals(0.0, count("flight.client.hedge.sent"));
+        assertEquals(0.0, meterRegistry.get("flight.client.hedge.rate").gauge().value());
+    }
+
+    @Test
+    void testCall_ErrorBeforeHedgeDelayIsReturnedAtOnce() {
+        // Arrange
+        WebClientResponseException notFound = WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY,
+                new byte[0], StandardCharsets.UTF_8);
+
+        // Act & Assert
+        StepVerifier.create(hedgedFlightReads.call(request(baseUrl -> Mono.error(notFound))))
+                .expectErrorMatches(error -> error == notFound)
+                .verify(Duration.ofMillis(40));
+
+        assertEquals(1, calledUrls.size());
+        assertEquals(0.0, count("flight.client.hedge.sent"));
+    }
+
+    @Test
+    void testCall_FirstAttemptFailingAfterHedgeLeavesHedgeToAnswer() {
+        // Act & Assert
+        StepVerifier.create(hedgedFlightReads.call(request(baseUrl -> Mono.delay(Duration.ofMillis(80))
+                        .then(Mono.error(new IllegalStateException("instance went away"))))))
+                .assertNext(answer -> assertEquals(calledUrls.get(1), answer))
+                .verifyComplete();
+    }
+
+    @Test
+    void testCall_DisabledSendsOneRequest() {
+        // Arrange
+        ReflectionTestUtils.setField(hedgedFlightReads, "enabled", false);
+
+        // Act & Assert
+        StepVerifier.create(hedgedFlightReads.call(request(baseUrl -> Mono.delay(Duration.ofMillis(100)).thenReturn("slow"))))
+                .expectNext("slow")
+                .verifyComplete();
+
+        assertEquals(1, calledUrls.size());
+        assertEquals(0.0, count("flight.client.hedge.reads"));
+    }
+
+    @Test
+    void testHedgeDelay_FollowsRecentLatencyOnceThereAreEnoughSamples() {
+        // Arrange
+        ReflectionTestUtils.setField(hedgedFlightReads, "minSamples", 10L);
+        ReflectionTestUtils.setField(hedgedFlightReads, "initialDelayMs", 1000L);
+        for (int i = 0; i < 20; i++) {
+            hedgedFlightReads.call(baseUrl -> Mono.delay(Duration.ofMillis(30)).thenReturn(baseUrl)).block();
+        }
+
+        // Act
+        ReflectionTestUtils.setField(hedgedFlightReads, "delayRefreshedAt", System.nanoTime() - Duration.ofSeconds(1).toNanos());
+        Duration delay = hedgedFlightReads.hedgeDelay();
+
+        // Assert: client-side percentiles are approximations, so allow some slack below the 30ms reads
+        assertTrue(delay.toMillis() >= 20 && delay.toMillis() < 500, "hedge delay " + delay);
+        assertEquals(0.0, count("flight.client.hedge.sent"));
+    }
+}
@@ -3,10 +3,13 @@ package com.flightapp.booking.controller;
 import com.flightapp.booking.constants.BookingStatus;
 import com.flightapp.booking.constants.MealType;
 import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingHistoryPage;
 import com.flightapp.booking.dto.BookingResponse;
 import com.flightapp.booking.entity.Passenger;
 import com.flightapp.booking.exception.BookingNotFoundException;
+import com.flightapp.booking.exception.IdempotencyConflictException;
 import com.flightapp.booking.service.BookingService;
+import com.flightapp.booking.service.IdempotentBookingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +27,8 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(BookingController.class)
@@ -35,6 +40,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private IdempotentBookingService idempotentBookingService;
+
     private BookRequest bookRequest;
     private BookingResponse bookingResponse;
 
@@ -104,6 +112,45 @@ class BookingControllerTest {
                 });
     }
 
+    @Test
+    void testBookTicket_WithIdempotencyKey() {
+        // Arrange
+        when(idempotentBookingService.bookTicket(eq("key-1"), eq("flight123"), any(BookRequest.class)))
+                .thenReturn(Mono.just(bookingResponse));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/booking/book/flight123")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookingResponse.class)
+                .value(response -> {
+                    assert response.getPnr().equals("PNR12345678");
+                });
+        verify(bookingService, never()).bookTicket(any(), any());
+    }
+
+    @Test
+    void testBookTicket_IdempotencyKeyInProgress() {
+        // Arrange
+        when(idempotentBookingService.bookTicket(eq("key-1"), eq("flight123"), any(BookRequest.class)))
+                .thenReturn(Mono.error(new IdempotencyConflictException("A request with this Idempotency-Key is still in progress")));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/booking/book/flight123")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(bookRequest)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CONFLICT");
+    }
+
     @Test
     void testGetBookingByPnr_Success() {
         // Arrange
@@ -138,18 +185,40 @@ class BookingControllerTest {
     @Test
     void testGetBookingHistory_Success() {
         // Arrange
-        when(bookingService.getBookingHistory("john@example.com"))
-                .thenReturn(Flux.just(bookingResponse, bookingResponse));
+        when(bookingService.getBookingHistory("john@example.com", null, null, false))
+                .thenReturn(Mono.just(BookingHistoryPage.builder()
+                        .bookings(List.of(bookingResponse, bookingResponse))
+                        .build()));
 
         // Act & Assert
         webTestClient.get()
                 .uri("/api/v1/booking/history/john@example.com")
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor")
                 .expectBodyList(BookingResponse.class)
                 .hasSize(2);
     }
 
+    @Test
+    void testGetBookingHistory_NextPage() {
+        // Arrange
+        when(bookingService.getBookingHistory("john@example.com", "abc", 1, true))
+                .thenReturn(Mono.just(BookingHistoryPage.builder()
+                        .bookings(List.of(bookingResponse))
+                        .nextCursor("def")
+                        .build()));
+
+        // Act & Assert
+        webTestClient.get()
+                .uri("/api/v1/booking/history/john@example.com?cursor=abc&limit=1&summary=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "def")
+                .expectBodyList(BookingResponse.class)
+                .hasSize(1);
+    }
+
     @Test
     void testCancelBooking_Success() {
         // Arrange
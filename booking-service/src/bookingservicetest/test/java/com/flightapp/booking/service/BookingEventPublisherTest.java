@@ -0,0 +1,127 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.entity.OutboxEvent;
+import com.flightapp.booking.event.BookingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.rabbitmq.CorrelableOutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
+import reactor.rabbitmq.SendOptions;
+import reactor.rabbitmq.Sender;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEventPublisherTest {
+
+    @Mock
+    private Sender sender;
+
+    private BookingEventPublisher bookingEventPublisher;
+
+    private OutboxEvent first;
+    private OutboxEvent second;
+
+    @BeforeEach
+    void setUp() {
+        bookingEventPublisher = new BookingEventPublisher(sender, new Jackson2JsonMessageConverter());
+        ReflectionTestUtils.setField(bookingEventPublisher, "exchange", "booking-exchange");
+        ReflectionTestUtils.setField(bookingEventPublisher, "routingKey", "booking-routing-key");
+        ReflectionTestUtils.setField(bookingEventPublisher, "maxInFlight", 16);
+        ReflectionTestUtils.setField(bookingEventPublisher, "confirmTimeoutMs", 200L);
+
+        first = outboxEvent("event1");
+        second = outboxEvent("event2");
+    }
+
+    private OutboxEvent outboxEvent(String id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .pnr("PNR12345678")
+                .eventType("BOOKING_CONFIRMED")
+                .payload(BookingEvent.builder().pnr("PNR12345678").eventType("BOOKING_CONFIRMED").build())
+                .status(OutboxStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_EmitsOnlyConfirmedEvents() {
+        // Arrange
+        when(sender.sendWithTypedPublishConfirms(any(Publisher.class), any(SendOptions.class)))
+                .thenAnswer(invocation -> Flux.from((Publisher<CorrelableOutboundMessage<String>>) invocation.getArgument(0))
+                        .map(message -> new OutboundMessageResult<>(message,
+                                "event1".equals(message.getCorrelationMetadata()))));
+
+        // Act & Assert
+        StepVerifier.create(bookingEventPublisher.publish(List.of(first, second)))
+                .expectNext("event1")
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_MessageMatchesRabbitTemplateFormat() {
+        // Arrange
+        ArgumentCaptor<Publisher<CorrelableOutboundMessage<String>>> captor = ArgumentCaptor.forClass(Publisher.class);
+        when(sender.sendWithTypedPublishConfirms(captor.capture(), any(SendOptions.class))).thenReturn(Flux.empty());
+
+        // Act
+        bookingEventPublisher.publish(List.of(first)).blockLast();
+
+        // Assert
+        CorrelableOutboundMessage<String> message = Flux.from(captor.getValue()).blockFirst();
+        assertNotNull(message);
+        assertEquals("booking-exchange", message.getExchange());
+        assertEquals("booking-routing-key", message.getRoutingKey());
+        assertEquals("event1", message.getProperties().getMessageId());
+        assertEquals("application/json", message.getProperties().getContentType());
+        assertEquals(2, message.getProperties().getDeliveryMode());
+        assertEquals(BookingEvent.class.getName(), message.getProperties().getHeaders().get("__TypeId__").toString());
+        assertTrue(new String(message.getBody()).contains("PNR12345678"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_BrokerFailureLeavesRemainingEventsUnconfirmed() {
+        // Arrange
+        when(sender.sendWithTypedPublishConfirms(any(Publisher.class), any(SendOptions.class)))
+                .thenAnswer(invocation -> Flux.from((Publisher<CorrelableOutboundMessage<String>>) invocation.getArgument(0))
+                        .take(1)
+                        .map(message -> new OutboundMessageResult<>(message, true))
+                        .concatWith(Flux.error(new IllegalStateException("Connection reset"))));
+
+        // Act & Assert
+        StepVerifier.create(bookingEventPublisher.publish(List.of(first, second)))
+                .expectNext("event1")
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublish_SlowBrokerTimesOut() {
+        // Arrange
+        when(sender.sendWithTypedPublishConfirms(any(Publisher.class), any(SendOptions.class)))
+                .thenReturn(Flux.never());
+
+        // Act & Assert
+        StepVerifier.create(bookingEventPublisher.publish(List.of(first)))
+                .verifyComplete();
+    }
+}
@@ -2,21 +2,31 @@ package com.flightapp.booking.service;
 
 import com.flightapp.booking.client.FlightServiceWebClient;
 import com.flightapp.booking.constants.BookingStatus;
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.constants.SeatReleaseStatus;
 import com.flightapp.booking.constants.MealType;
 import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingHistoryPage;
 import com.flightapp.booking.dto.BookingResponse;
 import com.flightapp.booking.dto.FlightDto;
+import com.flightapp.booking.dto.HistoryCursor;
+import com.flightapp.booking.dto.SeatHoldDto;
 import com.flightapp.booking.entity.Booking;
-import com.flightapp.booking.event.BookingEvent;
+import com.flightapp.booking.entity.OutboxEvent;
+import com.flightapp.booking.entity.SeatRelease;
 import com.flightapp.booking.exception.BookingNotFoundException;
 import com.flightapp.booking.repository.BookingRepository;
+import com.flightapp.booking.repository.OutboxEventRepository;
+import com.flightapp.booking.repository.SeatReleaseRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,6 +34,7 @@ import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,19 +50,27 @@ class BookingServiceImplTest {
     private FlightServiceWebClient flightServiceClient;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private SeatReleaseRepository seatReleaseRepository;
+
+    @Spy
+    private PnrGenerator pnrGenerator = new PnrGenerator();
 
     @InjectMocks
     private BookingServiceImpl bookingService;
 
     private FlightDto flightDto;
+    private SeatHoldDto seatHold;
     private BookRequest bookRequest;
     private Booking booking;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(bookingService, "exchange", "booking-exchange");
-        ReflectionTestUtils.setField(bookingService, "routingKey", "booking-routing-key");
+        ReflectionTestUtils.setField(bookingService, "defaultHistoryPageSize", 20);
+        ReflectionTestUtils.setField(bookingService, "maxHistoryPageSize", 100);
+        ReflectionTestUtils.setField(bookingService, "cancelRetryWindowHours", 24L);
 
         // Setup Flight DTO
         flightDto = FlightDto.builder()
@@ -66,6 +85,15 @@ class BookingServiceImplTest {
                 .ticketPrice(5000.0)
                 .build();
 
+        // Setup Seat Hold
+        seatHold = SeatHoldDto.builder()
+                .holdId("hold123")
+                .flightId("flight123")
+                .seats(2)
+                .status("HELD")
+                .flight(flightDto)
+                .build();
+
         // Setup Book Request
         bookRequest = new BookRequest();
         bookRequest.setUserName("John Doe");
@@ -79,6 +107,7 @@ class BookingServiceImplTest {
         booking = Booking.builder()
                 .pnr("PNR12345678")
                 .flightId("flight123")
+                .holdId("hold123")
                 .flightNumber("AI101")
                 .airline("Air India")
                 .fromPlace("Delhi")
@@ -97,12 +126,20 @@ class BookingServiceImplTest {
                 .build();
     }
 
+    private Mono<OutboxEvent> saveOutboxEvent(InvocationOnMock invocation) {
+        OutboxEvent event = invocation.getArgument(0);
+        event.setId("event1");
+        return Mono.just(event);
+    }
+
     @Test
     void testBookTicket_Success() {
         // Arrange
-        when(flightServiceClient.getFlightById("flight123")).thenReturn(Mono.just(flightDto));
-        when(flightServiceClient.updateSeats("flight123", 2)).thenReturn(Mono.just(flightDto));
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
         when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(flightServiceClient.confirmHold("hold123", "PNR12345678")).thenReturn(Mono.just(seatHold));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(outboxEventRepository.markPending(List.of("event1"))).thenReturn(Mono.just(1L));
 
         // Act
         Mono<BookingResponse> result = bookingService.bookTicket("flight123", bookRequest);
@@ -117,17 +154,41 @@ class BookingServiceImplTest {
                 })
                 .verifyComplete();
 
-        verify(flightServiceClient).getFlightById("flight123");
-        verify(flightServiceClient).updateSeats("flight123", 2);
+        verify(flightServiceClient).createHold("flight123", 2);
+        verify(flightServiceClient).confirmHold("hold123", "PNR12345678");
+        verify(flightServiceClient, never()).getFlightById(anyString());
+        verify(flightServiceClient, never()).releaseHold(anyString());
         verify(bookingRepository).save(any(Booking.class));
-        verify(rabbitTemplate).convertAndSend(eq("booking-exchange"), eq("booking-routing-key"), any(BookingEvent.class));
+        verify(outboxEventRepository).recordOnce(argThat(event ->
+                event.getStatus() == OutboxStatus.DRAFT
+                        && "BOOKING_CONFIRMED".equals(event.getPayload().getEventType())));
+        verify(outboxEventRepository).markPending(List.of("event1"));
+    }
+
+    @Test
+    void testBookTicket_EventActivationFailureKeepsBooking() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(flightServiceClient.confirmHold("hold123", "PNR12345678")).thenReturn(Mono.just(seatHold));
+        when(outboxEventRepository.markPending(List.of("event1")))
+                .thenReturn(Mono.error(new RuntimeException("Mongo down")));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.bookTicket("flight123", bookRequest))
+                .assertNext(response -> assertEquals("PNR12345678", response.getPnr()))
+                .verifyComplete();
+
+        verify(bookingRepository, never()).delete(any(Booking.class));
+        verify(flightServiceClient, never()).releaseHold(anyString());
     }
 
     @Test
     void testBookTicket_InsufficientSeats() {
         // Arrange
-        flightDto.setAvailableSeats(1);
-        when(flightServiceClient.getFlightById("flight123")).thenReturn(Mono.just(flightDto));
+        when(flightServiceClient.createHold("flight123", 2))
+                .thenReturn(Mono.error(new IllegalArgumentException("Not enough available seats")));
 
         // Act
         Mono<BookingResponse> result = bookingService.bookTicket("flight123", bookRequest);
@@ -136,18 +197,17 @@ class BookingServiceImplTest {
         StepVerifier.create(result)
                 .expectErrorMatches(throwable ->
                         throwable instanceof IllegalArgumentException &&
-                        throwable.getMessage().contains("Not enough seats available"))
+                        throwable.getMessage().contains("Not enough available seats"))
                 .verify();
 
-        verify(flightServiceClient).getFlightById("flight123");
-        verify(flightServiceClient, never()).updateSeats(anyString(), anyInt());
+        verify(flightServiceClient).createHold("flight123", 2);
         verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void testBookTicket_FlightNotFound() {
         // Arrange
-        when(flightServiceClient.getFlightById("flight123"))
+        when(flightServiceClient.createHold("flight123", 2))
                 .thenReturn(Mono.error(new RuntimeException("Flight not found")));
 
         // Act
@@ -158,10 +218,127 @@ class BookingServiceImplTest {
                 .expectError(RuntimeException.class)
                 .verify();
 
-        verify(flightServiceClient).getFlightById("flight123");
+        verify(flightServiceClient).createHold("flight123", 2);
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void testBookTicket_DuplicatePnrIsRegenerated() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error pnr_unique_idx")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(flightServiceClient.confirmHold(eq("hold123"), anyString())).thenReturn(Mono.just(seatHold));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(outboxEventRepository.delete(any(OutboxEvent.class))).thenReturn(Mono.empty());
+        when(outboxEventRepository.markPending(List.of("event1"))).thenReturn(Mono.just(1L));
+
+        // Act
+        Mono<BookingResponse> result = bookingService.bookTicket("flight123", bookRequest);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> assertTrue(response.getPnr().startsWith("PNR")))
+                .verifyComplete();
+
+        verify(pnrGenerator, times(2)).nextPnr();
+        verify(bookingRepository, times(2)).save(any(Booking.class));
+        verify(outboxEventRepository, times(2)).recordOnce(any(OutboxEvent.class));
+        verify(outboxEventRepository).delete(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testBookTicket_SaveFails_ReleasesHold() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.error(new RuntimeException("Mongo down")));
+        when(outboxEventRepository.delete(any(OutboxEvent.class))).thenReturn(Mono.empty());
+        when(flightServiceClient.releaseHold("hold123")).thenReturn(Mono.just(seatHold));
+
+        // Act
+        Mono<BookingResponse> result = bookingService.bookTicket("flight123", bookRequest);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMessage("Mongo down")
+                .verify();
+
+        verify(flightServiceClient).releaseHold("hold123");
+        verify(flightServiceClient, never()).confirmHold(anyString(), anyString());
+        verify(outboxEventRepository).delete(argThat(event -> "event1".equals(event.getId())));
+    }
+
+    @Test
+    void testBookTicket_ConfirmFails_RollsBack() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(flightServiceClient.confirmHold("hold123", "PNR12345678"))
+                .thenReturn(Mono.error(new IllegalArgumentException("Seat hold is no longer active")));
+        when(outboxEventRepository.delete(any(OutboxEvent.class))).thenReturn(Mono.empty());
+        when(bookingRepository.delete(booking)).thenReturn(Mono.empty());
+        when(flightServiceClient.compensateHold("hold123", "PNR12345678")).thenReturn(Mono.just(seatHold));
+
+        // Act
+        Mono<BookingResponse> result = bookingService.bookTicket("flight123", bookRequest);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(outboxEventRepository).delete(argThat(event -> "event1".equals(event.getId())));
+        verify(outboxEventRepository, never()).markPending(any());
+        verify(bookingRepository).delete(booking);
+        verify(flightServiceClient).compensateHold("hold123", "PNR12345678");
+        verify(flightServiceClient, never()).releaseHold(anyString());
+    }
+
+    @Test
+    void testBookTicket_CompensationFails_LeavesDraftForSweep() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(flightServiceClient.confirmHold("hold123", "PNR12345678"))
+                .thenReturn(Mono.error(new RuntimeException("Timeout")));
+        when(bookingRepository.delete(booking)).thenReturn(Mono.empty());
+        when(flightServiceClient.compensateHold("hold123", "PNR12345678"))
+                .thenReturn(Mono.error(new RuntimeException("Gone")));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.bookTicket("flight123", bookRequest))
+                .expectErrorMessage("Timeout")
+                .verify();
+
+        verify(flightServiceClient, times(4)).compensateHold("hold123", "PNR12345678");
+        verify(outboxEventRepository, never()).delete(any(OutboxEvent.class));
+        verify(outboxEventRepository, never()).markPending(any());
+    }
+
+    @Test
+    void testBookTicket_BookingNotDeleted_KeepsHold() {
+        // Arrange
+        when(flightServiceClient.createHold("flight123", 2)).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class))).thenAnswer(this::saveOutboxEvent);
+        when(flightServiceClient.confirmHold("hold123", "PNR12345678"))
+                .thenReturn(Mono.error(new RuntimeException("Timeout")));
+        when(bookingRepository.delete(booking)).thenReturn(Mono.error(new RuntimeException("Mongo down")));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.bookTicket("flight123", bookRequest))
+                .expectErrorMessage("Timeout")
+                .verify();
+
+        verify(flightServiceClient, never()).compensateHold(anyString(), anyString());
+        verify(flightServiceClient, never()).releaseHold(anyString());
+        verify(outboxEventRepository, never()).delete(any(OutboxEvent.class));
+    }
+
     @Test
     void testGetBookingByPnr_Success() {
         // Arrange
@@ -201,25 +378,77 @@ class BookingServiceImplTest {
     @Test
     void testGetBookingHistory_Success() {
         // Arrange
-        when(bookingRepository.findByUserEmail("john@example.com"))
+        when(bookingRepository.findHistory("john@example.com", null, 21, false))
                 .thenReturn(Flux.just(booking, booking));
 
         // Act
-        Flux<BookingResponse> result = bookingService.getBookingHistory("john@example.com");
+        Mono<BookingHistoryPage> result = bookingService.getBookingHistory("john@example.com", null, null, false);
 
         // Assert
         StepVerifier.create(result)
-                .expectNextCount(2)
+                .assertNext(page -> {
+                    assertEquals(2, page.getBookings().size());
+                    assertNull(page.getNextCursor());
+                })
                 .verifyComplete();
+    }
+
+    @Test
+    void testGetBookingHistory_NextPageCursor() {
+        // Arrange
+        Booking older = Booking.builder()
+                .id("booking456")
+                .pnr("PNR87654321")
+                .userEmail("john@example.com")
+                .bookingDateTime(booking.getBookingDateTime().minusDays(1))
+                .build();
+        Booking oldest = Booking.builder()
+                .id("booking789")
+                .pnr("PNR11223344")
+                .userEmail("john@example.com")
+                .bookingDateTime(booking.getBookingDateTime().minusDays(2))
+                .build();
+        HistoryCursor after = new HistoryCursor(booking.getBookingDateTime(), "booking999");
+        when(bookingRepository.findHistory(eq("john@example.com"), eq(after), eq(3), eq(true)))
+                .thenReturn(Flux.just(booking, older, oldest));
 
-        verify(bookingRepository).findByUserEmail("john@example.com");
+        // Act
+        Mono<BookingHistoryPage> result = bookingService.getBookingHistory("john@example.com", after.encode(), 2, true);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(page -> {
+                    assertEquals(2, page.getBookings().size());
+                    assertEquals("PNR87654321", page.getBookings().get(1).getPnr());
+                    assertEquals(HistoryCursor.after(older).encode(), page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBookingHistory_InvalidCursor() {
+        // Act
+        Mono<BookingHistoryPage> result = bookingService.getBookingHistory("john@example.com", "not-a-cursor", 10, false);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMessage("Invalid history cursor")
+                .verify();
+
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void testCancelBooking_Success() {
         // Arrange
+        seatHold.setStatus("CONFIRMED");
         when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(flightServiceClient.getHold("hold123")).thenReturn(Mono.just(seatHold));
+        when(seatReleaseRepository.save(any(SeatRelease.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
         // Act
         Mono<BookingResponse> result = bookingService.cancelBooking("PNR12345678");
@@ -234,26 +463,104 @@ class BookingServiceImplTest {
 
         verify(bookingRepository).findByPnr("PNR12345678");
         verify(bookingRepository).save(any(Booking.class));
-        verify(rabbitTemplate).convertAndSend(eq("booking-exchange"), eq("booking-routing-key"), any(BookingEvent.class));
+        verify(outboxEventRepository).recordOnce(argThat(event -> "BOOKING_CANCELLED".equals(event.getEventType())));
+        verify(seatReleaseRepository).save(argThat(release -> "flight123".equals(release.getFlightId())
+                && release.getSeats() == 2 && release.getStatus() == SeatReleaseStatus.PENDING));
+        verify(flightServiceClient, never()).compensateHold(anyString(), anyString());
     }
 
     @Test
-    void testCancelBooking_AlreadyCancelled() {
+    void testCancelBooking_HoldAlreadyReleasedSkipsSeatRelease() {
         // Arrange
-        booking.setBookingStatus(BookingStatus.CANCELLED);
+        seatHold.setStatus("RELEASED");
         when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(flightServiceClient.getHold("hold123")).thenReturn(Mono.just(seatHold));
+        when(flightServiceClient.compensateHold("hold123", "PNR12345678")).thenReturn(Mono.just(seatHold));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.cancelBooking("PNR12345678"))
+                .expectNextCount(1)
+                .verifyComplete();
 
-        // Act
-        Mono<BookingResponse> result = bookingService.cancelBooking("PNR12345678");
+        verify(seatReleaseRepository, never()).save(any());
+        verify(outboxEventRepository).recordOnce(argThat(event -> "BOOKING_CANCELLED".equals(event.getEventType())));
+    }
 
-        // Assert
-        StepVerifier.create(result)
-                .expectErrorMatches(throwable ->
-                        throwable instanceof IllegalArgumentException &&
-                        throwable.getMessage().contains("already cancelled"))
+    @Test
+    void testCancelBooking_HoldLookupFails() {
+        // Arrange
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(flightServiceClient.getHold("hold123")).thenReturn(Mono.error(new RuntimeException("Unavailable")));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.cancelBooking("PNR12345678"))
+                .expectErrorMessage("Unavailable")
                 .verify();
 
-        verify(bookingRepository).findByPnr("PNR12345678");
+        verify(seatReleaseRepository, never()).save(any());
+        verify(outboxEventRepository, never()).recordOnce(any());
+    }
+
+    @Test
+    void testCancelBooking_SeatReleaseAlreadyRecorded() {
+        // Arrange
+        seatHold.setStatus("CONFIRMED");
+        when(flightServiceClient.getHold("hold123")).thenReturn(Mono.just(seatHold));
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.just(booking));
+        when(seatReleaseRepository.save(any(SeatRelease.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.cancelBooking("PNR12345678"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(outboxEventRepository).recordOnce(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testCancelBooking_RepeatedCancelRecordsWhatWasMissed() {
+        // Arrange: the first cancel stopped after marking the booking CANCELLED
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        booking.setCancelledAt(LocalDateTime.now().minusMinutes(5));
+        seatHold.setStatus("CONFIRMED");
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
+        when(flightServiceClient.getHold("hold123")).thenReturn(Mono.just(seatHold));
+        when(seatReleaseRepository.save(any(SeatRelease.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(outboxEventRepository.recordOnce(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.cancelBooking("PNR12345678"))
+                .assertNext(response -> assertEquals(BookingStatus.CANCELLED, response.getBookingStatus()))
+                .verifyComplete();
+
+        verify(bookingRepository, never()).save(any());
+        verify(seatReleaseRepository).save(any(SeatRelease.class));
+        verify(outboxEventRepository).recordOnce(argThat(event -> "BOOKING_CANCELLED".equals(event.getEventType())));
+    }
+
+    @Test
+    void testCancelBooking_OldCancellationIsOnlyReported() {
+        // Arrange
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        booking.setCancelledAt(LocalDateTime.now().minusDays(10));
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(booking));
+
+        // Act & Assert
+        StepVerifier.create(bookingService.cancelBooking("PNR12345678"))
+                .assertNext(response -> assertEquals(BookingStatus.CANCELLED, response.getBookingStatus()))
+                .verifyComplete();
+
+        verifyNoInteractions(seatReleaseRepository, outboxEventRepository, flightServiceClient);
         verify(bookingRepository, never()).save(any());
     }
 
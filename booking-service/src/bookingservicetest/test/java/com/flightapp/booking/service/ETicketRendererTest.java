@@ -0,0 +1,108 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ETicketRendererTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private ETicketRenderer eTicketRenderer;
+    private BookingEvent bookingEvent;
+
+    @BeforeEach
+    void setUp() {
+        eTicketRenderer = new ETicketRenderer();
+        bookingEvent = BookingEvent.builder()
+                .pnr("PNR12345678")
+                .eventType("BOOKING_CONFIRMED")
+                .userName("John Doe")
+                .userEmail("john@example.com")
+                .flightNumber("AI101")
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .departureDateTime(LocalDateTime.of(2025, 12, 20, 10, 30))
+                .totalAmount(5000.0)
+                .build();
+    }
+
+    @Test
+    void testRender_WritesPdfWithoutClosingStream() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = spy(new ByteArrayOutputStream());
+
+        // Act
+        eTicketRenderer.render(bookingEvent, out);
+
+        // Assert
+        assertTrue(out.toString().startsWith("%PDF-"));
+        assertTrue(out.toString().contains("%%EOF"));
+        verify(out, never()).close();
+    }
+
+    @Test
+    void testAttachment_RendersOnceWhileMessageIsWritten() throws Exception {
+        // Arrange
+        ETicketRenderer renderer = spy(eTicketRenderer);
+        MimeMessage message = new MimeMessage((Session) null);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setTo("john@example.com");
+        helper.setText("Your flight booking has been confirmed!");
+        helper.getRootMimeMultipart().addBodyPart(renderer.attachment(bookingEvent));
+
+        // Act
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+
+        // Assert
+        verify(renderer, times(1)).render(eq(bookingEvent), any(OutputStream.class));
+    }
+
+    @Test
+    void testAttachment_DeliveredOverSmtp() throws Exception {
+        // Arrange
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom("bookings@flightapp.com");
+        helper.setTo("john@example.com");
+        helper.setSubject("Flight Booking Confirmed");
+        helper.setText("Your flight booking has been confirmed!");
+        helper.getRootMimeMultipart().addBodyPart(eTicketRenderer.attachment(bookingEvent));
+
+        // Act
+        mailSender.send(message);
+
+        // Assert
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        Multipart content = (Multipart) received.getContent();
+        Part ticket = content.getBodyPart(1);
+        assertEquals("e-ticket-PNR12345678.pdf", ticket.getFileName());
+        assertTrue(ticket.isMimeType("application/pdf"));
+        assertTrue(GreenMailUtil.getBody(ticket).length() > 0);
+        assertTrue(new String(ticket.getInputStream().readAllBytes()).startsWith("%PDF-"));
+    }
+}
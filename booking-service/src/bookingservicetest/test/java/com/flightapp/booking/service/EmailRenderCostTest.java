@@ -0,0 +1,75 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Render cost per event: time and bytes allocated on the calling thread for the email text
+// (subject + body) and for the PDF e-ticket streamed into a discarding output stream.
+@Slf4j
+@Tag("perf")
+class EmailRenderCostTest {
+
+    private static final int WARMUP = 500;
+    private static final int EVENTS = 500;
+
+    private final EmailTemplates emailTemplates = new EmailTemplates();
+    private final ETicketRenderer eTicketRenderer = new ETicketRenderer();
+    private final BookingEvent bookingEvent = BookingEvent.builder()
+            .pnr("PNR12345678")
+            .eventType("BOOKING_CONFIRMED")
+            .userName("John Doe")
+            .userEmail("john@example.com")
+            .flightNumber("AI101")
+            .fromPlace("Delhi")
+            .toPlace("Mumbai")
+            .departureDateTime(LocalDateTime.of(2025, 12, 20, 10, 30))
+            .totalAmount(5000.0)
+            .build();
+
+    @Test
+    void emailText() {
+        measure("email text", () -> {
+            emailTemplates.subject(bookingEvent);
+            emailTemplates.body(bookingEvent);
+        });
+    }
+
+    @Test
+    void pdfTicket() {
+        measure("pdf e-ticket", () -> eTicketRenderer.render(bookingEvent, OutputStream.nullOutputStream()));
+    }
+
+    private void measure(String name, Render render) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        try {
+            for (int i = 0; i < WARMUP; i++) {
+                render.run();
+            }
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                render.run();
+            }
+            long nanosPerEvent = (System.nanoTime() - start) / EVENTS;
+            long bytesPerEvent = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / EVENTS;
+            log.info("Render cost ({}): {} us/event, {} bytes allocated/event", name, nanosPerEvent / 1000, bytesPerEvent);
+            assertTrue(nanosPerEvent > 0);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Render {
+        void run() throws Exception;
+    }
+}
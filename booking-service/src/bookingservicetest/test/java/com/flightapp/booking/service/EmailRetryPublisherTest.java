@@ -0,0 +1,94 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailRetryPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private MeterRegistry meterRegistry;
+    private EmailRetryPublisher emailRetryPublisher;
+    private BookingEvent bookingEvent;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        emailRetryPublisher = new EmailRetryPublisher(rabbitTemplate, meterRegistry);
+        ReflectionTestUtils.setField(emailRetryPublisher, "queue", "booking.email.queue");
+        ReflectionTestUtils.setField(emailRetryPublisher, "retryExchange", "booking.email.retry");
+        ReflectionTestUtils.setField(emailRetryPublisher, "parkingLotQueue", "booking.email.parking-lot");
+        ReflectionTestUtils.setField(emailRetryPublisher, "retryDelaysMs", new long[]{5000, 30000, 300000});
+
+        bookingEvent = BookingEvent.builder()
+                .pnr("PNR12345678")
+                .eventType("BOOKING_CONFIRMED")
+                .userEmail("john@example.com")
+                .build();
+    }
+
+    @Test
+    void testRetryOrPark_TransientFailureUsesDelayForAttempt() {
+        // Arrange
+        ArgumentCaptor<MessagePostProcessor> headers = ArgumentCaptor.forClass(MessagePostProcessor.class);
+
+        // Act
+        emailRetryPublisher.retryOrPark(bookingEvent, 2, new MailSendException("Mail server connection failed"));
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(eq("booking.email.retry"), eq("booking.email.queue.retry.30000ms"),
+                eq(bookingEvent), headers.capture());
+        Message message = headers.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        assertEquals(2, (Integer) message.getMessageProperties().getHeader(EmailRetryPublisher.ATTEMPTS_HEADER));
+        assertEquals(1.0, meterRegistry.counter("booking.email.retried", "delay", "30000ms").count());
+    }
+
+    @Test
+    void testRetryOrPark_ParksAfterLastDelay() {
+        // Act
+        emailRetryPublisher.retryOrPark(bookingEvent, 4, new MailSendException("Mail server connection failed"));
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(eq(""), eq("booking.email.parking-lot"), eq(bookingEvent),
+                any(MessagePostProcessor.class));
+        assertEquals(1.0, meterRegistry.counter("booking.email.parked").count());
+    }
+
+    @Test
+    void testRetryOrPark_InvalidAddressIsParkedImmediately() throws Exception {
+        // Arrange
+        SendFailedException rejected = new SendFailedException("550 mailbox unavailable", null,
+                null, null, new InternetAddress[]{new InternetAddress("john@example.com")});
+
+        // Act
+        emailRetryPublisher.retryOrPark(bookingEvent, 1, new MailSendException("Failed messages", rejected));
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(eq(""), eq("booking.email.parking-lot"), eq(bookingEvent),
+                any(MessagePostProcessor.class));
+        verify(rabbitTemplate, never()).convertAndSend(eq("booking.email.retry"), anyString(), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+}
@@ -0,0 +1,111 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceTest {
+
+    @Mock
+    private MailDispatcher mailDispatcher;
+
+    @Mock
+    private EmailRetryPublisher emailRetryPublisher;
+
+    @Spy
+    private EmailTemplates emailTemplates = new EmailTemplates();
+
+    @Spy
+    private ETicketRenderer eTicketRenderer = new ETicketRenderer();
+
+    @InjectMocks
+    private EmailService emailService;
+
+    private BookingEvent bookingEvent;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(emailService, "sendTimeoutMs", 1000L);
+        when(mailDispatcher.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+
+        bookingEvent = BookingEvent.builder()
+                .pnr("PNR12345678")
+                .eventType("BOOKING_CONFIRMED")
+                .userName("John Doe")
+                .userEmail("john@example.com")
+                .flightNumber("AI101")
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .departureDateTime(LocalDateTime.of(2025, 12, 20, 10, 30))
+                .totalAmount(5000.0)
+                .build();
+    }
+
+    @Test
+    void testHandleBookingEvent_SubmitsConfirmationEmail() throws Exception {
+        // Arrange
+        ArgumentCaptor<MimeMessage> captor = ArgumentCaptor.forClass(MimeMessage.class);
+        when(mailDispatcher.submit(captor.capture())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        emailService.handleBookingEvent(bookingEvent, 0);
+
+        // Assert
+        verifyNoInteractions(emailRetryPublisher);
+        MimeMessage message = captor.getValue();
+        assertEquals("john@example.com", message.getAllRecipients()[0].toString());
+        assertEquals("Flight Booking Confirmed", message.getSubject());
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        message.writeTo(raw);
+        assertTrue(raw.toString().contains("PNR: PNR12345678"));
+        assertTrue(raw.toString().contains("filename=e-ticket-PNR12345678.pdf"));
+        assertTrue(raw.toString().contains("Content-Type: application/pdf"));
+    }
+
+    @Test
+    void testHandleBookingEvent_DeliveryFailureIsRetried() throws Exception {
+        // Arrange
+        MailSendException error = new MailSendException("Mail server connection failed");
+        when(mailDispatcher.submit(any(MimeMessage.class))).thenReturn(CompletableFuture.failedFuture(error));
+
+        // Act
+        emailService.handleBookingEvent(bookingEvent, 1);
+
+        // Assert
+        verify(emailRetryPublisher).retryOrPark(bookingEvent, 2, error);
+    }
+
+    @Test
+    void testHandleBookingEvent_SlowDeliveryTimesOut() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(emailService, "sendTimeoutMs", 50L);
+        when(mailDispatcher.submit(any(MimeMessage.class))).thenReturn(new CompletableFuture<>());
+
+        // Act
+        emailService.handleBookingEvent(bookingEvent, 0);
+
+        // Assert
+        verify(emailRetryPublisher).retryOrPark(eq(bookingEvent), eq(1), any(TimeoutException.class));
+    }
+}
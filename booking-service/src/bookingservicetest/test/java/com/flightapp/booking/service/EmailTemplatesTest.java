@@ -0,0 +1,75 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplatesTest {
+
+    private EmailTemplates emailTemplates;
+    private BookingEvent bookingEvent;
+
+    @BeforeEach
+    void setUp() {
+        emailTemplates = new EmailTemplates();
+        bookingEvent = BookingEvent.builder()
+                .pnr("PNR12345678")
+                .eventType("BOOKING_CONFIRMED")
+                .userName("John Doe")
+                .userEmail("john@example.com")
+                .flightNumber("AI101")
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .departureDateTime(LocalDateTime.of(2025, 12, 20, 10, 30))
+                .totalAmount(5000.0)
+                .build();
+    }
+
+    @Test
+    void testConfirmedEmail() {
+        // Act & Assert
+        assertEquals("Flight Booking Confirmed", emailTemplates.subject(bookingEvent));
+        assertEquals("""
+                Dear John Doe,
+
+                Your flight booking has been confirmed!
+
+                Booking Details:
+                PNR: PNR12345678
+                Flight: AI101
+                Route: Delhi to Mumbai
+                Departure: 2025-12-20T10:30
+                Total Amount: $5000.0
+
+                Thank you for choosing our service!
+
+                Best regards,
+                Flight Booking Team""", emailTemplates.body(bookingEvent));
+    }
+
+    @Test
+    void testCancelledEmail() {
+        // Arrange
+        bookingEvent.setEventType("BOOKING_CANCELLED");
+
+        // Act & Assert
+        assertEquals("Flight Booking Cancelled", emailTemplates.subject(bookingEvent));
+        assertTrue(emailTemplates.body(bookingEvent).startsWith("Dear John Doe,\n\nYour flight booking has been cancelled.\n\n"));
+    }
+
+    @Test
+    void testUnknownEventTypeUsesUpdateTemplate() {
+        // Arrange
+        bookingEvent.setEventType("SEAT_CHANGED");
+        bookingEvent.setTotalAmount(null);
+
+        // Act & Assert
+        assertEquals("Flight Booking Update", emailTemplates.subject(bookingEvent));
+        assertTrue(emailTemplates.body(bookingEvent).startsWith("Dear John Doe,\n\nBooking Details:\n"));
+        assertTrue(emailTemplates.body(bookingEvent).contains("Total Amount: $\n"));
+    }
+}
@@ -0,0 +1,238 @@
+package com.flightapp.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.booking.constants.IdempotencyStatus;
+import com.flightapp.booking.constants.MealType;
+import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingResponse;
+import com.flightapp.booking.entity.IdempotencyRecord;
+import com.flightapp.booking.exception.IdempotencyConflictException;
+import com.flightapp.booking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentBookingServiceImplTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private IdempotentBookingServiceImpl idempotentBookingService;
+
+    private BookRequest bookRequest;
+    private BookingResponse bookingResponse;
+    private final AtomicReference<IdempotencyRecord> claim = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotentBookingService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotentBookingService, "inProgressTtlSeconds", 120L);
+        ReflectionTestUtils.setField(idempotentBookingService, "waitTimeoutMs", 200L);
+        ReflectionTestUtils.setField(idempotentBookingService, "pollIntervalMs", 10L);
+
+        bookRequest = new BookRequest();
+        bookRequest.setUserName("John Doe");
+        bookRequest.setUserEmail("john@example.com");
+        bookRequest.setNoOfSeats(2);
+        bookRequest.setJourneyDate(LocalDate.now().plusDays(1));
+        bookRequest.setMealType(MealType.VEG);
+        bookRequest.setPassengers(new ArrayList<>());
+
+        bookingResponse = BookingResponse.builder()
+                .pnr("PNR12345678")
+                .flightNumber("AI101")
+                .userName("John Doe")
+                .build();
+    }
+
+    @Test
+    void testBookTicket_FirstRequestBooksAndStoresResponse() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimSucceeds());
+        when(bookingService.bookTicket("flight123", bookRequest)).thenReturn(Mono.just(bookingResponse));
+        when(idempotencyRecordRepository.findById("key-1")).thenAnswer(invocation -> Mono.just(claim.get()));
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectNext(bookingResponse)
+                .verifyComplete();
+
+        verify(idempotencyRecordRepository).save(argThat(record ->
+                record.getStatus() == IdempotencyStatus.COMPLETED && record.getResponse() == bookingResponse));
+    }
+
+    @Test
+    void testBookTicket_DuplicateReplaysStoredResponse() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimTaken());
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenAnswer(invocation -> Mono.just(existing(claim.get().getFingerprint(), IdempotencyStatus.COMPLETED)));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectNext(bookingResponse)
+                .verifyComplete();
+
+        verify(bookingService, never()).bookTicket(any(), any());
+    }
+
+    @Test
+    void testBookTicket_DuplicateWaitsForInProgressRequest() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimTaken());
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenAnswer(invocation -> Mono.just(existing(claim.get().getFingerprint(), IdempotencyStatus.IN_PROGRESS)))
+                .thenAnswer(invocation -> Mono.just(existing(claim.get().getFingerprint(), IdempotencyStatus.COMPLETED)));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectNext(bookingResponse)
+                .verifyComplete();
+
+        verify(idempotencyRecordRepository, times(2)).findById("key-1");
+        verify(bookingService, never()).bookTicket(any(), any());
+    }
+
+    @Test
+    void testBookTicket_DuplicateTimesOutWhileInProgress() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimTaken());
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenAnswer(invocation -> Mono.just(existing(claim.get().getFingerprint(), IdempotencyStatus.IN_PROGRESS)));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectError(IdempotencyConflictException.class)
+                .verify();
+    }
+
+    @Test
+    void testBookTicket_KeyReusedForDifferentRequest() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimTaken());
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Mono.just(existing("another-fingerprint", IdempotencyStatus.COMPLETED)));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException
+                        && error.getMessage().contains("different booking request"))
+                .verify();
+    }
+
+    @Test
+    void testBookTicket_FailedBookingReleasesKey() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimSucceeds());
+        when(bookingService.bookTicket("flight123", bookRequest))
+                .thenReturn(Mono.error(new RuntimeException("Not enough seats available")));
+        when(idempotencyRecordRepository.deleteById("key-1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectErrorMessage("Not enough seats available")
+                .verify();
+
+        verify(idempotencyRecordRepository).deleteById("key-1");
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testBookTicket_StoreFailureAfterBookingKeepsKey() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimSucceeds());
+        when(bookingService.bookTicket("flight123", bookRequest)).thenReturn(Mono.just(bookingResponse));
+        when(idempotencyRecordRepository.findById("key-1")).thenAnswer(invocation -> Mono.just(claim.get()));
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenReturn(Mono.error(new RuntimeException("Mongo down")));
+
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("key-1", "flight123", bookRequest))
+                .expectNext(bookingResponse)
+                .verifyComplete();
+
+        verify(idempotencyRecordRepository, times(4)).save(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).deleteById(anyString());
+        verify(bookingService, times(1)).bookTicket("flight123", bookRequest);
+    }
+
+    @Test
+    void testBookTicket_KeyTooLong() {
+        // Act & Assert
+        StepVerifier.create(idempotentBookingService.bookTicket("k".repeat(129), "flight123", bookRequest))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(idempotencyRecordRepository, bookingService);
+    }
+
+    @Test
+    void testBookTicket_SameRequestSameFingerprint() {
+        // Arrange
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenAnswer(claimTaken());
+        when(idempotencyRecordRepository.findById(any(String.class))).thenReturn(Mono.empty());
+
+        // Act
+        idempotentBookingService.bookTicket("key-1", "flight123", bookRequest).onErrorResume(e -> Mono.empty()).block();
+        String first = claim.get().getFingerprint();
+        idempotentBookingService.bookTicket("key-2", "flight123", bookRequest).onErrorResume(e -> Mono.empty()).block();
+        String second = claim.get().getFingerprint();
+        idempotentBookingService.bookTicket("key-3", "flight456", bookRequest).onErrorResume(e -> Mono.empty()).block();
+        String otherFlight = claim.get().getFingerprint();
+
+        // Assert
+        assertEquals(first, second);
+        assertNotEquals(first, otherFlight);
+    }
+
+    private Answer<Mono<IdempotencyRecord>> claimSucceeds() {
+        return invocation -> {
+            claim.set(invocation.getArgument(0));
+            return Mono.just(claim.get());
+        };
+    }
+
+    private Answer<Mono<IdempotencyRecord>> claimTaken() {
+        return invocation -> {
+            claim.set(invocation.getArgument(0));
+            return Mono.error(new DuplicateKeyException("E11000 duplicate key error"));
+        };
+    }
+
+    private IdempotencyRecord existing(String fingerprint, IdempotencyStatus status) {
+        return IdempotencyRecord.builder()
+                .id("key-1")
+                .fingerprint(fingerprint)
+                .status(status)
+                .response(status == IdempotencyStatus.COMPLETED ? bookingResponse : null)
+                .build();
+    }
+}
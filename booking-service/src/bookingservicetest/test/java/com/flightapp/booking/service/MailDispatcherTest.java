@@ -0,0 +1,151 @@
+package com.flightapp.booking.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MeterRegistry meterRegistry;
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (mailDispatcher != null) {
+            mailDispatcher.stop();
+        }
+    }
+
+    private void startDispatcher(JavaMailSender mailSender, int threads, int batchSize) {
+        mailDispatcher = dispatcher(mailSender, threads, batchSize, false);
+        mailDispatcher.start();
+    }
+
+    private MailDispatcher dispatcher(JavaMailSender mailSender, int threads, int batchSize, boolean virtualThreads) {
+        MailDispatcher dispatcher = new MailDispatcher(mailSender, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "threads", threads);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchSize", batchSize);
+        ReflectionTestUtils.setField(dispatcher, "virtualThreads", virtualThreads);
+        return dispatcher;
+    }
+
+    private JavaMailSenderImpl smtpStandIn() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        return mailSender;
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = new MimeMessage((Session) null);
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom("bookings@flightapp.com");
+        helper.setTo(to);
+        helper.setSubject("Flight Booking Confirmed");
+        helper.setText("PNR: PNR12345678");
+        return message;
+    }
+
+    @Test
+    void testSubmit_DeliversAllMessagesToSmtpServer() throws Exception {
+        // Arrange
+        startDispatcher(smtpStandIn(), 4, 20);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            results.add(mailDispatcher.submit(message("user" + i + "@example.com")));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Assert
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(50, received.length);
+        assertEquals("Flight Booking Confirmed", received[0].getSubject());
+        assertEquals(50, meterRegistry.timer("booking.email.delivery", "outcome", "sent").count());
+        // Fewer SMTP sessions than messages when the queue backs up
+        assertTrue(meterRegistry.summary("booking.email.batch.size").count() <= 50);
+        assertEquals(50.0, meterRegistry.summary("booking.email.batch.size").totalAmount());
+    }
+
+    @Test
+    void testSubmit_RejectedMessageDoesNotFailRestOfBatch() throws Exception {
+        // Arrange
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        MimeMessage good = message("good@example.com");
+        MimeMessage bad = message("bad@example.com");
+        doThrow(new MailSendException(Map.of(bad, new MailSendException("550 mailbox unavailable"))))
+                .when(mailSender).send(any(MimeMessage[].class));
+        startDispatcher(mailSender, 1, 20);
+
+        // Act
+        CompletableFuture<Void> goodResult = mailDispatcher.submit(good);
+        CompletableFuture<Void> badResult = mailDispatcher.submit(bad);
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> badResult.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("550"));
+        assertDoesNotThrow(() -> goodResult.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_SmtpServerDownFailsWholeBatch() throws Exception {
+        // Arrange
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("Mail server connection failed"))
+                .when(mailSender).send(any(MimeMessage[].class));
+        startDispatcher(mailSender, 1, 20);
+
+        // Act
+        CompletableFuture<Void> result = mailDispatcher.submit(message("user@example.com"));
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.timer("booking.email.delivery", "outcome", "failed").count());
+    }
+
+    @Test
+    void testStart_VirtualThreadsRejected() {
+        // Arrange
+        MailDispatcher dispatcher = dispatcher(smtpStandIn(), 1, 20, true);
+
+        // Act
+        IllegalStateException error = assertThrows(IllegalStateException.class, dispatcher::start);
+
+        // Assert
+        assertTrue(error.getMessage().contains("email.virtual-threads.enabled"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.flightapp.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Sustained email events/sec through listener-style callers and MailDispatcher, with a simulated SMTP
+// server that costs 20 ms per session plus 2 ms per message, with the default 16 listener threads
+// and 4 sender threads.
+@Slf4j
+@Tag("perf")
+class MailDispatcherThroughputTest {
+
+    private static final int EVENTS = 400;
+
+    @Test
+    void platformThreads() throws Exception {
+        ExecutorService listeners = Executors.newFixedThreadPool(16);
+        try {
+            report(run(listeners, 16));
+        } finally {
+            listeners.shutdownNow();
+        }
+    }
+
+    private double run(Executor listeners, int listenerCount) throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doAnswer(invocation -> {
+            int messages = invocation.getArguments().length;
+            Thread.sleep(20 + 2L * messages);
+            sent.addAndGet(messages);
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        MailDispatcher dispatcher = new MailDispatcher(mailSender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "threads", 4);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 500);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchSize", 20);
+        dispatcher.start();
+
+        AtomicInteger remaining = new AtomicInteger(EVENTS);
+        CountDownLatch done = new CountDownLatch(listenerCount);
+        long start = System.nanoTime();
+        for (int i = 0; i < listenerCount; i++) {
+            // Like a listener consumer: one event at a time, waiting for its delivery
+            listeners.execute(() -> {
+                try {
+                    while (remaining.getAndDecrement() > 0) {
+                        dispatcher.submit(new MimeMessage((Session) null)).get(30, TimeUnit.SECONDS);
+                    }
+                } catch (Exception e) {
+                    log.error("Benchmark listener failed: {}", e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        dispatcher.stop();
+
+        assertEquals(EVENTS, sent.get());
+        return EVENTS / seconds;
+    }
+
+    private void report(double eventsPerSecond) {
+        log.info("Email throughput: {} events/sec", String.format("%.0f", eventsPerSecond));
+    }
+}
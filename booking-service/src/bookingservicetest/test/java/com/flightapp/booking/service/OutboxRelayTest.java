@@ -0,0 +1,215 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.client.FlightServiceWebClient;
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.dto.SeatHoldDto;
+import com.flightapp.booking.entity.OutboxEvent;
+import com.flightapp.booking.event.BookingEvent;
+import com.flightapp.booking.entity.Booking;
+import com.flightapp.booking.repository.BookingRepository;
+import com.flightapp.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingEventPublisher bookingEventPublisher;
+
+    @Mock
+    private FlightServiceWebClient flightServiceClient;
+
+    private MeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    private OutboxEvent first;
+    private OutboxEvent second;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, bookingRepository, bookingEventPublisher,
+                flightServiceClient, meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "leaseMs", 30000L);
+        ReflectionTestUtils.setField(outboxRelay, "draftGraceMs", 300000L);
+
+        first = outboxEvent("event1");
+        second = outboxEvent("event2");
+
+        lenient().when(outboxEventRepository.countByStatusIn(any())).thenReturn(Mono.just(0L));
+        lenient().when(outboxEventRepository.findFirstByStatusInOrderByCreatedAtAsc(any())).thenReturn(Mono.empty());
+    }
+
+    private OutboxEvent outboxEvent(String id) {
+        return outboxEvent(id, "PNR12345678");
+    }
+
+    private OutboxEvent outboxEvent(String id, String pnr) {
+        return OutboxEvent.builder()
+                .id(id)
+                .pnr(pnr)
+                .eventType("BOOKING_CONFIRMED")
+                .payload(BookingEvent.builder().pnr(pnr).eventType("BOOKING_CONFIRMED").build())
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void testRelayBatch_MarksConfirmedEventsSent() {
+        // Arrange
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        when(outboxEventRepository.claim(anyString(), eq(100), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.just(first, second));
+        when(bookingEventPublisher.publish(List.of(first, second))).thenReturn(Flux.just("event1"));
+        when(outboxEventRepository.recordFailedAttempt(anyString(), eq(List.of("event2")))).thenReturn(Mono.just(1L));
+        when(outboxEventRepository.markSent(anyString(), eq(Set.of("event1")), any(LocalDateTime.class))).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(outboxEventRepository).claim(owner.capture(), eq(100), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(outboxEventRepository).recordFailedAttempt(owner.getValue(), List.of("event2"));
+        verify(outboxEventRepository).markSent(eq(owner.getValue()), eq(Set.of("event1")), any(LocalDateTime.class));
+
+        assertEquals(1.0, meterRegistry.counter("booking.outbox.published").count());
+        assertEquals(1.0, meterRegistry.counter("booking.outbox.failed").count());
+    }
+
+    @Test
+    void testRelayBatch_BrokerDownLeavesEventsPending() {
+        // Arrange
+        when(outboxEventRepository.claim(anyString(), eq(100), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.just(first, second));
+        when(bookingEventPublisher.publish(List.of(first, second))).thenReturn(Flux.empty());
+        when(outboxEventRepository.recordFailedAttempt(anyString(), eq(List.of("event1", "event2")))).thenReturn(Mono.just(2L));
+        when(outboxEventRepository.markSent(anyString(), eq(Set.of()), any(LocalDateTime.class))).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        assertEquals(2.0, meterRegistry.counter("booking.outbox.failed").count());
+    }
+
+    @Test
+    void testRelayBatch_ReportsLagOfOldestPendingEvent() {
+        // Arrange
+        first.setCreatedAt(LocalDateTime.now().minusSeconds(30));
+        when(outboxEventRepository.claim(anyString(), eq(100), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.empty());
+        when(outboxEventRepository.countByStatusIn(any())).thenReturn(Mono.just(1L));
+        when(outboxEventRepository.findFirstByStatusInOrderByCreatedAtAsc(any())).thenReturn(Mono.just(first));
+
+        // Act & Assert
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.get("booking.outbox.pending").gauge().value());
+        assertTrue(meterRegistry.get("booking.outbox.lag.seconds").gauge().value() >= 30);
+        verifyNoInteractions(bookingEventPublisher);
+    }
+
+    @Test
+    void testSweepDraftBatch_ReleasesDraftsOfBookingsThatStand() {
+        // Arrange
+        OutboxEvent kept = outboxEvent("event1", "PNR12345678");
+        OutboxEvent orphaned = outboxEvent("event2", "PNR87654321");
+        when(outboxEventRepository.findByStatusAndCreatedAtBefore(eq(OutboxStatus.DRAFT), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(Flux.just(kept, orphaned));
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(new Booking()));
+        when(bookingRepository.findByPnr("PNR87654321")).thenReturn(Mono.empty());
+        when(outboxEventRepository.delete(orphaned)).thenReturn(Mono.empty());
+        when(outboxEventRepository.markPending(List.of("event1"))).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(outboxRelay.sweepDraftBatch())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(outboxEventRepository).delete(orphaned);
+        verify(outboxEventRepository, never()).delete(kept);
+    }
+
+    @Test
+    void testSweepDraftBatch_PublishesOnlyBookingsWhoseHoldIsConfirmed() {
+        // Arrange
+        OutboxEvent confirmed = outboxEvent("event1", "PNR12345678");
+        confirmed.setHoldId("hold1");
+        OutboxEvent expired = outboxEvent("event2", "PNR87654321");
+        expired.setHoldId("hold2");
+        Booking oversold = Booking.builder().pnr("PNR87654321").holdId("hold2").build();
+        when(outboxEventRepository.findByStatusAndCreatedAtBefore(eq(OutboxStatus.DRAFT), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(Flux.just(confirmed, expired));
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.just(new Booking()));
+        when(bookingRepository.findByPnr("PNR87654321")).thenReturn(Mono.just(oversold));
+        when(flightServiceClient.getHold("hold1")).thenReturn(Mono.just(SeatHoldDto.builder().status("CONFIRMED").build()));
+        when(flightServiceClient.getHold("hold2")).thenReturn(Mono.just(SeatHoldDto.builder().status("EXPIRED").build()));
+        when(bookingRepository.delete(oversold)).thenReturn(Mono.empty());
+        when(flightServiceClient.compensateHold("hold2", "PNR87654321"))
+                .thenReturn(Mono.just(SeatHoldDto.builder().status("EXPIRED").build()));
+        when(outboxEventRepository.delete(expired)).thenReturn(Mono.empty());
+        when(outboxEventRepository.markPending(List.of("event1"))).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(outboxRelay.sweepDraftBatch())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(bookingRepository).delete(oversold);
+        verify(outboxEventRepository).delete(expired);
+    }
+
+    @Test
+    void testSweepDraftBatch_GivesBackHoldOfMissingBookingBeforeDroppingDraft() {
+        // Arrange
+        OutboxEvent draft = outboxEvent("event1", "PNR12345678");
+        draft.setHoldId("hold1");
+        when(outboxEventRepository.findByStatusAndCreatedAtBefore(eq(OutboxStatus.DRAFT), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(Flux.just(draft));
+        when(bookingRepository.findByPnr("PNR12345678")).thenReturn(Mono.empty());
+        when(flightServiceClient.compensateHold("hold1", "PNR12345678"))
+                .thenReturn(Mono.error(new RuntimeException("Unavailable")));
+        when(outboxEventRepository.markPending(List.of())).thenReturn(Mono.just(0L));
+
+        // Act & Assert: the draft stays for the next sweep
+        StepVerifier.create(outboxRelay.sweepDraftBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(outboxEventRepository, never()).delete(any(OutboxEvent.class));
+    }
+}
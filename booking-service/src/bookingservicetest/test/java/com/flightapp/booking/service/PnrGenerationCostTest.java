@@ -0,0 +1,75 @@
+package com.flightapp.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PnrGenerator against the previous UUID-based PNR: single-thread cost (time and bytes allocated per PNR)
+// and throughput with 8 threads generating at once.
+@Slf4j
+@Tag("perf")
+class PnrGenerationCostTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int PNRS = 200_000;
+    private static final int THREADS = 8;
+
+    private final PnrGenerator pnrGenerator = new PnrGenerator();
+
+    private static String uuidPnr() {
+        return "PNR" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    @Test
+    void uuidBased() throws Exception {
+        measure("uuid", PnrGenerationCostTest::uuidPnr);
+    }
+
+    @Test
+    void pnrGenerator() throws Exception {
+        measure("pnr generator", pnrGenerator::nextPnr);
+    }
+
+    private void measure(String name, Supplier<String> generator) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            generator.get();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < PNRS; i++) {
+            generator.get();
+        }
+        long nanosPerPnr = (System.nanoTime() - start) / PNRS;
+        long bytesPerPnr = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / PNRS;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long concurrentStart = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < PNRS / THREADS; i++) {
+                    generator.get();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - concurrentStart) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("PNR cost ({}): {} ns/pnr, {} bytes allocated/pnr, {} pnr/sec on {} threads",
+                name, nanosPerPnr, bytesPerPnr, String.format("%.0f", PNRS / seconds), THREADS);
+    }
+}
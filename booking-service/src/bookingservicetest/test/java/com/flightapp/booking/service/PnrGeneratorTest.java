@@ -0,0 +1,120 @@
+package com.flightapp.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PnrGeneratorTest {
+
+    private PnrGenerator pnrGenerator;
+
+    @BeforeEach
+    void setUp() {
+        pnrGenerator = new PnrGenerator();
+        ReflectionTestUtils.setField(pnrGenerator, "nodeId", 7L);
+        pnrGenerator.init();
+    }
+
+    @Test
+    void testNextPnr_Format() {
+        // Act
+        String pnr = pnrGenerator.nextPnr();
+
+        // Assert
+        assertEquals(16, pnr.length());
+        assertTrue(pnr.matches("PNR[0-9A-HJKMNP-TV-Z]{13}"), pnr);
+    }
+
+    @Test
+    void testNextPnr_TimeOrderedWithinBurst() {
+        // Arrange
+        List<String> pnrs = new ArrayList<>();
+
+        // Act: more than one millisecond's worth of sequence numbers
+        for (int i = 0; i < 10_000; i++) {
+            pnrs.add(pnrGenerator.nextPnr());
+        }
+
+        // Assert
+        for (int i = 1; i < pnrs.size(); i++) {
+            assertTrue(pnrs.get(i - 1).compareTo(pnrs.get(i)) < 0, pnrs.get(i - 1) + " >= " + pnrs.get(i));
+        }
+    }
+
+    @Test
+    void testNextPnr_UniqueAcrossThreads() throws Exception {
+        // Arrange
+        Set<String> pnrs = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    pnrs.add(pnrGenerator.nextPnr());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(160_000, pnrs.size());
+    }
+
+    @Test
+    void testNextPnr_NodesNeverClash() {
+        // Arrange
+        PnrGenerator otherNode = new PnrGenerator();
+        ReflectionTestUtils.setField(otherNode, "nodeId", 8L);
+        otherNode.init();
+        Set<String> pnrs = ConcurrentHashMap.newKeySet();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            pnrs.add(pnrGenerator.nextPnr());
+            pnrs.add(otherNode.nextPnr());
+        }
+
+        // Assert
+        assertEquals(20_000, pnrs.size());
+    }
+
+    @Test
+    void testInit_RejectsNodeIdOutOfRange() {
+        // Arrange
+        PnrGenerator generator = new PnrGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 1024L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+
+    @Test
+    void testInit_DerivesNodeIdWhenUnset() {
+        // Arrange
+        PnrGenerator generator = new PnrGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", -1L);
+        ReflectionTestUtils.setField(generator, "serverPort", 8082);
+
+        // Act
+        generator.init();
+
+        // Assert
+        long nodeId = (long) ReflectionTestUtils.getField(generator, "nodeId");
+        assertTrue(nodeId >= 0 && nodeId < 1024);
+    }
+}
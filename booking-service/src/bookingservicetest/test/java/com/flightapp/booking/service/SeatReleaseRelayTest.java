@@ -0,0 +1,201 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.client.FlightServiceWebClient;
+import com.flightapp.booking.constants.SeatReleaseStatus;
+import com.flightapp.booking.dto.FlightDto;
+import com.flightapp.booking.entity.SeatRelease;
+import com.flightapp.booking.repository.SeatReleaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatReleaseRelayTest {
+
+    @Mock
+    private SeatReleaseRepository seatReleaseRepository;
+
+    @Mock
+    private FlightServiceWebClient flightServiceClient;
+
+    private MeterRegistry meterRegistry;
+    private SeatReleaseRelay seatReleaseRelay;
+    private List<SeatRelease> releases;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        seatReleaseRelay = new SeatReleaseRelay(seatReleaseRepository, flightServiceClient, meterRegistry);
+        ReflectionTestUtils.setField(seatReleaseRelay, "batchSize", 500);
+        ReflectionTestUtils.setField(seatReleaseRelay, "maxConcurrentFlights", 8);
+        ReflectionTestUtils.setField(seatReleaseRelay, "leaseMs", 30000L);
+
+        releases = List.of(
+                seatRelease("r1", "flight123", 2),
+                seatRelease("r2", "flight123", 1),
+                seatRelease("r3", "flight456", 3));
+
+        when(seatReleaseRepository.countByStatusIn(any())).thenReturn(Mono.just(0L));
+        when(seatReleaseRepository.findFirstByStatusInOrderByCreatedAtAsc(any())).thenReturn(Mono.empty());
+        // Behaves like the collection: rows claimed or taken over by a run come back from findByOwnerAndStatus
+        lenient().when(seatReleaseRepository.claim(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            releases.stream().filter(release -> ids.contains(release.getId())).forEach(release -> {
+                release.setStatus(SeatReleaseStatus.CLAIMED);
+                release.setReleaseId(invocation.getArgument(1));
+                release.setOwner(invocation.getArgument(2));
+                release.setLeaseExpiresAt(invocation.getArgument(3));
+            });
+            return Mono.just((long) ids.size());
+        });
+        when(seatReleaseRepository.takeOver(any(), eq(500), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    LocalDateTime now = invocation.getArgument(2);
+                    List<SeatRelease> expired = releases.stream()
+                            .filter(release -> release.getStatus() == SeatReleaseStatus.CLAIMED
+                                    && release.getLeaseExpiresAt().isBefore(now))
+                            .toList();
+                    expired.forEach(release -> {
+                        release.setOwner(invocation.getArgument(0));
+                        release.setLeaseExpiresAt(invocation.getArgument(3));
+                    });
+                    return Mono.just((long) expired.size());
+                });
+        when(seatReleaseRepository.findByOwnerAndStatus(any(), eq(SeatReleaseStatus.CLAIMED)))
+                .thenAnswer(invocation -> Flux.fromStream(releases.stream()
+                        .filter(release -> release.getStatus() == SeatReleaseStatus.CLAIMED
+                                && invocation.getArgument(0).equals(release.getOwner()))));
+    }
+
+    private void claimed(SeatRelease release, String releaseId, String owner, LocalDateTime leaseExpiresAt) {
+        release.setStatus(SeatReleaseStatus.CLAIMED);
+        release.setReleaseId(releaseId);
+        release.setOwner(owner);
+        release.setLeaseExpiresAt(leaseExpiresAt);
+    }
+
+    private SeatRelease seatRelease(String id, String flightId, int seats) {
+        return SeatRelease.builder()
+                .id(id)
+                .pnr("PNR-" + id)
+                .flightId(flightId)
+                .seats(seats)
+                .status(SeatReleaseStatus.PENDING)
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private void pending(List<SeatRelease> rows) {
+        when(seatReleaseRepository.findByStatusOrderByCreatedAtAsc(eq(SeatReleaseStatus.PENDING), any(Pageable.class)))
+                .thenReturn(Flux.fromIterable(rows));
+    }
+
+    @Test
+    void testRelayBatch_OneIncrementPerFlight() {
+        // Arrange
+        pending(releases);
+        when(flightServiceClient.releaseSeats(any(), any(), any())).thenReturn(Mono.just(new FlightDto()));
+        when(seatReleaseRepository.markReleased(any(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> Mono.just(releases.stream()
+                        .filter(release -> invocation.getArgument(0).equals(release.getReleaseId())).count()));
+
+        // Act & Assert
+        StepVerifier.create(seatReleaseRelay.relayBatch())
+                .expectNext(3L)
+                .verifyComplete();
+
+        String flight123Release = releases.get(0).getReleaseId();
+        assertEquals(flight123Release, releases.get(1).getReleaseId());
+        assertNotEquals(flight123Release, releases.get(2).getReleaseId());
+        verify(flightServiceClient).releaseSeats("flight123", 3, flight123Release);
+        verify(flightServiceClient).releaseSeats("flight456", 3, releases.get(2).getReleaseId());
+        verifyNoMoreInteractions(flightServiceClient);
+
+        assertEquals(6.0, meterRegistry.counter("booking.seat.release.seats").count());
+        assertEquals(3, meterRegistry.timer("booking.seat.release.lag").count());
+        assertEquals(2, meterRegistry.summary("booking.seat.release.batch.size").count());
+    }
+
+    @Test
+    void testRelayBatch_ResendsBatchClaimedBeforeRestart() {
+        // Arrange
+        claimed(releases.get(0), "release-1", "dead-run", LocalDateTime.now().minusSeconds(1));
+        claimed(releases.get(1), "release-1", "dead-run", LocalDateTime.now().minusSeconds(1));
+        pending(List.of());
+        when(flightServiceClient.releaseSeats("flight123", 3, "release-1")).thenReturn(Mono.just(new FlightDto()));
+        when(seatReleaseRepository.markReleased(eq("release-1"), any(LocalDateTime.class))).thenReturn(Mono.just(2L));
+
+        // Act & Assert
+        StepVerifier.create(seatReleaseRelay.relayBatch())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(seatReleaseRepository, never()).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    void testRelayBatch_LeavesBatchLeasedByAnotherRunAlone() {
+        // Arrange
+        claimed(releases.get(0), "release-1", "other-run", LocalDateTime.now().plusSeconds(30));
+        pending(List.of());
+
+        // Act & Assert
+        StepVerifier.create(seatReleaseRelay.relayBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verifyNoInteractions(flightServiceClient);
+        assertEquals("other-run", releases.get(0).getOwner());
+    }
+
+    @Test
+    void testRelayBatch_FlightServiceDownKeepsBatchClaimed() {
+        // Arrange
+        pending(releases.subList(0, 2));
+        when(flightServiceClient.releaseSeats(eq("flight123"), eq(3), any()))
+                .thenReturn(Mono.error(new RuntimeException("Connection refused")));
+
+        // Act & Assert
+        StepVerifier.create(seatReleaseRelay.relayBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(seatReleaseRepository, never()).markReleased(any(), any());
+        verify(seatReleaseRepository, never()).markFailed(any());
+        assertEquals(SeatReleaseStatus.CLAIMED, releases.get(0).getStatus());
+    }
+
+    @Test
+    void testRelayBatch_RefusedReleaseIsMarkedFailed() {
+        // Arrange
+        pending(releases.subList(2, 3));
+        when(flightServiceClient.releaseSeats(eq("flight456"), eq(3), any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Cannot release more seats than the flight has")));
+        when(seatReleaseRepository.markFailed(any())).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(seatReleaseRelay.relayBatch())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(seatReleaseRepository).markFailed(releases.get(2).getReleaseId());
+        assertEquals(1.0, meterRegistry.counter("booking.seat.release.failed").count());
+    }
+}
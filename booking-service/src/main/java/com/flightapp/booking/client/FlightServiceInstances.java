@@ -0,0 +1,120 @@
+package com.flightapp.booking.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Picks a flight-service instance per call with power-of-two-choices on outstanding requests.
+// The instance list is refreshed in the background instead of being looked up on every call.
+@Component
+@Slf4j
+public class FlightServiceInstances {
+
+    private static final String SERVICE_ID = "flight-service";
+    private static final String FALLBACK_URL = "http://localhost:8081";
+
+    private final DiscoveryClient discoveryClient;
+
+    // Kept across refreshes so an instance that is still listed keeps its in-flight count
+    private final Map<String, Instance> instancesByUrl = new ConcurrentHashMap<>();
+    private volatile List<Instance> instances = List.of();
+
+    public FlightServiceInstances(DiscoveryClient discoveryClient) {
+        this.discoveryClient = discoveryClient;
+    }
+
+    @Scheduled(fixedDelayString = "${flight-client.instances.refresh-interval-ms:10000}")
+    public void refresh() {
+        try {
+            List<ServiceInstance> discovered = discoveryClient.getInstances(SERVICE_ID);
+            List<Instance> current = discovered.stream()
+                    .map(instance -> instancesByUrl.computeIfAbsent(instance.getUri().toString(), Instance::new))
+                    .distinct()
+                    .toList();
+            instancesByUrl.values().retainAll(current);
+            instances = current;
+        } catch (Exception ex) {
+            log.warn("Could not refresh {} instances, keeping {} known: {}", SERVICE_ID, instances.size(),
+                    ex.getMessage());
+        }
+    }
+
+    // Runs the request against the chosen instance's base URL and counts it as outstanding until it ends
+    public <T> Mono<T> call(Function<String, Mono<T>> request) {
+        return Mono.defer(() -> {
+            Instance instance = choose();
+            if (instance == null) {
+                return request.apply(FALLBACK_URL);
+            }
+            return callOn(instance, request);
+        });
+    }
+
+    <T> Mono<T> callOn(Instance instance, Function<String, Mono<T>> request) {
+        return Mono.defer(() -> {
+            instance.outstanding.incrementAndGet();
+            return request.apply(instance.url)
+                    .doFinally(signal -> instance.outstanding.decrementAndGet());
+        });
+    }
+
+    Instance choose() {
+        List<Instance> current = instances;
+        if (current.isEmpty()) {
+            refresh();
+            current = instances;
+        }
+        return choose(current);
+    }
+
+    // Any instance but the given one, e.g. for a second attempt at a request; null when there is none
+    Instance chooseOther(Instance excluded) {
+        return choose(instances.stream().filter(instance -> instance != excluded).toList());
+    }
+
+    private static Instance choose(List<Instance> current) {
+        if (current.isEmpty()) {
+            return null;
+        }
+        if (current.size() == 1) {
+            return current.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(current.size());
+        int second = random.nextInt(current.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = current.get(first);
+        Instance b = current.get(second);
+        return a.outstanding.get() <= b.outstanding.get() ? a : b;
+    }
+
+    static final class Instance {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private Instance(String url) {
+            this.url = url;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        int getOutstanding() {
+            return outstanding.get();
+        }
+    }
+}
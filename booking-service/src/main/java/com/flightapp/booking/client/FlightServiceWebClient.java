@@ -1,45 +1,249 @@
 package com.flightapp.booking.client;
 
 import com.flightapp.booking.dto.FlightDto;
+import com.flightapp.booking.dto.SeatHoldBatchResultDto;
+import com.flightapp.booking.dto.SeatHoldDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
+@Slf4j
 public class FlightServiceWebClient {
 
-    private final WebClient.Builder webClientBuilder;
-    private final DiscoveryClient discoveryClient;
+    private final WebClient webClient;
+    private final FlightServiceInstances flightServiceInstances;
+    private final HedgedFlightReads hedgedFlightReads;
+    private final DistributionSummary holdBatchSize;
 
-    @Autowired
-    public FlightServiceWebClient(WebClient.Builder webClientBuilder, DiscoveryClient discoveryClient) {
-        this.webClientBuilder = webClientBuilder;
-        this.discoveryClient = discoveryClient;
-    }
+    // Hold requests waiting to be sent, per flight. A batch leaves the map when it is flushed.
+    private final Map<String, PendingHolds> pendingHolds = new ConcurrentHashMap<>();
 
-    private String getFlightServiceUrl() {
-        return discoveryClient.getInstances("flight-service")
-                .stream()
-                .findFirst()
-                .map(instance -> instance.getUri().toString())
-                .orElse("http://localhost:8081");
+    @Value("${flight-client.hold-batch.window-ms:5}")
+    private long holdBatchWindowMs;
+
+    @Value("${flight-client.hold-batch.max-size:50}")
+    private int holdBatchMaxSize;
+
+    @Autowired
+    public FlightServiceWebClient(WebClient flightServiceHttpClient, FlightServiceInstances flightServiceInstances,
+                                  HedgedFlightReads hedgedFlightReads, MeterRegistry meterRegistry) {
+        this.webClient = flightServiceHttpClient;
+        this.flightServiceInstances = flightServiceInstances;
+        this.hedgedFlightReads = hedgedFlightReads;
+        this.holdBatchSize = DistributionSummary.builder("flight.client.hold.batch.size")
+                .description("Seat hold requests sent to flight-service in one call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    // A plain GET, so a slow answer may be hedged to a second instance
     public Mono<FlightDto> getFlightById(String flightId) {
-        return webClientBuilder.build()
+        return hedgedFlightReads.call(baseUrl -> webClient
                 .get()
-                .uri(getFlightServiceUrl() + "/api/v1/flight/" + flightId)
+                .uri(baseUrl + "/api/v1/flight/" + flightId)
                 .retrieve()
-                .bodyToMono(FlightDto.class);
+                .bodyToMono(FlightDto.class));
     }
 
     public Mono<FlightDto> updateSeats(String flightId, Integer seatsToReduce) {
-        return webClientBuilder.build()
+        return flightServiceInstances.call(baseUrl -> webClient
                 .put()
-                .uri(getFlightServiceUrl() + "/api/v1/flight/" + flightId + "/seats?seatsToReduce=" + seatsToReduce)
+                .uri(baseUrl + "/api/v1/flight/" + flightId + "/seats?seatsToReduce=" + seatsToReduce)
                 .retrieve()
-                .bodyToMono(FlightDto.class);
+                .bodyToMono(FlightDto.class));
+    }
+
+    // Concurrent hold requests for the same flight are collapsed: the first one opens a batch, the ones
+    // arriving within the window join it, and the batch goes to flight-service as one call once the
+    // window closes or it is full. Every caller still gets its own hold or its own error. A caller that
+    // cancels leaves its batch if it has not been sent yet; otherwise the hold it would have got is released.
+    public Mono<SeatHoldDto> createHold(String flightId, Integer seats) {
+        if (holdBatchMaxSize <= 1) {
+            return createSingleHold(flightId, seats);
+        }
+        return Mono.create(sink -> {
+            PendingHold hold = new PendingHold(seats, sink, new AtomicBoolean());
+            sink.onCancel(() -> {
+                if (hold.settled.compareAndSet(false, true)) {
+                    pendingHolds.computeIfPresent(flightId, (id, batch) -> {
+                        batch.holds.remove(hold);
+                        return batch.holds.isEmpty() ? null : batch;
+                    });
+                }
+            });
+            PendingHolds[] opened = {null};
+            PendingHolds[] full = {null};
+            pendingHolds.compute(flightId, (id, batch) -> {
+                if (batch == null) {
+                    batch = new PendingHolds();
+                    opened[0] = batch;
+                }
+                batch.holds.add(hold);
+                if (batch.holds.size() >= holdBatchMaxSize) {
+                    full[0] = batch;
+                    return null;
+                }
+                return batch;
+            });
+
+            if (full[0] != null) {
+                flushHolds(flightId, full[0]);
+            } else if (opened[0] != null) {
+                PendingHolds batch = opened[0];
+                Mono.delay(Duration.ofMillis(holdBatchWindowMs)).subscribe(tick -> {
+                    if (pendingHolds.remove(flightId, batch)) {
+                        flushHolds(flightId, batch);
+                    }
+                });
+            }
+        });
+    }
+
+    private void flushHolds(String flightId, PendingHolds batch) {
+        List<PendingHold> holds = batch.holds;
+        holdBatchSize.record(holds.size());
+
+        if (holds.size() == 1) {
+            PendingHold hold = holds.get(0);
+            createSingleHold(flightId, hold.seats).subscribe(created -> deliver(hold, created), hold.sink::error);
+            return;
+        }
+
+        flightServiceInstances.call(baseUrl -> webClient
+                        .post()
+                        .uri(baseUrl + "/api/v1/flight/" + flightId + "/holds/batch")
+                        .bodyValue(holds.stream().map(hold -> hold.seats).toList())
+                        .retrieve()
+                        .bodyToFlux(SeatHoldBatchResultDto.class)
+                        .collectList())
+                .subscribe(results -> {
+                    for (int i = 0; i < holds.size(); i++) {
+                        PendingHold hold = holds.get(i);
+                        SeatHoldBatchResultDto result = i < results.size() ? results.get(i) : null;
+                        if (result != null && result.getHold() != null) {
+                            deliver(hold, result.getHold());
+                        } else {
+                            hold.sink.error(toHoldError(result));
+                        }
+                    }
+                }, error -> {
+                    log.error("Seat hold batch of {} for flight {} failed: {}", holds.size(), flightId, error.getMessage());
+                    holds.forEach(hold -> hold.sink.error(error));
+                });
+    }
+
+    private void deliver(PendingHold hold, SeatHoldDto created) {
+        if (hold.settled.compareAndSet(false, true)) {
+            hold.sink.success(created);
+            return;
+        }
+        // Nobody is waiting for this hold any more; give its seats back now rather than when it expires
+        releaseHold(created.getHoldId()).subscribe(
+                released -> log.info("Released seat hold {} of a cancelled request", created.getHoldId()),
+                error -> log.warn("Could not release seat hold {} of a cancelled request: {}",
+                        created.getHoldId(), error.getMessage()));
+    }
+
+    // Mirrors what the single hold endpoint would have returned for this request
+    private Throwable toHoldError(SeatHoldBatchResultDto result) {
+        if (result == null) {
+            return new IllegalStateException("No result returned for seat hold request");
+        }
+        if (result.getStatus() != null && result.getStatus() == HttpStatus.BAD_REQUEST.value()) {
+            return new IllegalArgumentException(result.getError());
+        }
+        int status = result.getStatus() == null ? HttpStatus.INTERNAL_SERVER_ERROR.value() : result.getStatus();
+        return WebClientResponseException.create(status, result.getError(), HttpHeaders.EMPTY, new byte[0],
+                StandardCharsets.UTF_8);
+    }
+
+    private Mono<SeatHoldDto> createSingleHold(String flightId, Integer seats) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .post()
+                .uri(baseUrl + "/api/v1/flight/" + flightId + "/holds?seats=" + seats)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.BAD_REQUEST), this::toIllegalArgument)
+                .bodyToMono(SeatHoldDto.class));
+    }
+
+    public Mono<SeatHoldDto> getHold(String holdId) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .get()
+                .uri(baseUrl + "/api/v1/flight/holds/" + holdId)
+                .retrieve()
+                .bodyToMono(SeatHoldDto.class));
+    }
+
+    public Mono<SeatHoldDto> confirmHold(String holdId, String pnr) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .put()
+                .uri(baseUrl + "/api/v1/flight/holds/" + holdId + "/confirm?pnr=" + pnr)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.BAD_REQUEST), this::toIllegalArgument)
+                .bodyToMono(SeatHoldDto.class));
+    }
+
+    public Mono<SeatHoldDto> releaseHold(String holdId) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .delete()
+                .uri(baseUrl + "/api/v1/flight/holds/" + holdId)
+                .retrieve()
+                .bodyToMono(SeatHoldDto.class));
+    }
+
+    // Gives back the hold of a booking that is being discarded, even when it was already confirmed for that PNR.
+    // Internal to flight-service, not routed by the gateway. Repeating the call is safe.
+    public Mono<SeatHoldDto> compensateHold(String holdId, String pnr) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .put()
+                .uri(baseUrl + "/api/v1/internal/holds/" + holdId + "/compensate?pnr=" + pnr)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.BAD_REQUEST), this::toIllegalArgument)
+                .bodyToMono(SeatHoldDto.class));
+    }
+
+    // Seats freed by cancellations, one call per flight and batch. Retrying with the same releaseId is safe.
+    public Mono<FlightDto> releaseSeats(String flightId, Integer seats, String releaseId) {
+        return flightServiceInstances.call(baseUrl -> webClient
+                .put()
+                .uri(baseUrl + "/api/v1/flight/" + flightId + "/seats/release?seats=" + seats + "&releaseId=" + releaseId)
+                .retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.BAD_REQUEST), this::toIllegalArgument)
+                .bodyToMono(FlightDto.class));
+    }
+
+    // settled is set by whichever comes first: the hold being handed to the caller, or the caller cancelling
+    private record PendingHold(Integer seats, MonoSink<SeatHoldDto> sink, AtomicBoolean settled) {
+    }
+
+    private static class PendingHolds {
+        private final List<PendingHold> holds = new ArrayList<>();
+    }
+
+    // flight-service reports business rule failures (e.g. not enough seats) as 400 with an "error" message
+    private Mono<Throwable> toIllegalArgument(ClientResponse response) {
+        return response.bodyToMono(new ParameterizedTypeReference<Map<String, String>>() { })
+                .map(body -> (Throwable) new IllegalArgumentException(body.getOrDefault("error", "Bad request")))
+                .defaultIfEmpty(new IllegalArgumentException("Bad request"));
     }
 }
@@ -0,0 +1,166 @@
+package com.flightapp.booking.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Hedged requests for idempotent reads from flight-service, off unless flight-client.hedging.enabled is set.
+// A read that has not answered within the hedge delay is sent again to a different instance; the first answer
+// wins and the other attempt is cancelled. A failure only decides the read once no other attempt can still
+// answer, so a 404 that comes back before the delay is passed on straight away.
+//
+// The delay follows a percentile (p95 by default) of recent attempts, so about one read in twenty is hedged.
+// An attempt that loses is recorded at the time it was cancelled; otherwise the slow tail would vanish from
+// the samples and the delay would drift down until almost every read was hedged.
+@Component
+public class HedgedFlightReads {
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final FlightServiceInstances flightServiceInstances;
+    private final Timer attemptLatency;
+    private final Counter reads;
+    private final Counter hedges;
+    private final Counter hedgeWins;
+
+    private volatile long delayNanos;
+    private volatile long delayRefreshedAt = System.nanoTime() - DELAY_REFRESH_NANOS;
+
+    @Value("${flight-client.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${flight-client.hedging.initial-delay-ms:100}")
+    private long initialDelayMs;
+
+    @Value("${flight-client.hedging.min-delay-ms:10}")
+    private long minDelayMs;
+
+    @Value("${flight-client.hedging.max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    @Value("${flight-client.hedging.min-samples:100}")
+    private long minSamples;
+
+    @Autowired
+    public HedgedFlightReads(FlightServiceInstances flightServiceInstances, MeterRegistry meterRegistry,
+                             @Value("${flight-client.hedging.percentile:0.95}") double percentile) {
+        this.flightServiceInstances = flightServiceInstances;
+        this.attemptLatency = Timer.builder("flight.client.read.latency")
+                .description("Time for one attempt at a hedgeable read; losing attempts count until cancelled")
+                .publishPercentiles(percentile)
+                .register(meterRegistry);
+        this.reads = Counter.builder("flight.client.hedge.reads")
+                .description("Reads from flight-service eligible for hedging")
+                .register(meterRegistry);
+        this.hedges = Counter.builder("flight.client.hedge.sent")
+                .description("Second attempts sent because the first had not answered within the hedge delay")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("flight.client.hedge.won")
+                .description("Reads answered by the second attempt")
+                .register(meterRegistry);
+        Gauge.builder("flight.client.hedge.rate", this, reads -> ratio(reads.hedges, reads.reads))
+                .description("Share of reads that sent a second attempt")
+                .register(meterRegistry);
+        Gauge.builder("flight.client.hedge.win.rate", this, reads -> ratio(reads.hedgeWins, reads.hedges))
+                .description("Share of second attempts that answered first")
+                .register(meterRegistry);
+        TimeGauge.builder("flight.client.hedge.delay", this, TimeUnit.NANOSECONDS, reads -> reads.delayNanos)
+                .description("Current wait before a read is sent to a second instance")
+                .register(meterRegistry);
+    }
+
+    private static double ratio(Counter part, Counter whole) {
+        return whole.count() == 0 ? 0 : part.count() / whole.count();
+    }
+
+    public <T> Mono<T> call(Function<String, Mono<T>> request) {
+        if (!enabled) {
+            return flightServiceInstances.call(request);
+        }
+        return Mono.defer(() -> {
+            FlightServiceInstances.Instance primary = flightServiceInstances.choose();
+            if (primary == null) {
+                return flightServiceInstances.call(request);
+            }
+            reads.increment();
+            AtomicBoolean hedged = new AtomicBoolean();
+            AtomicInteger failures = new AtomicInteger();
+
+            Mono<Attempt<T>> first = attempt(primary, request, false);
+            Mono<Attempt<T>> second = Mono.delay(hedgeDelay())
+                    .flatMap(tick -> {
+                        FlightServiceInstances.Instance other = flightServiceInstances.chooseOther(primary);
+                        if (other == null) {
+                            return Mono.empty();
+                        }
+                        hedged.set(true);
+                        hedges.increment();
+                        return attempt(other, request, true);
+                    });
+
+            return Flux.merge(first, second)
+                    .filter(attempt -> attempt.signal().hasValue() || !hedged.get() || failures.incrementAndGet() == 2)
+                    .next()
+                    .doOnNext(attempt -> {
+                        if (attempt.hedge() && attempt.signal().hasValue()) {
+                            hedgeWins.increment();
+                        }
+                    })
+                    .map(Attempt::signal)
+                    .dematerialize();
+        });
+    }
+
+    private <T> Mono<Attempt<T>> attempt(FlightServiceInstances.Instance instance, Function<String, Mono<T>> request,
+                                         boolean hedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            Runnable record = () -> {
+                if (recorded.compareAndSet(false, true)) {
+                    attemptLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            };
+            return flightServiceInstances.callOn(instance, request)
+                    .doOnSuccess(value -> record.run())
+                    .doOnCancel(record)
+                    .materialize()
+                    .map(signal -> new Attempt<>(hedge, signal));
+        });
+    }
+
+    // The configured percentile of recent attempts, refreshed at most once a second, within min/max delay
+    Duration hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - delayRefreshedAt >= DELAY_REFRESH_NANOS) {
+            delayRefreshedAt = now;
+            HistogramSnapshot snapshot = attemptLatency.takeSnapshot();
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            long delay = snapshot.count() < minSamples || percentiles.length == 0
+                    ? TimeUnit.MILLISECONDS.toNanos(initialDelayMs)
+                    : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+            delayNanos = Math.min(Math.max(delay, TimeUnit.MILLISECONDS.toNanos(minDelayMs)),
+                    TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+        }
+        return Duration.ofNanos(delayNanos);
+    }
+
+    private record Attempt<T>(boolean hedge, Signal<T> signal) {
+    }
+}
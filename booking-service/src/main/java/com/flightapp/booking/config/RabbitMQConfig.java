@@ -2,14 +2,28 @@ package com.flightapp.booking.config;
 
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+import reactor.rabbitmq.RabbitFlux;
+import reactor.rabbitmq.Sender;
+import reactor.rabbitmq.SenderOptions;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMQConfig {
@@ -23,9 +37,32 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-key}")
     private String routingKey;
 
+    @Value("${rabbitmq.email-retry-exchange:booking.email.retry}")
+    private String emailRetryExchange;
+
+    @Value("${rabbitmq.email-parking-lot-queue:booking.email.parking-lot}")
+    private String emailParkingLotQueue;
+
+    @Value("${email.retry.delays-ms:5000,30000,300000}")
+    private long[] emailRetryDelaysMs;
+
+    @Value("${email.listener.concurrency:4}")
+    private int emailConcurrency;
+
+    @Value("${email.listener.max-concurrency:16}")
+    private int emailMaxConcurrency;
+
+    @Value("${email.listener.prefetch:20}")
+    private int emailPrefetch;
+
+    // Messages the listener rejects (unreadable payloads, unexpected errors) are parked rather than redelivered.
+    // Changing these arguments means an existing booking.email.queue has to be deleted once before startup.
     @Bean
     public Queue bookingQueue() {
-        return new Queue(queue, true);
+        return QueueBuilder.durable(queue)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(emailParkingLotQueue)
+                .build();
     }
 
     @Bean
@@ -38,6 +75,36 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(bookingQueue).to(bookingExchange).with(routingKey);
     }
 
+    @Bean
+    public Queue emailParkingLotQueue() {
+        return new Queue(emailParkingLotQueue, true);
+    }
+
+    @Bean
+    public DirectExchange emailRetryExchange() {
+        return new DirectExchange(emailRetryExchange);
+    }
+
+    // One queue per retry delay. Messages wait out the TTL, then dead-letter back to the booking exchange.
+    @Bean
+    public Declarables emailRetryQueues(DirectExchange emailRetryExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (long delayMs : emailRetryDelaysMs) {
+            Queue retryQueue = QueueBuilder.durable(emailRetryQueueName(queue, delayMs))
+                    .ttl((int) delayMs)
+                    .deadLetterExchange(exchange)
+                    .deadLetterRoutingKey(routingKey)
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue).to(emailRetryExchange).with(retryQueue.getName()));
+        }
+        return new Declarables(declarables);
+    }
+
+    public static String emailRetryQueueName(String queue, long delayMs) {
+        return queue + ".retry." + delayMs + "ms";
+    }
+
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -49,4 +116,26 @@ public class RabbitMQConfig {
         rabbitTemplate.setMessageConverter(messageConverter());
         return rabbitTemplate;
     }
+
+    // Email consumers scale between concurrency and max-concurrency; other listeners keep the defaults
+    @Bean
+    public SimpleRabbitListenerContainerFactory emailListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(emailConcurrency);
+        factory.setMaxConcurrentConsumers(emailMaxConcurrency);
+        factory.setPrefetchCount(emailPrefetch);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    // Reactive sender on the same broker settings as the Spring connection factory.
+    // The connection is opened on first use, so startup does not depend on the broker.
+    @Bean(destroyMethod = "close")
+    public Sender reactiveSender(CachingConnectionFactory connectionFactory) {
+        return RabbitFlux.createSender(new SenderOptions()
+                .connectionFactory(connectionFactory.getRabbitConnectionFactory())
+                .resourceManagementScheduler(Schedulers.boundedElastic()));
+    }
 }
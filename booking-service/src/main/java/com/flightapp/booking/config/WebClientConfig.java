@@ -0,0 +1,63 @@
+package com.flightapp.booking.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    @Value("${flight-client.pool.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${flight-client.pool.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${flight-client.pool.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${flight-client.pool.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${flight-client.pool.evict-interval-ms:60000}")
+    private long evictIntervalMs;
+
+    @Value("${flight-client.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${flight-client.response-timeout-ms:5000}")
+    private long responseTimeoutMs;
+
+    // One pool shared by every call to flight-service; its usage is published as
+    // reactor.netty.connection.provider.* metrics.
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider flightServiceConnectionProvider() {
+        return ConnectionProvider.builder("flight-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictIntervalMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient flightServiceHttpClient(WebClient.Builder webClientBuilder,
+                                             ConnectionProvider flightServiceConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(flightServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,5 @@
+package com.flightapp.booking.constants;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS, COMPLETED
+}
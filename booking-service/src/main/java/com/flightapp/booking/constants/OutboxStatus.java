@@ -0,0 +1,5 @@
+package com.flightapp.booking.constants;
+
+public enum OutboxStatus {
+    DRAFT, PENDING, IN_FLIGHT, SENT
+}
@@ -0,0 +1,5 @@
+package com.flightapp.booking.constants;
+
+public enum SeatReleaseStatus {
+    PENDING, CLAIMED, RELEASED, FAILED
+}
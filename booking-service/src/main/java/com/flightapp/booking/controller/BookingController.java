@@ -3,21 +3,33 @@ package com.flightapp.booking.controller;
 import com.flightapp.booking.dto.BookRequest;
 import com.flightapp.booking.dto.BookingResponse;
 import com.flightapp.booking.service.BookingService;
+import com.flightapp.booking.service.IdempotentBookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/booking")
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
+    private final IdempotentBookingService idempotentBookingService;
 
+    // With an Idempotency-Key, a repeated request returns the original booking instead of booking again
     @PostMapping("/book/{flightId}")
-    public Mono<BookingResponse> bookTicket(@PathVariable String flightId, @Valid @RequestBody BookRequest request) {
+    public Mono<BookingResponse> bookTicket(@PathVariable String flightId, @Valid @RequestBody BookRequest request,
+                                            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotentBookingService.bookTicket(idempotencyKey, flightId, request);
+        }
         return bookingService.bookTicket(flightId, request);
     }
 
@@ -26,9 +38,20 @@ public class BookingController {
         return bookingService.getBookingByPnr(pnr);
     }
 
+    // Newest first. Pass X-Next-Cursor back as cursor for the next page; summary=true omits passengers.
     @GetMapping("/history/{email}")
-    public Flux<BookingResponse> getBookingHistory(@PathVariable String email) {
-        return bookingService.getBookingHistory(email);
+    public Mono<ResponseEntity<List<BookingResponse>>> getBookingHistory(@PathVariable String email,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(defaultValue = "false") boolean summary) {
+        return bookingService.getBookingHistory(email, cursor, limit, summary)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    return response.body(page.getBookings());
+                });
     }
 
     @DeleteMapping("/cancel/{pnr}")
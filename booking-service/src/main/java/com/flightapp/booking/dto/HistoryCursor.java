@@ -0,0 +1,43 @@
+package com.flightapp.booking.dto;
+
+import com.flightapp.booking.entity.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class HistoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime bookingDateTime;
+    private String id;
+
+    public static HistoryCursor after(Booking booking) {
+        return new HistoryCursor(booking.getBookingDateTime(), booking.getId());
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    decoded.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = bookingDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
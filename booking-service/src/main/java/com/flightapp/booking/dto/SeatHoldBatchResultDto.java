@@ -0,0 +1,17 @@
+package com.flightapp.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldBatchResultDto {
+    private Integer seats;
+    private Integer status;
+    private SeatHoldDto hold;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.flightapp.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldDto {
+    private String holdId;
+    private String flightId;
+    private Integer seats;
+    private String status;
+    private LocalDateTime expiresAt;
+    private FlightDto flight;
+}
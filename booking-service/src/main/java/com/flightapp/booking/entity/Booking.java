@@ -7,6 +7,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -15,6 +17,7 @@ import java.util.List;
 
 @Data
 @Document(collection = "booking")
+@CompoundIndex(name = "user_history_idx", def = "{'userEmail': 1, 'bookingDateTime': -1, '_id': -1}")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,8 +26,11 @@ public class Booking {
     @Id
     private String id;
 
+    @Indexed(name = "pnr_unique_idx", unique = true)
     private String pnr;
     private String flightId;
+    // The seat hold confirmed for this booking; null for bookings made before holds were recorded
+    private String holdId;
     private String flightNumber;
     private String airline;
     private String fromPlace;
@@ -41,6 +47,7 @@ public class Booking {
 
     private BookingStatus bookingStatus;
     private LocalDateTime bookingDateTime;
+    private LocalDateTime cancelledAt;
 
     private List<Passenger> passengers;
 }
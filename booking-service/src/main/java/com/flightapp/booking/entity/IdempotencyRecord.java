@@ -0,0 +1,35 @@
+package com.flightapp.booking.entity;
+
+import com.flightapp.booking.constants.IdempotencyStatus;
+import com.flightapp.booking.dto.BookingResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "booking_idempotency")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    // The client's Idempotency-Key
+    @Id
+    private String id;
+
+    // Hash of flightId + request body, so a key cannot be reused for a different booking
+    private String fingerprint;
+    private IdempotencyStatus status;
+    private BookingResponse response;
+    private LocalDateTime createdAt;
+
+    // Per-record expiry: short while in progress (so a crashed attempt frees the key), longer once completed
+    @Indexed(name = "expires_ttl_idx", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,44 @@
+package com.flightapp.booking.entity;
+
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.event.BookingEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "booking_outbox")
+@CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}")
+@CompoundIndex(name = "pnr_event_unique_idx", def = "{'pnr': 1, 'eventType': 1}", unique = true)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    private String pnr;
+    // The new booking's seat hold, checked by the draft sweep before a DRAFT is published
+    private String holdId;
+    private String eventType;
+    private BookingEvent payload;
+    private OutboxStatus status;
+    private Integer attempts;
+    private LocalDateTime createdAt;
+
+    // Set while a relay holds the row IN_FLIGHT; another relay may take it over once the lease has passed
+    private String owner;
+    private LocalDateTime leaseExpiresAt;
+
+    // Sent rows are only kept for a week
+    @Indexed(name = "sent_ttl_idx", expireAfter = "7d")
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,48 @@
+package com.flightapp.booking.entity;
+
+import com.flightapp.booking.constants.SeatReleaseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Seats freed by a cancelled booking, waiting to be returned to flight-service by SeatReleaseRelay
+@Data
+@Document(collection = "booking_seat_releases")
+@CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRelease {
+
+    @Id
+    private String id;
+
+    // One release per booking, so a repeated cancellation cannot free the seats twice
+    @Indexed(name = "pnr_unique_idx", unique = true)
+    private String pnr;
+
+    private String flightId;
+    private Integer seats;
+    private SeatReleaseStatus status;
+
+    // Set when the row is claimed into a per-flight batch; flight-service applies each releaseId once
+    @Indexed(name = "release_id_idx", sparse = true)
+    private String releaseId;
+
+    // The relay run sending the batch; another run takes the whole batch over once the lease has passed
+    private String owner;
+    private LocalDateTime leaseExpiresAt;
+
+    private LocalDateTime createdAt;
+
+    // Released rows are only kept for a week
+    @Indexed(name = "released_ttl_idx", expireAfter = "7d")
+    private LocalDateTime releasedAt;
+}
@@ -3,13 +3,10 @@ package com.flightapp.booking.repository;
 import com.flightapp.booking.entity.Booking;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface BookingRepository extends ReactiveMongoRepository<Booking, String> {
+public interface BookingRepository extends ReactiveMongoRepository<Booking, String>, BookingRepositoryCustom {
 
     Mono<Booking> findByPnr(String pnr);
-
-    Flux<Booking> findByUserEmail(String email);
 }
@@ -0,0 +1,10 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.dto.HistoryCursor;
+import com.flightapp.booking.entity.Booking;
+import reactor.core.publisher.Flux;
+
+public interface BookingRepositoryCustom {
+
+    Flux<Booking> findHistory(String userEmail, HistoryCursor after, int limit, boolean summary);
+}
@@ -0,0 +1,38 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.dto.HistoryCursor;
+import com.flightapp.booking.entity.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Newest first, ordered by (bookingDateTime, id) descending so a page can resume after the cursor booking.
+    // Both the filter and the sort are served by user_history_idx. A summary leaves passengers in the database.
+    @Override
+    public Flux<Booking> findHistory(String userEmail, HistoryCursor after, int limit, boolean summary) {
+        Criteria criteria = Criteria.where("userEmail").is(userEmail);
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("bookingDateTime").lt(after.getBookingDateTime()),
+                    Criteria.where("bookingDateTime").is(after.getBookingDateTime())
+                            .and("_id").lt(after.getId()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "bookingDateTime", "id"))
+                .limit(limit);
+        if (summary) {
+            query.fields().exclude("passengers");
+        }
+
+        return mongoTemplate.find(query, Booking.class);
+    }
+}
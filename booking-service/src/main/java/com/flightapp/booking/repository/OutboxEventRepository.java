@@ -0,0 +1,22 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveMongoRepository<OutboxEvent, String>, OutboxEventRepositoryCustom {
+
+    Flux<OutboxEvent> findByStatusAndCreatedAtBefore(OutboxStatus status, LocalDateTime createdBefore, Pageable pageable);
+
+    Mono<OutboxEvent> findFirstByStatusInOrderByCreatedAtAsc(Collection<OutboxStatus> statuses);
+
+    Mono<Long> countByStatusIn(Collection<OutboxStatus> statuses);
+}
@@ -0,0 +1,21 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.entity.OutboxEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface OutboxEventRepositoryCustom {
+
+    Mono<OutboxEvent> recordOnce(OutboxEvent event);
+
+    Mono<Long> markPending(Collection<String> ids);
+
+    Flux<OutboxEvent> claim(String owner, int limit, LocalDateTime now, LocalDateTime leaseExpiresAt);
+
+    Mono<Long> markSent(String owner, Collection<String> ids, LocalDateTime sentAt);
+
+    Mono<Long> recordFailedAttempt(String owner, Collection<String> ids);
+}
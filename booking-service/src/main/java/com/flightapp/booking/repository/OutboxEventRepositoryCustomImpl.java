@@ -0,0 +1,114 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // A booking has at most one event of each type: recording it again returns the row written the first time.
+    // Two concurrent upserts are kept to one row by pnr_event_unique_idx.
+    @Override
+    public Mono<OutboxEvent> recordOnce(OutboxEvent event) {
+        Query query = Query.query(Criteria.where("pnr").is(event.getPnr()).and("eventType").is(event.getEventType()));
+        Update update = new Update()
+                .setOnInsert("holdId", event.getHoldId())
+                .setOnInsert("payload", event.getPayload())
+                .setOnInsert("status", event.getStatus())
+                .setOnInsert("attempts", event.getAttempts())
+                .setOnInsert("createdAt", event.getCreatedAt());
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), OutboxEvent.class);
+    }
+
+    @Override
+    public Mono<Long> markPending(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).and("status").is(OutboxStatus.DRAFT));
+
+        return mongoTemplate.updateMulti(query, new Update().set("status", OutboxStatus.PENDING), OutboxEvent.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    // The update re-checks that each row is still claimable, so when two relays pick the same page each row goes
+    // to one of them only. A row whose lease ran out (its relay died mid-batch) can be claimed again.
+    @Override
+    public Flux<OutboxEvent> claim(String owner, int limit, LocalDateTime now, LocalDateTime leaseExpiresAt) {
+        Query candidates = Query.query(claimable(now)).with(Sort.by("createdAt")).limit(limit);
+        candidates.fields().include("_id");
+        Update update = new Update()
+                .set("status", OutboxStatus.IN_FLIGHT)
+                .set("owner", owner)
+                .set("leaseExpiresAt", leaseExpiresAt);
+
+        return mongoTemplate.find(candidates, OutboxEvent.class)
+                .map(OutboxEvent::getId)
+                .collectList()
+                .filter(ids -> !ids.isEmpty())
+                .flatMap(ids -> mongoTemplate.updateMulti(
+                        Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now))),
+                        update, OutboxEvent.class))
+                .thenMany(mongoTemplate.find(Query.query(claimedBy(owner)).with(Sort.by("createdAt")), OutboxEvent.class));
+    }
+
+    private Criteria claimable(LocalDateTime now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(OutboxStatus.PENDING),
+                Criteria.where("status").is(OutboxStatus.IN_FLIGHT).and("leaseExpiresAt").lt(now));
+    }
+
+    private Criteria claimedBy(String owner) {
+        return Criteria.where("owner").is(owner).and("status").is(OutboxStatus.IN_FLIGHT);
+    }
+
+    // One update for the whole confirmed batch instead of a save per row
+    @Override
+    public Mono<Long> markSent(String owner, Collection<String> ids, LocalDateTime sentAt) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).andOperator(claimedBy(owner)));
+        Update update = new Update()
+                .set("status", OutboxStatus.SENT)
+                .set("sentAt", sentAt)
+                .unset("owner")
+                .unset("leaseExpiresAt");
+
+        return mongoTemplate.updateMulti(query, update, OutboxEvent.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    // Unconfirmed rows go back to PENDING for the next run instead of waiting out the lease
+    @Override
+    public Mono<Long> recordFailedAttempt(String owner, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).andOperator(claimedBy(owner)));
+        Update update = new Update()
+                .set("status", OutboxStatus.PENDING)
+                .unset("owner")
+                .unset("leaseExpiresAt")
+                .inc("attempts", 1);
+
+        return mongoTemplate.updateMulti(query, update, OutboxEvent.class)
+                .map(result -> result.getModifiedCount());
+    }
+}
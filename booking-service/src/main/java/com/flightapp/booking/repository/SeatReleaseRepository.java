@@ -0,0 +1,25 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.constants.SeatReleaseStatus;
+import com.flightapp.booking.entity.SeatRelease;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface SeatReleaseRepository extends ReactiveMongoRepository<SeatRelease, String>, SeatReleaseRepositoryCustom {
+
+    Flux<SeatRelease> findByStatusOrderByCreatedAtAsc(SeatReleaseStatus status, Pageable pageable);
+
+    Flux<SeatRelease> findByOwnerAndStatus(String owner, SeatReleaseStatus status);
+
+    Flux<SeatRelease> findByReleaseIdIn(Collection<String> releaseIds);
+
+    Mono<SeatRelease> findFirstByStatusInOrderByCreatedAtAsc(Collection<SeatReleaseStatus> statuses);
+
+    Mono<Long> countByStatusIn(Collection<SeatReleaseStatus> statuses);
+}
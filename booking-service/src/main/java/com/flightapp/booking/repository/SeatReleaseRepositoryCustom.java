@@ -0,0 +1,17 @@
+package com.flightapp.booking.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface SeatReleaseRepositoryCustom {
+
+    Mono<Long> claim(Collection<String> ids, String releaseId, String owner, LocalDateTime leaseExpiresAt);
+
+    Mono<Long> takeOver(String owner, int limit, LocalDateTime now, LocalDateTime leaseExpiresAt);
+
+    Mono<Long> markReleased(String releaseId, LocalDateTime releasedAt);
+
+    Mono<Long> markFailed(String releaseId);
+}
@@ -0,0 +1,90 @@
+package com.flightapp.booking.repository;
+
+import com.flightapp.booking.constants.SeatReleaseStatus;
+import com.flightapp.booking.entity.SeatRelease;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class SeatReleaseRepositoryCustomImpl implements SeatReleaseRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Only PENDING rows are claimed, so two relays racing for the same rows never put one row in two batches
+    @Override
+    public Mono<Long> claim(Collection<String> ids, String releaseId, String owner, LocalDateTime leaseExpiresAt) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).and("status").is(SeatReleaseStatus.PENDING));
+        Update update = new Update()
+                .set("status", SeatReleaseStatus.CLAIMED)
+                .set("releaseId", releaseId)
+                .set("owner", owner)
+                .set("leaseExpiresAt", leaseExpiresAt);
+
+        return mongoTemplate.updateMulti(query, update, SeatRelease.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    // Batches whose lease ran out (their relay died or flight-service was down) move to the new owner whole,
+    // keeping their releaseId: a partial batch resent under the same releaseId would lose the other seats.
+    // The update re-checks the lease, so when two relays race for the same batch only one of them gets it.
+    @Override
+    public Mono<Long> takeOver(String owner, int limit, LocalDateTime now, LocalDateTime leaseExpiresAt) {
+        Query candidates = Query.query(expired(now)).with(Sort.by("createdAt")).limit(limit);
+        candidates.fields().include("releaseId");
+        Update update = new Update()
+                .set("owner", owner)
+                .set("leaseExpiresAt", leaseExpiresAt);
+
+        return mongoTemplate.find(candidates, SeatRelease.class)
+                .map(SeatRelease::getReleaseId)
+                .distinct()
+                .collectList()
+                .filter(releaseIds -> !releaseIds.isEmpty())
+                .flatMap(releaseIds -> mongoTemplate.updateMulti(
+                        Query.query(new Criteria().andOperator(Criteria.where("releaseId").in(releaseIds), expired(now))),
+                        update, SeatRelease.class))
+                .map(result -> result.getModifiedCount())
+                .defaultIfEmpty(0L);
+    }
+
+    private Criteria expired(LocalDateTime now) {
+        return Criteria.where("status").is(SeatReleaseStatus.CLAIMED).and("leaseExpiresAt").lt(now);
+    }
+
+    @Override
+    public Mono<Long> markReleased(String releaseId, LocalDateTime releasedAt) {
+        Query query = Query.query(Criteria.where("releaseId").is(releaseId).and("status").is(SeatReleaseStatus.CLAIMED));
+        Update update = new Update()
+                .set("status", SeatReleaseStatus.RELEASED)
+                .set("releasedAt", releasedAt)
+                .unset("owner")
+                .unset("leaseExpiresAt");
+
+        return mongoTemplate.updateMulti(query, update, SeatRelease.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    @Override
+    public Mono<Long> markFailed(String releaseId) {
+        Query query = Query.query(Criteria.where("releaseId").is(releaseId).and("status").is(SeatReleaseStatus.CLAIMED));
+
+        Update update = new Update()
+                .set("status", SeatReleaseStatus.FAILED)
+                .unset("owner")
+                .unset("leaseExpiresAt");
+
+        return mongoTemplate.updateMulti(query, update, SeatRelease.class)
+                .map(result -> result.getModifiedCount());
+    }
+}
@@ -0,0 +1,83 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.rabbitmq.CorrelableOutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
+import reactor.rabbitmq.SendOptions;
+import reactor.rabbitmq.Sender;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+// Non-blocking publisher for booking events. At most max-in-flight messages wait for a broker
+// confirm at any time, so a slow broker slows the relay down instead of piling up unconfirmed messages.
+@Component
+@Slf4j
+public class BookingEventPublisher {
+
+    private final Sender sender;
+    private final MessageConverter messageConverter;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    @Value("${rabbitmq.exchange}")
+    private String exchange;
+
+    @Value("${rabbitmq.routing-key}")
+    private String routingKey;
+
+    @Value("${outbox.relay.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    public BookingEventPublisher(Sender sender, MessageConverter messageConverter) {
+        this.sender = sender;
+        this.messageConverter = messageConverter;
+    }
+
+    // Emits the ids of the outbox events the broker confirmed. Anything not confirmed, including
+    // everything after a broker failure or a confirm timeout, is simply not emitted.
+    public Flux<String> publish(List<OutboxEvent> events) {
+        Flux<CorrelableOutboundMessage<String>> messages = Flux.fromIterable(events).map(this::toMessage);
+
+        return sender.sendWithTypedPublishConfirms(messages, new SendOptions().maxInFlight(maxInFlight))
+                .timeout(Duration.ofMillis(confirmTimeoutMs))
+                .filter(result -> {
+                    if (!result.isAck()) {
+                        log.warn("Outbox event {} was rejected by the broker",
+                                result.getOutboundMessage().getCorrelationMetadata());
+                    }
+                    return result.isAck();
+                })
+                .map(OutboundMessageResult::getOutboundMessage)
+                .map(CorrelableOutboundMessage::getCorrelationMetadata)
+                .onErrorResume(error -> {
+                    log.warn("Publishing booking events stopped, the rest stay in the outbox: {}", error.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    // Same body and headers RabbitTemplate would have produced, so EmailService reads it unchanged
+    private CorrelableOutboundMessage<String> toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(event.getId());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        Message message = messageConverter.toMessage(event.getPayload(), properties);
+
+        return new CorrelableOutboundMessage<>(exchange, routingKey,
+                propertiesConverter.fromMessageProperties(message.getMessageProperties(), StandardCharsets.UTF_8.name()),
+                message.getBody(), event.getId());
+    }
+}
@@ -1,8 +1,8 @@
 package com.flightapp.booking.service;
 
 import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingHistoryPage;
 import com.flightapp.booking.dto.BookingResponse;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface BookingService {
@@ -11,7 +11,7 @@ public interface BookingService {
 
     Mono<BookingResponse> getBookingByPnr(String pnr);
 
-    Flux<BookingResponse> getBookingHistory(String email);
+    Mono<BookingHistoryPage> getBookingHistory(String email, String cursor, Integer limit, boolean summary);
 
     Mono<BookingResponse> cancelBooking(String pnr);
 }
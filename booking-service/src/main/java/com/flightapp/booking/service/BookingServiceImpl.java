@@ -2,25 +2,36 @@ package com.flightapp.booking.service;
 
 import com.flightapp.booking.client.FlightServiceWebClient;
 import com.flightapp.booking.constants.BookingStatus;
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.constants.SeatReleaseStatus;
 import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingHistoryPage;
 import com.flightapp.booking.dto.BookingResponse;
 import com.flightapp.booking.dto.FlightDto;
+import com.flightapp.booking.dto.HistoryCursor;
+import com.flightapp.booking.dto.SeatHoldDto;
 import com.flightapp.booking.entity.Booking;
+import com.flightapp.booking.entity.OutboxEvent;
+import com.flightapp.booking.entity.SeatRelease;
 import com.flightapp.booking.event.BookingEvent;
 import com.flightapp.booking.exception.BookingNotFoundException;
 import com.flightapp.booking.repository.BookingRepository;
+import com.flightapp.booking.repository.OutboxEventRepository;
+import com.flightapp.booking.repository.SeatReleaseRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
+
+import static reactor.util.retry.Retry.backoff;
 
 @Service
 @RequiredArgsConstructor
@@ -29,41 +40,63 @@ public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final FlightServiceWebClient flightServiceClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PnrGenerator pnrGenerator;
+    private final SeatReleaseRepository seatReleaseRepository;
+
+    @Value("${booking.history.default-page-size:20}")
+    private int defaultHistoryPageSize;
 
-    @Value("${rabbitmq.exchange}")
-    private String exchange;
+    @Value("${booking.history.max-page-size:100}")
+    private int maxHistoryPageSize;
 
-    @Value("${rabbitmq.routing-key}")
-    private String routingKey;
+    @Value("${booking.cancel.retry-window-hours:24}")
+    private long cancelRetryWindowHours;
 
     @Override
     @CircuitBreaker(name = "flightService", fallbackMethod = "bookTicketFallback")
     @Retry(name = "flightService")
     public Mono<BookingResponse> bookTicket(String flightId, BookRequest request) {
-        return flightServiceClient.getFlightById(flightId)
-                .flatMap(flight -> {
-                    if (flight.getAvailableSeats() < request.getNoOfSeats()) {
-                        return Mono.error(new IllegalArgumentException("Not enough seats available"));
-                    }
-
-                    return flightServiceClient.updateSeats(flightId, request.getNoOfSeats())
-                            .flatMap(updatedFlight -> createBooking(flightId, flight, request));
-                })
-                .flatMap(booking -> {
-                    publishBookingEvent(booking, "BOOKING_CONFIRMED");
-                    return Mono.just(mapToResponse(booking));
-                })
+        return flightServiceClient.createHold(flightId, request.getNoOfSeats())
+                .flatMap(hold -> createBooking(flightId, hold.getHoldId(), hold.getFlight(), request)
+                        .onErrorResume(error -> releaseHold(hold).then(Mono.error(error)))
+                        .flatMap(created -> flightServiceClient.confirmHold(hold.getHoldId(), created.booking().getPnr())
+                                .then(activateBookingEvent(created.draft()))
+                                .thenReturn(created.booking())
+                                .onErrorResume(error -> discardBooking(created).then(Mono.error(error)))))
+                .map(this::mapToResponse)
                 .doOnSuccess(response -> log.info("Booking created with PNR: {}", response.getPnr()))
                 .doOnError(error -> log.error("Error creating booking: {}", error.getMessage()));
     }
 
-    private Mono<Booking> createBooking(String flightId, FlightDto flight, BookRequest request) {
-        String pnr = generatePNR();
+    // Before the booking exists the hold can only still be HELD, so one that is not released here just expires
+    private Mono<Void> releaseHold(SeatHoldDto hold) {
+        return flightServiceClient.releaseHold(hold.getHoldId())
+                .retryWhen(backoff(3, Duration.ofMillis(100)))
+                .doOnError(error -> log.warn("Could not release seat hold {}: {}", hold.getHoldId(), error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    // The booking goes first and its hold after, so the seats are never back on sale while the booking stands.
+    // flight-service may have confirmed the hold even though the confirm failed here, so it is given back for
+    // this PNR. The draft goes last: if any step fails, OutboxRelay's draft sweep finishes the job.
+    private Mono<Void> discardBooking(NewBooking created) {
+        Booking booking = created.booking();
+        return bookingRepository.delete(booking)
+                .then(Mono.defer(() -> flightServiceClient.compensateHold(booking.getHoldId(), booking.getPnr()))
+                        .retryWhen(backoff(3, Duration.ofMillis(100))))
+                .then(Mono.defer(() -> outboxEventRepository.delete(created.draft())))
+                .doOnError(error -> log.warn("Discarding booking {} left to the draft sweep: {}",
+                        booking.getPnr(), error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
 
+    private Mono<NewBooking> createBooking(String flightId, String holdId, FlightDto flight, BookRequest request) {
         Booking booking = Booking.builder()
-                .pnr(pnr)
                 .flightId(flightId)
+                .holdId(holdId)
                 .flightNumber(flight.getFlightNumber())
                 .airline(flight.getAirline())
                 .fromPlace(flight.getFromPlace())
@@ -81,7 +114,19 @@ public class BookingServiceImpl implements BookingService {
                 .passengers(request.getPassengers())
                 .build();
 
-        return bookingRepository.save(booking);
+        // The DRAFT goes in before the booking, so no booking is ever visible without one: if the request stops
+        // before the hold is confirmed, OutboxRelay's draft sweep settles the booking and its hold.
+        // The unique index on pnr backs the generator: a clash means two instances share a node id
+        return Mono.defer(() -> {
+                    booking.setPnr(pnrGenerator.nextPnr());
+                    return recordBookingEvent(booking, "BOOKING_CONFIRMED", OutboxStatus.DRAFT)
+                            .flatMap(draft -> bookingRepository.save(booking)
+                                    .map(saved -> new NewBooking(saved, draft))
+                                    .onErrorResume(error -> outboxEventRepository.delete(draft).then(Mono.error(error))));
+                })
+                .retryWhen(backoff(2, Duration.ofMillis(1))
+                        .filter(DuplicateKeyException.class::isInstance)
+                        .doBeforeRetry(signal -> log.warn("PNR {} already taken, generating another", booking.getPnr())));
     }
 
     @Override
@@ -91,32 +136,95 @@ public class BookingServiceImpl implements BookingService {
                 .map(this::mapToResponse);
     }
 
+    // One extra booking is fetched to learn whether another page exists without a count query.
     @Override
-    public Flux<BookingResponse> getBookingHistory(String email) {
-        return bookingRepository.findByUserEmail(email)
-                .map(this::mapToResponse);
+    public Mono<BookingHistoryPage> getBookingHistory(String email, String cursor, Integer limit, boolean summary) {
+        int pageSize = limit == null ? defaultHistoryPageSize : Math.min(limit, maxHistoryPageSize);
+        if (pageSize < 1) {
+            return Mono.error(new IllegalArgumentException("limit must be at least 1"));
+        }
+        return Mono.defer(() -> bookingRepository
+                        .findHistory(email, HistoryCursor.decode(cursor), pageSize + 1, summary)
+                        .collectList())
+                .map(bookings -> {
+                    List<Booking> page = bookings.size() <= pageSize ? bookings : bookings.subList(0, pageSize);
+                    return BookingHistoryPage.builder()
+                            .bookings(page.stream().map(this::mapToResponse).toList())
+                            .nextCursor(bookings.size() <= pageSize ? null
+                                    : HistoryCursor.after(page.get(pageSize - 1)).encode())
+                            .build();
+                });
     }
 
     @Override
     public Mono<BookingResponse> cancelBooking(String pnr) {
         return bookingRepository.findByPnr(pnr)
                 .switchIfEmpty(Mono.error(new BookingNotFoundException("Booking not found with PNR: " + pnr)))
-                .flatMap(booking -> {
-                    if (booking.getBookingStatus() == BookingStatus.CANCELLED) {
-                        return Mono.error(new IllegalArgumentException("Booking is already cancelled"));
-                    }
-
-                    booking.setBookingStatus(BookingStatus.CANCELLED);
-                    return bookingRepository.save(booking);
-                })
-                .flatMap(booking -> {
-                    publishBookingEvent(booking, "BOOKING_CANCELLED");
-                    return Mono.just(mapToResponse(booking));
-                })
+                .flatMap(booking -> booking.getBookingStatus() == BookingStatus.CANCELLED
+                        ? repeatCancellation(booking)
+                        : cancel(booking))
+                .map(this::mapToResponse)
                 .doOnSuccess(response -> log.info("Booking cancelled with PNR: {}", pnr));
     }
 
-    private void publishBookingEvent(Booking booking, String eventType) {
+    // The booking is marked CANCELLED first, so its seats are never returned while it still stands. The seat
+    // release and the event that follow are each recorded once per booking, so a cancel that stopped part way
+    // is finished by sending it again.
+    private Mono<Booking> cancel(Booking booking) {
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        booking.setCancelledAt(LocalDateTime.now());
+        return bookingRepository.save(booking)
+                .flatMap(this::recordCancellation);
+    }
+
+    // Within the retry window a repeated cancel records again whatever the first one may have missed. An older
+    // cancellation is only reported: its seat release may have expired already, and recording it again would
+    // return the seats twice.
+    private Mono<Booking> repeatCancellation(Booking booking) {
+        boolean retryable = booking.getCancelledAt() != null
+                && booking.getCancelledAt().isAfter(LocalDateTime.now().minusHours(cancelRetryWindowHours));
+        return retryable ? recordCancellation(booking) : Mono.just(booking);
+    }
+
+    private Mono<Booking> recordCancellation(Booking booking) {
+        return returnSeats(booking)
+                .flatMap(cancelled -> recordBookingEvent(cancelled, "BOOKING_CANCELLED", OutboxStatus.PENDING)
+                        .thenReturn(cancelled));
+    }
+
+    // Only a confirmed hold leaves its seats with the booking. Any other hold gives them back itself: a HELD
+    // one is released now so a late confirm cannot take it, and one already released or expired is left alone,
+    // so the seats never go back twice. If the hold cannot be looked up the cancel fails and can be retried.
+    private Mono<Booking> returnSeats(Booking booking) {
+        if (booking.getHoldId() == null) {
+            return recordSeatRelease(booking);
+        }
+        return flightServiceClient.getHold(booking.getHoldId())
+                .flatMap(hold -> "CONFIRMED".equals(hold.getStatus())
+                        ? recordSeatRelease(booking)
+                        : flightServiceClient.compensateHold(booking.getHoldId(), booking.getPnr()).thenReturn(booking));
+    }
+
+    // The seats go back to flight-service asynchronously, batched per flight by SeatReleaseRelay
+    private Mono<Booking> recordSeatRelease(Booking booking) {
+        SeatRelease release = SeatRelease.builder()
+                .pnr(booking.getPnr())
+                .flightId(booking.getFlightId())
+                .seats(booking.getNoOfSeats())
+                .status(SeatReleaseStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        return seatReleaseRepository.save(release)
+                .thenReturn(booking)
+                // A concurrent cancellation of the same booking already recorded it
+                .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.just(booking));
+    }
+
+    // The event is stored in booking_outbox next to the booking and published later by OutboxRelay,
+    // so the request never waits on the broker. A new booking's event is written as a DRAFT before the booking,
+    // and goes away with the booking if its hold is not confirmed.
+    private Mono<OutboxEvent> recordBookingEvent(Booking booking, String eventType, OutboxStatus status) {
         BookingEvent event = BookingEvent.builder()
                 .pnr(booking.getPnr())
                 .userEmail(booking.getUserEmail())
@@ -129,12 +237,29 @@ public class BookingServiceImpl implements BookingService {
                 .eventType(eventType)
                 .build();
 
-        rabbitTemplate.convertAndSend(exchange, routingKey, event);
-        log.info("Published booking event: {} for PNR: {}", eventType, booking.getPnr());
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .pnr(booking.getPnr())
+                .holdId(booking.getHoldId())
+                .eventType(eventType)
+                .payload(event)
+                .status(status)
+                .attempts(0)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        return outboxEventRepository.recordOnce(outboxEvent)
+                .retryWhen(backoff(3, Duration.ofMillis(100)))
+                .doOnNext(saved -> log.info("Recorded booking event: {} for PNR: {}", eventType, booking.getPnr()));
     }
 
-    private String generatePNR() {
-        return "PNR" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    // Once the hold is confirmed the booking stands, so this never fails it: a draft left behind is released
+    // by OutboxRelay's draft sweep instead.
+    private Mono<Void> activateBookingEvent(OutboxEvent draft) {
+        return Mono.defer(() -> outboxEventRepository.markPending(List.of(draft.getId())))
+                .retryWhen(backoff(3, Duration.ofMillis(100)))
+                .doOnError(error -> log.warn("Booking event for PNR {} left as draft: {}", draft.getPnr(), error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
     }
 
     private BookingResponse mapToResponse(Booking booking) {
@@ -159,6 +284,9 @@ public class BookingServiceImpl implements BookingService {
                 .build();
     }
 
+    private record NewBooking(Booking booking, OutboxEvent draft) {
+    }
+
     private Mono<BookingResponse> bookTicketFallback(String flightId, BookRequest request, Exception ex) {
         log.error("Circuit breaker fallback - Flight service is unavailable: {}", ex.getMessage());
         return Mono.error(new RuntimeException("Flight service is currently unavailable. Please try again later."));
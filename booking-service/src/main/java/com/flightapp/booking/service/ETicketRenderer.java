@@ -0,0 +1,130 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+// PDF e-ticket for a confirmed booking. The attachment renders straight into the SMTP output stream
+// when the message is written, so no ticket is held in memory between queueing and sending.
+@Component
+public class ETicketRenderer {
+
+    private static final String CONTENT_TYPE = "application/pdf";
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private static final Font LABEL_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
+    private static final Font VALUE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 11);
+    private static final DateTimeFormatter DEPARTURE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    public void render(BookingEvent event, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A5.rotate());
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            // The caller owns the stream (the MIME encoder when sending)
+            writer.setCloseStream(false);
+            document.open();
+            document.add(new Paragraph("E-Ticket", TITLE_FONT));
+
+            PdfPTable table = new PdfPTable(2);
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(12);
+            addRow(table, "PNR", event.getPnr());
+            addRow(table, "Passenger", event.getUserName());
+            addRow(table, "Flight", event.getFlightNumber());
+            addRow(table, "Route", event.getFromPlace() + " to " + event.getToPlace());
+            addRow(table, "Departure", event.getDepartureDateTime() == null ? ""
+                    : DEPARTURE_FORMAT.format(event.getDepartureDateTime()));
+            addRow(table, "Total Amount", event.getTotalAmount() == null ? "" : "$" + event.getTotalAmount());
+            document.add(table);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render e-ticket for PNR: " + event.getPnr(), e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+
+    public MimeBodyPart attachment(BookingEvent event) throws MessagingException {
+        String fileName = "e-ticket-" + event.getPnr() + ".pdf";
+        MimeBodyPart part = new MimeBodyPart();
+        part.setDataHandler(new ETicketDataHandler(event, fileName));
+        part.setFileName(fileName);
+        part.setDisposition(Part.ATTACHMENT);
+        // Set up front, otherwise JavaMail reads the data source to pick an encoding
+        part.setHeader("Content-Transfer-Encoding", "base64");
+        return part;
+    }
+
+    private static void addRow(PdfPTable table, String label, String value) {
+        table.addCell(new Paragraph(label, LABEL_FONT));
+        table.addCell(new Paragraph(value == null ? "" : value, VALUE_FONT));
+    }
+
+    private class ETicketDataHandler extends DataHandler {
+
+        private final BookingEvent event;
+
+        ETicketDataHandler(BookingEvent event, String fileName) {
+            super(new ETicketDataSource(event, fileName));
+            this.event = event;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            render(event, out);
+        }
+    }
+
+    // Only used if something reads the attachment back; sending goes through ETicketDataHandler.writeTo
+    private class ETicketDataSource implements DataSource {
+
+        private final BookingEvent event;
+        private final String fileName;
+
+        ETicketDataSource(BookingEvent event, String fileName) {
+            this.event = event;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            render(event, out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            throw new IOException("E-ticket attachments are read-only");
+        }
+
+        @Override
+        public String getContentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public String getName() {
+            return fileName;
+        }
+    }
+}
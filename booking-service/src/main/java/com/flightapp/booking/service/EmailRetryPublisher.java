@@ -0,0 +1,82 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.config.RabbitMQConfig;
+import com.flightapp.booking.event.BookingEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.SendFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.stereotype.Component;
+
+// Failed emails leave booking.email.queue instead of blocking it: transient failures wait in a TTL retry
+// queue that dead-letters back to the booking exchange, permanent ones (bad address, unparseable message)
+// and anything past the last retry delay go to the parking-lot queue for manual inspection.
+@Component
+@Slf4j
+public class EmailRetryPublisher {
+
+    public static final String ATTEMPTS_HEADER = "x-email-attempts";
+    public static final String ERROR_HEADER = "x-email-error";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rabbitmq.queue}")
+    private String queue;
+
+    @Value("${rabbitmq.email-retry-exchange:booking.email.retry}")
+    private String retryExchange;
+
+    @Value("${rabbitmq.email-parking-lot-queue:booking.email.parking-lot}")
+    private String parkingLotQueue;
+
+    @Value("${email.retry.delays-ms:5000,30000,300000}")
+    private long[] retryDelaysMs;
+
+    public EmailRetryPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // attempts counts failed deliveries so far, including the one that just failed
+    public void retryOrPark(BookingEvent event, int attempts, Throwable error) {
+        if (isPermanent(error) || attempts > retryDelaysMs.length) {
+            log.error("Parking email for PNR: {} after {} attempt(s): {}", event.getPnr(), attempts, error.getMessage());
+            rabbitTemplate.convertAndSend("", parkingLotQueue, event, withHeaders(attempts, error));
+            meterRegistry.counter("booking.email.parked").increment();
+            return;
+        }
+
+        long delayMs = retryDelaysMs[attempts - 1];
+        log.warn("Retrying email for PNR: {} in {} ms (attempt {}): {}", event.getPnr(), delayMs, attempts, error.getMessage());
+        rabbitTemplate.convertAndSend(retryExchange, RabbitMQConfig.emailRetryQueueName(queue, delayMs), event,
+                withHeaders(attempts, error));
+        meterRegistry.counter("booking.email.retried", "delay", delayMs + "ms").increment();
+    }
+
+    private MessagePostProcessor withHeaders(int attempts, Throwable error) {
+        return message -> {
+            message.getMessageProperties().setHeader(ATTEMPTS_HEADER, attempts);
+            message.getMessageProperties().setHeader(ERROR_HEADER, String.valueOf(error.getMessage()));
+            return message;
+        };
+    }
+
+    // Retrying will not help a rejected recipient or a message that cannot be built
+    private boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MailParseException || cause instanceof MailPreparationException) {
+                return true;
+            }
+            if (cause instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,69 +1,76 @@
 package com.flightapp.booking.service;
 
 import com.flightapp.booking.event.BookingEvent;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
+    private final EmailRetryPublisher emailRetryPublisher;
+    private final EmailTemplates emailTemplates;
+    private final ETicketRenderer eTicketRenderer;
+
+    @Value("${email.sender.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
 
-    @RabbitListener(queues = "${rabbitmq.queue}")
-    public void handleBookingEvent(BookingEvent event) {
+    @RabbitListener(queues = "${rabbitmq.queue}", containerFactory = "emailListenerContainerFactory")
+    public void handleBookingEvent(BookingEvent event,
+                                   @Header(name = EmailRetryPublisher.ATTEMPTS_HEADER, defaultValue = "0") int previousAttempts) {
         log.info("Received booking event: {} for PNR: {}", event.getEventType(), event.getPnr());
-        sendEmail(event);
+        sendEmail(event, previousAttempts);
     }
 
-    private void sendEmail(BookingEvent event) {
+    private void sendEmail(BookingEvent event, int previousAttempts) {
+        MimeMessage message;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(event.getUserEmail());
-            message.setSubject(getEmailSubject(event.getEventType()));
-            message.setText(buildEmailBody(event));
-            message.setFrom("riddhimabhanja2003@gmail.com");
-
-            mailSender.send(message);
-            log.info("Email sent successfully to: {}", event.getUserEmail());
-        } catch (Exception e) {
-            log.error("Failed to send email: {}", e.getMessage());
+            message = buildMessage(event);
+        } catch (MessagingException e) {
+            emailRetryPublisher.retryOrPark(event, previousAttempts + 1, new MailPreparationException(e));
+            return;
         }
-    }
 
-    private String getEmailSubject(String eventType) {
-        if ("BOOKING_CONFIRMED".equals(eventType)) {
-            return "Flight Booking Confirmed";
-        } else if ("BOOKING_CANCELLED".equals(eventType)) {
-            return "Flight Booking Cancelled";
+        // The listener thread waits for its own message so the broker ack still follows delivery
+        try {
+            mailDispatcher.submit(message).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            log.info("Email sent successfully to: {}", event.getUserEmail());
+        } catch (ExecutionException e) {
+            emailRetryPublisher.retryOrPark(event, previousAttempts + 1, e.getCause());
+        } catch (TimeoutException e) {
+            emailRetryPublisher.retryOrPark(event, previousAttempts + 1, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImmediateRequeueAmqpException("Interrupted while sending email for PNR: " + event.getPnr());
         }
-        return "Flight Booking Update";
     }
 
-    private String buildEmailBody(BookingEvent event) {
-        StringBuilder body = new StringBuilder();
-        body.append("Dear ").append(event.getUserName()).append(",\n\n");
-
-        if ("BOOKING_CONFIRMED".equals(event.getEventType())) {
-            body.append("Your flight booking has been confirmed!\n\n");
-        } else if ("BOOKING_CANCELLED".equals(event.getEventType())) {
-            body.append("Your flight booking has been cancelled.\n\n");
+    private MimeMessage buildMessage(BookingEvent event) throws MessagingException {
+        boolean withTicket = "BOOKING_CONFIRMED".equals(event.getEventType());
+        MimeMessage message = mailDispatcher.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, withTicket, "UTF-8");
+        helper.setTo(event.getUserEmail());
+        helper.setSubject(emailTemplates.subject(event));
+        helper.setText(emailTemplates.body(event));
+        helper.setFrom("riddhimabhanja2003@gmail.com");
+        if (withTicket) {
+            helper.getRootMimeMultipart().addBodyPart(eTicketRenderer.attachment(event));
         }
-
-        body.append("Booking Details:\n");
-        body.append("PNR: ").append(event.getPnr()).append("\n");
-        body.append("Flight: ").append(event.getFlightNumber()).append("\n");
-        body.append("Route: ").append(event.getFromPlace()).append(" to ").append(event.getToPlace()).append("\n");
-        body.append("Departure: ").append(event.getDepartureDateTime()).append("\n");
-        body.append("Total Amount: $").append(event.getTotalAmount()).append("\n\n");
-        body.append("Thank you for choosing our service!\n\n");
-        body.append("Best regards,\nFlight Booking Team");
-
-        return body.toString();
+        return message;
     }
 }
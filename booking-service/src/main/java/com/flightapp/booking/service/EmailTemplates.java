@@ -0,0 +1,66 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.event.BookingEvent;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Subject and body templates under templates/email, compiled once at startup.
+// Event types map to file names, e.g. BOOKING_CONFIRMED -> booking-confirmed.subject.mustache.
+@Component
+public class EmailTemplates {
+
+    private static final String TEMPLATE_DIR = "templates/email/";
+    private static final String DEFAULT_TEMPLATE = "booking-update";
+    private static final List<String> TEMPLATES = List.of("booking-confirmed", "booking-cancelled", DEFAULT_TEMPLATE);
+
+    private final Map<String, EmailTemplate> templates;
+
+    public EmailTemplates() {
+        Mustache.Compiler compiler = Mustache.compiler()
+                .escapeHTML(false)
+                .defaultValue("")
+                .withLoader(name -> new StringReader(source(name + ".mustache")));
+        this.templates = TEMPLATES.stream().collect(Collectors.toMap(Function.identity(), name -> new EmailTemplate(
+                compiler.compile(source(name + ".subject.mustache")),
+                compiler.compile(source(name + ".body.mustache")))));
+    }
+
+    public String subject(BookingEvent event) {
+        return template(event).subject().execute(event);
+    }
+
+    public String body(BookingEvent event) {
+        return template(event).body().execute(event);
+    }
+
+    private EmailTemplate template(BookingEvent event) {
+        String name = event.getEventType() == null ? DEFAULT_TEMPLATE
+                : event.getEventType().toLowerCase().replace('_', '-');
+        return templates.getOrDefault(name, templates.get(DEFAULT_TEMPLATE));
+    }
+
+    // Read whole and closed straight away; templates are small and only read at startup
+    private static String source(String file) {
+        try (InputStream in = new ClassPathResource(TEMPLATE_DIR + file).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Missing email template " + file, e);
+        }
+    }
+
+    private record EmailTemplate(Template subject, Template body) {
+    }
+}
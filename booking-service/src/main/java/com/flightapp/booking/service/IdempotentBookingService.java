@@ -0,0 +1,10 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingResponse;
+import reactor.core.publisher.Mono;
+
+public interface IdempotentBookingService {
+
+    Mono<BookingResponse> bookTicket(String idempotencyKey, String flightId, BookRequest request);
+}
@@ -0,0 +1,135 @@
+package com.flightapp.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.booking.constants.IdempotencyStatus;
+import com.flightapp.booking.dto.BookRequest;
+import com.flightapp.booking.dto.BookingResponse;
+import com.flightapp.booking.entity.IdempotencyRecord;
+import com.flightapp.booking.exception.IdempotencyConflictException;
+import com.flightapp.booking.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import static reactor.util.retry.Retry.backoff;
+
+// Wraps BookingService.bookTicket (and its circuit breaker/retry) for requests carrying an Idempotency-Key.
+// The first request claims the key with an insert; duplicates wait for its stored BookingResponse and
+// replay it without calling flight-service. A failed booking releases the key so the client can retry; once
+// the booking exists the key is never released, even if its response could not be stored.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotentBookingServiceImpl implements IdempotentBookingService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final BookingService bookingService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${booking.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${booking.idempotency.in-progress-ttl-seconds:120}")
+    private long inProgressTtlSeconds;
+
+    @Value("${booking.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${booking.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Override
+    public Mono<BookingResponse> bookTicket(String idempotencyKey, String flightId, BookRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new IllegalArgumentException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        return Mono.fromCallable(() -> fingerprint(flightId, request))
+                .flatMap(fingerprint -> claim(idempotencyKey, fingerprint)
+                        .flatMap(claimed -> claimed
+                                ? book(idempotencyKey, flightId, request)
+                                : awaitResult(idempotencyKey, fingerprint)));
+    }
+
+    private Mono<Boolean> claim(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord claim = IdempotencyRecord.builder()
+                .id(key)
+                .fingerprint(fingerprint)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(inProgressTtlSeconds))
+                .build();
+        return idempotencyRecordRepository.insert(claim)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.just(false));
+    }
+
+    private Mono<BookingResponse> book(String key, String flightId, BookRequest request) {
+        return bookingService.bookTicket(flightId, request)
+                .onErrorResume(error -> idempotencyRecordRepository.deleteById(key)
+                        .onErrorResume(deleteError -> {
+                            log.warn("Could not release Idempotency-Key {}: {}", key, deleteError.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(error)))
+                .flatMap(response -> complete(key, response).thenReturn(response));
+    }
+
+    // Duplicates keep waiting on an IN_PROGRESS key until its claim expires, so a store that stays down only
+    // costs them a 409, never a second booking
+    private Mono<Void> complete(String key, BookingResponse response) {
+        return Mono.defer(() -> idempotencyRecordRepository.findById(key))
+                .flatMap(record -> {
+                    record.setStatus(IdempotencyStatus.COMPLETED);
+                    record.setResponse(response);
+                    record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+                    return idempotencyRecordRepository.save(record);
+                })
+                .retryWhen(backoff(3, Duration.ofMillis(100)))
+                .doOnError(error -> log.error("Booking {} made but Idempotency-Key {} not marked completed: {}",
+                        response.getPnr(), key, error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    // Polls the store until the request holding the key completes, fails, or the wait times out
+    private Mono<BookingResponse> awaitResult(String key, String fingerprint) {
+        return Mono.defer(() -> idempotencyRecordRepository.findById(key))
+                .switchIfEmpty(Mono.error(new IdempotencyConflictException(
+                        "The earlier request with this Idempotency-Key did not complete, retry it")))
+                .flatMap(record -> {
+                    if (!fingerprint.equals(record.getFingerprint())) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Idempotency-Key was already used for a different booking request"));
+                    }
+                    return record.getStatus() == IdempotencyStatus.COMPLETED
+                            ? Mono.just(record.getResponse())
+                            : Mono.<BookingResponse>empty();
+                })
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(pollIntervalMs)))
+                .timeout(Duration.ofMillis(waitTimeoutMs), Mono.error(new IdempotencyConflictException(
+                        "A request with this Idempotency-Key is still in progress")))
+                .doOnNext(response -> log.info("Replayed booking {} for Idempotency-Key {}", response.getPnr(), key));
+    }
+
+    private String fingerprint(String flightId, BookRequest request) throws JsonProcessingException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(flightId.getBytes(StandardCharsets.UTF_8));
+        digest.update(objectMapper.writeValueAsBytes(request));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
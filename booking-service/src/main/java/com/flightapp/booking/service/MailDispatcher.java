@@ -0,0 +1,152 @@
+package com.flightapp.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Bounded pool of SMTP senders. Each sender drains whatever is queued (up to batch-size) and sends it
+// over one SMTP connection, so a burst of confirmations does not pay a connect + handshake per message.
+// The queue is bounded: when it is full, submit() blocks the listener thread until a sender catches up.
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSize;
+    private BlockingQueue<PendingMail> queue;
+    private ExecutorService senders;
+    private volatile boolean running;
+
+    @Value("${email.sender.threads:4}")
+    private int threads;
+
+    @Value("${email.sender.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${email.sender.batch-size:20}")
+    private int maxBatchSize;
+
+    // Virtual threads need Java 21 and the service is built for 17; the property is refused rather than ignored
+    @Value("${email.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    public MailDispatcher(JavaMailSender mailSender, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder("booking.email.batch.size")
+                .description("Emails sent over one SMTP connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (virtualThreads) {
+            throw new IllegalStateException("email.virtual-threads.enabled is not supported: booking-service runs on "
+                    + "Java 17, which has no virtual threads. Remove the property and size the senders with "
+                    + "email.sender.threads and email.listener.max-concurrency instead.");
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gaugeCollectionSize("booking.email.queue.size", List.of(), queue);
+        running = true;
+        senders = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("email-sender-"));
+        for (int i = 0; i < threads; i++) {
+            senders.execute(this::sendLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (senders != null) {
+            senders.shutdown();
+            senders.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    public CompletableFuture<Void> submit(MimeMessage message) throws InterruptedException {
+        PendingMail pending = new PendingMail(message, new CompletableFuture<>(), System.nanoTime());
+        queue.put(pending);
+        return pending.result();
+    }
+
+    private void sendLoop() {
+        List<PendingMail> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMail first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingMail> batch) {
+        batchSize.record(batch.size());
+        MimeMessage[] messages = batch.stream().map(PendingMail::message).toArray(MimeMessage[]::new);
+        try {
+            mailSender.send(messages);
+            batch.forEach(pending -> complete(pending, null));
+        } catch (MailSendException e) {
+            // Per-message failures (e.g. rejected recipient) do not fail the rest of the batch
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                batch.forEach(pending -> complete(pending, e));
+            } else {
+                batch.forEach(pending -> complete(pending, failed.get(pending.message())));
+            }
+        } catch (Exception e) {
+            batch.forEach(pending -> complete(pending, e));
+        }
+    }
+
+    private void complete(PendingMail pending, Exception error) {
+        Timer.builder("booking.email.delivery")
+                .description("Time from queueing an email to the SMTP server accepting it")
+                .tag("outcome", error == null ? "sent" : "failed")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - pending.queuedAt(), TimeUnit.NANOSECONDS);
+        if (error == null) {
+            pending.result().complete(null);
+        } else {
+            pending.result().completeExceptionally(error);
+        }
+    }
+
+    private record PendingMail(MimeMessage message, CompletableFuture<Void> result, long queuedAt) {
+    }
+}
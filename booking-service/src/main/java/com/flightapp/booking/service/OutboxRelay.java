@@ -0,0 +1,171 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.client.FlightServiceWebClient;
+import com.flightapp.booking.constants.OutboxStatus;
+import com.flightapp.booking.entity.Booking;
+import com.flightapp.booking.entity.OutboxEvent;
+import com.flightapp.booking.repository.BookingRepository;
+import com.flightapp.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Drains booking_outbox to RabbitMQ. A row is only marked SENT after the broker confirms it,
+// so an event survives a broker outage and is published on a later run.
+// Each run first claims its batch IN_FLIGHT under a lease, so several instances can relay side by side
+// without publishing the same event twice; rows left by a relay that died are picked up once the lease ends.
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final Set<OutboxStatus> UNSENT = Set.of(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingEventPublisher bookingEventPublisher;
+    private final FlightServiceWebClient flightServiceClient;
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${outbox.draft-sweep.grace-ms:300000}")
+    private long draftGraceMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, BookingRepository bookingRepository,
+                       BookingEventPublisher bookingEventPublisher, FlightServiceWebClient flightServiceClient,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingEventPublisher = bookingEventPublisher;
+        this.flightServiceClient = flightServiceClient;
+        this.publishedEvents = Counter.builder("booking.outbox.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("booking.outbox.failed")
+                .description("Outbox publish attempts that were not confirmed")
+                .register(meterRegistry);
+        meterRegistry.gauge("booking.outbox.pending", pendingEvents);
+        meterRegistry.gauge("booking.outbox.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        relayBatch()
+                .doOnError(error -> log.error("Outbox relay failed: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    public Mono<Long> relayBatch() {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEventRepository.claim(owner, batchSize, now, now.plus(Duration.ofMillis(leaseMs)))
+                .collectList()
+                .filter(batch -> !batch.isEmpty())
+                .flatMap(batch -> bookingEventPublisher.publish(batch)
+                        .collect(Collectors.toSet())
+                        .flatMap(confirmed -> {
+                            List<String> unconfirmed = batch.stream()
+                                    .map(OutboxEvent::getId)
+                                    .filter(id -> !confirmed.contains(id))
+                                    .toList();
+                            publishedEvents.increment(confirmed.size());
+                            failedEvents.increment(unconfirmed.size());
+                            return outboxEventRepository.recordFailedAttempt(owner, unconfirmed)
+                                    .then(outboxEventRepository.markSent(owner, confirmed, LocalDateTime.now()));
+                        }))
+                .defaultIfEmpty(0L)
+                .flatMap(sent -> updateBacklogMetrics().thenReturn(sent));
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.draft-sweep.interval-ms:60000}")
+    public void sweepDrafts() {
+        sweepDraftBatch()
+                .doOnError(error -> log.error("Outbox draft sweep failed: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    // A new booking's event stays DRAFT until its hold is confirmed. One still DRAFT after the grace period
+    // is only published when the booking exists and its hold was confirmed. Otherwise the request stopped or
+    // failed part way: the booking is deleted, its hold given back and the draft dropped. A draft whose hold
+    // cannot be looked up is left for the next sweep. Returns the number of drafts released for publishing.
+    public Mono<Long> sweepDraftBatch() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(Duration.ofMillis(draftGraceMs));
+        return outboxEventRepository.findByStatusAndCreatedAtBefore(OutboxStatus.DRAFT, createdBefore,
+                        PageRequest.of(0, batchSize))
+                .filterWhen(draft -> bookingRepository.findByPnr(draft.getPnr())
+                        .flatMap(booking -> holdConfirmed(draft)
+                                .flatMap(confirmed -> confirmed ? Mono.just(true) : discardBooking(draft, booking)))
+                        .switchIfEmpty(Mono.defer(() -> discardDraft(draft)))
+                        .doOnError(error -> log.warn("Draft for PNR {} left for the next sweep: {}",
+                                draft.getPnr(), error.getMessage()))
+                        .onErrorResume(error -> Mono.just(false)))
+                .map(OutboxEvent::getId)
+                .collectList()
+                .flatMap(outboxEventRepository::markPending)
+                .doOnNext(released -> {
+                    if (released > 0) {
+                        log.warn("Released {} booking event(s) left in draft", released);
+                    }
+                });
+    }
+
+    // Drafts written before holds were recorded on them are published as long as the booking exists
+    private Mono<Boolean> holdConfirmed(OutboxEvent draft) {
+        if (draft.getHoldId() == null) {
+            return Mono.just(true);
+        }
+        return flightServiceClient.getHold(draft.getHoldId())
+                .map(hold -> "CONFIRMED".equals(hold.getStatus()))
+                .onErrorResume(WebClientResponseException.NotFound.class, missing -> Mono.just(false));
+    }
+
+    private Mono<Boolean> discardBooking(OutboxEvent draft, Booking booking) {
+        log.warn("Discarding booking {}: its seat hold {} was never confirmed", draft.getPnr(), draft.getHoldId());
+        return bookingRepository.delete(booking)
+                .then(Mono.defer(() -> discardDraft(draft)));
+    }
+
+    // The hold goes back before the draft is dropped, so a failure leaves the draft to retry it
+    private Mono<Boolean> discardDraft(OutboxEvent draft) {
+        Mono<Void> hold = draft.getHoldId() == null
+                ? Mono.empty()
+                : flightServiceClient.compensateHold(draft.getHoldId(), draft.getPnr())
+                        .onErrorResume(WebClientResponseException.NotFound.class, missing -> Mono.empty())
+                        .then();
+        return hold.then(Mono.defer(() -> outboxEventRepository.delete(draft)))
+                .thenReturn(false);
+    }
+
+    private Mono<Void> updateBacklogMetrics() {
+        return outboxEventRepository.countByStatusIn(UNSENT)
+                .doOnNext(pendingEvents::set)
+                .then(outboxEventRepository.findFirstByStatusInOrderByCreatedAtAsc(UNSENT)
+                        .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                        .defaultIfEmpty(0L)
+                        .doOnNext(lagSeconds::set))
+                .then();
+    }
+}
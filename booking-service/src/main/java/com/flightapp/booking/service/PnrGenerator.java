@@ -0,0 +1,85 @@
+package com.flightapp.booking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// PNR = "PNR" + 13 Crockford base32 chars of a 63-bit id: 41 bits of milliseconds since 2024-01-01,
+// 10 bits of node id and 12 bits of sequence. Ids from one node are strictly increasing, and fixed-width
+// encoding keeps them time-ordered as strings. Uniqueness across instances needs distinct node ids.
+@Component
+@Slf4j
+public class PnrGenerator {
+
+    private static final long EPOCH_MS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final String PREFIX = "PNR";
+    private static final int ENCODED_LENGTH = 13;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong lastTick = new AtomicLong();
+
+    @Value("${booking.pnr.node-id:-1}")
+    private long nodeId;
+
+    @Value("${server.port:8082}")
+    private int serverPort;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0) {
+            nodeId = derivedNodeId();
+            log.warn("booking.pnr.node-id is not set, using {} derived from host and port. "
+                    + "Set a distinct node id per instance to rule out PNR clashes.", nodeId);
+        }
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("booking.pnr.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    public String nextPnr() {
+        long tick = nextTick();
+        long id = ((tick >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | (tick & ((1L << SEQUENCE_BITS) - 1));
+
+        char[] pnr = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), pnr, 0);
+        for (int i = pnr.length - 1; i >= PREFIX.length(); i--) {
+            pnr[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(pnr);
+    }
+
+    // Lock-free: takes the current millisecond, or the next sequence if this millisecond (or a later one,
+    // after the clock stepped back) is already in use. A full sequence simply carries into the next tick.
+    private long nextTick() {
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastTick.get();
+            long next = Math.max(now, last + 1);
+            if (lastTick.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long derivedNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return ((host + ":" + serverPort).hashCode() & Integer.MAX_VALUE) % (MAX_NODE_ID + 1);
+    }
+}
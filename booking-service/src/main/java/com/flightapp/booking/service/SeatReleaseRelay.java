@@ -0,0 +1,152 @@
+package com.flightapp.booking.service;
+
+import com.flightapp.booking.client.FlightServiceWebClient;
+import com.flightapp.booking.constants.SeatReleaseStatus;
+import com.flightapp.booking.entity.SeatRelease;
+import com.flightapp.booking.repository.SeatReleaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Returns seats freed by cancellations to flight-service. Each run collects the cancellations recorded since
+// the last one, claims them per flight under a fresh releaseId and sends one increment per flight.
+// Claimed rows stay in booking_seat_releases until flight-service accepts them, under a lease held by the run
+// that claimed them. Once the lease passes, another run takes the batch over and resends it, so a restart or an
+// outage only delays the release; flight-service applies a releaseId once, so resending a batch is safe.
+@Component
+@Slf4j
+public class SeatReleaseRelay {
+
+    private static final Set<SeatReleaseStatus> UNRELEASED = Set.of(SeatReleaseStatus.PENDING, SeatReleaseStatus.CLAIMED);
+
+    private final SeatReleaseRepository seatReleaseRepository;
+    private final FlightServiceWebClient flightServiceClient;
+    private final Timer releaseLag;
+    private final DistributionSummary releaseBatchSize;
+    private final Counter releasedSeats;
+    private final Counter failedReleases;
+    private final AtomicLong pendingReleases = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    @Value("${seat-release.batch-size:500}")
+    private int batchSize;
+
+    @Value("${seat-release.max-concurrent-flights:8}")
+    private int maxConcurrentFlights;
+
+    @Value("${seat-release.lease-ms:30000}")
+    private long leaseMs;
+
+    public SeatReleaseRelay(SeatReleaseRepository seatReleaseRepository, FlightServiceWebClient flightServiceClient,
+                            MeterRegistry meterRegistry) {
+        this.seatReleaseRepository = seatReleaseRepository;
+        this.flightServiceClient = flightServiceClient;
+        this.releaseLag = Timer.builder("booking.seat.release.lag")
+                .description("Time from cancellation until its seats were returned to flight-service")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.releaseBatchSize = DistributionSummary.builder("booking.seat.release.batch.size")
+                .description("Cancellations folded into one seat increment")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.releasedSeats = Counter.builder("booking.seat.release.seats")
+                .description("Seats returned to flight-service")
+                .register(meterRegistry);
+        this.failedReleases = Counter.builder("booking.seat.release.failed")
+                .description("Cancellations whose seats flight-service refused to take back")
+                .register(meterRegistry);
+        meterRegistry.gauge("booking.seat.release.pending", pendingReleases);
+        meterRegistry.gauge("booking.seat.release.oldest.seconds", oldestPendingSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${seat-release.interval-ms:2000}")
+    public void relay() {
+        relayBatch()
+                .doOnError(error -> log.error("Seat release relay failed: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    // Returns the number of cancellations whose seats were released in this run
+    public Mono<Long> relayBatch() {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiresAt = now.plus(Duration.ofMillis(leaseMs));
+        return claimPending(owner, leaseExpiresAt)
+                .then(seatReleaseRepository.takeOver(owner, batchSize, now, leaseExpiresAt))
+                .thenMany(seatReleaseRepository.findByOwnerAndStatus(owner, SeatReleaseStatus.CLAIMED))
+                .collect(Collectors.groupingBy(SeatRelease::getReleaseId))
+                .flatMapMany(batches -> Flux.fromIterable(batches.values()))
+                .flatMap(this::release, maxConcurrentFlights)
+                .reduce(0L, Long::sum)
+                .flatMap(released -> updateBacklogMetrics().thenReturn(released));
+    }
+
+    private Mono<Void> claimPending(String owner, LocalDateTime leaseExpiresAt) {
+        return seatReleaseRepository.findByStatusOrderByCreatedAtAsc(SeatReleaseStatus.PENDING, PageRequest.of(0, batchSize))
+                .collect(Collectors.groupingBy(SeatRelease::getFlightId,
+                        Collectors.mapping(SeatRelease::getId, Collectors.toList())))
+                .flatMapMany(byFlight -> Flux.fromIterable(byFlight.values()))
+                .concatMap(ids -> seatReleaseRepository.claim(ids, UUID.randomUUID().toString(), owner, leaseExpiresAt))
+                .then();
+    }
+
+    private Mono<Long> release(List<SeatRelease> batch) {
+        String flightId = batch.get(0).getFlightId();
+        String releaseId = batch.get(0).getReleaseId();
+        int seats = batch.stream().mapToInt(SeatRelease::getSeats).sum();
+
+        return flightServiceClient.releaseSeats(flightId, seats, releaseId)
+                .then(Mono.defer(() -> seatReleaseRepository.markReleased(releaseId, LocalDateTime.now())))
+                .doOnNext(released -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    batch.forEach(release -> releaseLag.record(Duration.between(release.getCreatedAt(), now)));
+                    releaseBatchSize.record(batch.size());
+                    releasedSeats.increment(seats);
+                    log.info("Released {} seats on flight {} for {} cancellation(s)", seats, flightId, batch.size());
+                })
+                .onErrorResume(error -> {
+                    if (isPermanent(error)) {
+                        log.error("flight-service refused release {} of {} seats on flight {}: {}",
+                                releaseId, seats, flightId, error.getMessage());
+                        failedReleases.increment(batch.size());
+                        return seatReleaseRepository.markFailed(releaseId).thenReturn(0L);
+                    }
+                    log.warn("Seat release {} for flight {} will be retried once its lease ends: {}",
+                            releaseId, flightId, error.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    // The flight is gone or the seats would exceed its capacity; resending the same batch cannot succeed
+    private boolean isPermanent(Throwable error) {
+        return error instanceof IllegalArgumentException || error instanceof WebClientResponseException.NotFound;
+    }
+
+    private Mono<Void> updateBacklogMetrics() {
+        return seatReleaseRepository.countByStatusIn(UNRELEASED)
+                .doOnNext(pendingReleases::set)
+                .then(seatReleaseRepository.findFirstByStatusInOrderByCreatedAtAsc(UNRELEASED)
+                        .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                        .defaultIfEmpty(0L)
+                        .doOnNext(oldestPendingSeconds::set))
+                .then();
+    }
+}
@@ -0,0 +1,134 @@
+package com.flightapp.flight.cache;
+
+import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.entity.FlightInventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightSearchCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FlightSearchCache flightSearchCache;
+    private FlightSearchRequest searchRequest;
+    private FlightInventory flight1;
+    private FlightInventory flight2;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flightSearchCache = new FlightSearchCache(100, 60, meterRegistry);
+
+        LocalDate journeyDate = LocalDate.now().plusDays(1);
+        searchRequest = FlightSearchRequest.builder()
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .journeyDate(journeyDate)
+                .build();
+
+        flight1 = flight("flight123", journeyDate.atTime(9, 0), 180);
+        flight2 = flight("flight456", journeyDate.atTime(18, 0), 50);
+    }
+
+    @Test
+    void testPutAndGet() {
+        put(searchRequest, List.of(flight1, flight2));
+
+        assertEquals(List.of(flight1, flight2), flightSearchCache.getIfPresent(searchRequest).orElseThrow());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "flightSearch").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testInvalidate_OnlyAffectsRouteDay() {
+        FlightSearchRequest otherDay = FlightSearchRequest.builder()
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .journeyDate(searchRequest.getJourneyDate().plusDays(1))
+                .build();
+        put(searchRequest, List.of(flight1));
+        put(otherDay, List.of());
+
+        flightSearchCache.invalidate(flight2);
+
+        assertTrue(flightSearchCache.getIfPresent(searchRequest).isEmpty());
+        assertTrue(flightSearchCache.getIfPresent(otherDay).isPresent());
+    }
+
+    @Test
+    void testApplySeatUpdate_PatchesFlight() {
+        put(searchRequest, List.of(flight1, flight2));
+        FlightInventory updated = flight("flight456", flight2.getDepartureDateTime(), 48);
+
+        flightSearchCache.applySeatUpdate(updated);
+
+        List<FlightInventory> cached = flightSearchCache.getIfPresent(searchRequest).orElseThrow();
+        assertEquals(2, cached.size());
+        assertEquals(48, cached.get(1).getAvailableSeats());
+    }
+
+    @Test
+    void testApplySeatUpdate_RemovesSoldOutFlight() {
+        put(searchRequest, List.of(flight1, flight2));
+        FlightInventory soldOut = flight("flight456", flight2.getDepartureDateTime(), 0);
+
+        flightSearchCache.applySeatUpdate(soldOut);
+
+        assertEquals(List.of(flight1), flightSearchCache.getIfPresent(searchRequest).orElseThrow());
+    }
+
+    @Test
+    void testApplySeatUpdate_DropsEntryWhenFlightReturns() {
+        put(searchRequest, List.of(flight1));
+
+        flightSearchCache.applySeatUpdate(flight2);
+
+        assertTrue(flightSearchCache.getIfPresent(searchRequest).isEmpty());
+    }
+
+    @Test
+    void testPut_SkippedWhenSeatUpdateArrivedDuringSearch() {
+        put(searchRequest, List.of(flight1));
+        long generation = flightSearchCache.generation(searchRequest);
+
+        flightSearchCache.applySeatUpdate(flight("flight123", flight1.getDepartureDateTime(), 170));
+        flightSearchCache.put(searchRequest, List.of(flight1), generation);
+
+        assertEquals(170, flightSearchCache.getIfPresent(searchRequest).orElseThrow().get(0).getAvailableSeats());
+    }
+
+    @Test
+    void testPut_SkippedWhenInvalidatedDuringSearch() {
+        long generation = flightSearchCache.generation(searchRequest);
+
+        flightSearchCache.invalidate(flight2);
+        flightSearchCache.put(searchRequest, List.of(flight1), generation);
+
+        assertTrue(flightSearchCache.getIfPresent(searchRequest).isEmpty());
+    }
+
+    private void put(FlightSearchRequest request, List<FlightInventory> flights) {
+        flightSearchCache.put(request, flights, flightSearchCache.generation(request));
+    }
+
+    private FlightInventory flight(String id, LocalDateTime departure, int availableSeats) {
+        return FlightInventory.builder()
+                .id(id)
+                .flightNumber("AI" + id.hashCode())
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .departureDateTime(departure)
+                .arrivalDateTime(departure.plusHours(2))
+                .totalSeats(180)
+                .availableSeats(availableSeats)
+                .flightStatus(FlightStatus.ACTIVE)
+                .build();
+    }
+}
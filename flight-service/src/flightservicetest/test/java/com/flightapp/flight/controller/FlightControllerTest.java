@@ -1,11 +1,14 @@
 package com.flightapp.flight.controller;
 
 import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.FlightSearchPage;
 import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.dto.InventoryBatchResult;
 import com.flightapp.flight.dto.InventoryRequest;
 import com.flightapp.flight.entity.FlightInventory;
 import com.flightapp.flight.exception.FlightNotFoundException;
 import com.flightapp.flight.service.FlightService;
+import com.flightapp.flight.service.SeatEscrowService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,6 +36,9 @@ class FlightControllerTest {
     @MockBean
     private FlightService flightService;
 
+    @MockBean
+    private SeatEscrowService seatEscrowService;
+
     private InventoryRequest inventoryRequest;
     private FlightInventory flightInventory;
     private FlightSearchRequest searchRequest;
@@ -96,11 +103,83 @@ class FlightControllerTest {
                 });
     }
 
+    @Test
+    void testAddInventoryBulk_Success() {
+        // Arrange
+        InventoryBatchResult batchResult = InventoryBatchResult.builder()
+                .batchNumber(1L)
+                .received(2)
+                .inserted(2)
+                .failed(0)
+                .errors(List.of())
+                .build();
+        when(flightService.addInventoryBulk(any())).thenReturn(Flux.just(batchResult));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/inventory/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just(inventoryRequest, inventoryRequest), InventoryRequest.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(InventoryBatchResult.class)
+                .value(results -> {
+                    assert results.size() == 1;
+                    assert results.get(0).getInserted() == 2;
+                });
+    }
+
+    @Test
+    void testAddInventory_InvalidRequest() {
+        // Arrange
+        inventoryRequest.setTotalSeats(null);
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/inventory")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(inventoryRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Total seats is required");
+    }
+
+    @Test
+    void testAddInventoryBulk_PassesLinesThrough() {
+        // Arrange
+        when(flightService.addInventoryBulk(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                .collectList()
+                .map(lines -> InventoryBatchResult.builder()
+                        .batchNumber(1L)
+                        .received(lines.size())
+                        .errors(lines)
+                        .build())
+                .flux());
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/inventory/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"airline\":\"Air India\"}\n{not json\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(InventoryBatchResult.class)
+                .value(results -> {
+                    assert results.get(0).getReceived() == 2;
+                    assert results.get(0).getErrors().get(1).equals("{not json");
+                });
+    }
+
     @Test
     void testSearchFlights_Success() {
         // Arrange
-        when(flightService.searchFlights(any(FlightSearchRequest.class)))
-                .thenReturn(Flux.just(flightInventory, flightInventory));
+        when(flightService.searchFlightsPage(any(FlightSearchRequest.class)))
+                .thenReturn(Mono.just(FlightSearchPage.builder()
+                        .flights(List.of(flightInventory, flightInventory))
+                        .build()));
 
         // Act & Assert
         webTestClient.post()
@@ -109,15 +188,57 @@ class FlightControllerTest {
                 .bodyValue(searchRequest)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor")
                 .expectBodyList(FlightInventory.class)
                 .hasSize(2);
     }
 
     @Test
-    void testSearchFlights_NoResults() {
+    void testSearchFlights_NextCursorHeader() {
+        // Arrange
+        when(flightService.searchFlightsPage(any(FlightSearchRequest.class)))
+                .thenReturn(Mono.just(FlightSearchPage.builder()
+                        .flights(List.of(flightInventory))
+                        .nextCursor("next-page")
+                        .build()));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(searchRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "next-page")
+                .expectBodyList(FlightInventory.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void testSearchFlights_Streaming() {
         // Arrange
         when(flightService.searchFlights(any(FlightSearchRequest.class)))
-                .thenReturn(Flux.empty());
+                .thenReturn(Flux.just(flightInventory, flightInventory, flightInventory));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(searchRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(FlightInventory.class)
+                .hasSize(3);
+    }
+
+    @Test
+    void testSearchFlights_NoResults() {
+        // Arrange
+        when(flightService.searchFlightsPage(any(FlightSearchRequest.class)))
+                .thenReturn(Mono.just(FlightSearchPage.builder().flights(List.of()).build()));
 
         // Act & Assert
         webTestClient.post()
@@ -216,4 +337,55 @@ class FlightControllerTest {
                 .exchange()
                 .expectStatus().isBadRequest();
     }
+
+    @Test
+    void testReleaseSeats_Success() {
+        // Arrange
+        FlightInventory updatedFlight = FlightInventory.builder()
+                .id("flight123")
+                .totalSeats(180)
+                .availableSeats(120)
+                .recentReleaseIds(List.of("release-1"))
+                .build();
+
+        when(flightService.releaseSeats("flight123", 4, "release-1")).thenReturn(Mono.just(updatedFlight));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/v1/flight/flight123/seats/release?seats=4&releaseId=release-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.availableSeats").isEqualTo(120)
+                .jsonPath("$.recentReleaseIds").doesNotExist();
+    }
+
+    @Test
+    void testEnableSeatEscrow_Success() {
+        // Arrange
+        flightInventory.setEscrowBuckets(8);
+        when(seatEscrowService.enableEscrow("flight123")).thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/v1/flight/flight123/escrow")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.escrowBuckets").isEqualTo(8)
+                .jsonPath("$.availableSeats").isEqualTo(flightInventory.getAvailableSeats());
+    }
+
+    @Test
+    void testEnableSeatEscrow_FlightNotFound() {
+        // Arrange
+        when(seatEscrowService.enableEscrow("INVALID"))
+                .thenReturn(Mono.error(new FlightNotFoundException("Flight not found")));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/v1/flight/INVALID/escrow")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
 }
@@ -0,0 +1,118 @@
+package com.flightapp.flight.controller;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.dto.SeatHoldBatchResult;
+import com.flightapp.flight.dto.SeatHoldResponse;
+import com.flightapp.flight.exception.SeatHoldNotFoundException;
+import com.flightapp.flight.service.SeatHoldService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest({SeatHoldController.class, InternalSeatHoldController.class})
+class SeatHoldControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private SeatHoldService seatHoldService;
+
+    private SeatHoldResponse holdResponse;
+
+    @BeforeEach
+    void setUp() {
+        holdResponse = SeatHoldResponse.builder()
+                .holdId("hold123")
+                .flightId("flight123")
+                .seats(2)
+                .status(HoldStatus.HELD)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+    }
+
+    @Test
+    void testCreateHold_Success() {
+        // Arrange
+        when(seatHoldService.createHold("flight123", 2)).thenReturn(Mono.just(holdResponse));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/flight123/holds?seats=2")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.holdId").isEqualTo("hold123")
+                .jsonPath("$.status").isEqualTo("HELD");
+    }
+
+    @Test
+    void testConfirmHold_Expired() {
+        // Arrange
+        when(seatHoldService.confirmHold("hold123", "PNR12345678"))
+                .thenReturn(Mono.error(new IllegalArgumentException("Seat hold is no longer active")));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/v1/flight/holds/hold123/confirm?pnr=PNR12345678")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testReleaseHold_NotFound() {
+        // Arrange
+        when(seatHoldService.releaseHold("INVALID"))
+                .thenReturn(Mono.error(new SeatHoldNotFoundException("Seat hold not found")));
+
+        // Act & Assert
+        webTestClient.delete()
+                .uri("/api/v1/flight/holds/INVALID")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCompensateHold_ReturnsReleasedHold() {
+        // Arrange
+        holdResponse.setStatus(HoldStatus.RELEASED);
+        when(seatHoldService.compensateHold("hold123", "PNR12345678")).thenReturn(Mono.just(holdResponse));
+
+        // Act & Assert
+        webTestClient.put()
+                .uri("/api/v1/internal/holds/hold123/compensate?pnr=PNR12345678")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("RELEASED");
+    }
+
+    @Test
+    void testCreateHolds_ReturnsResultPerRequest() {
+        // Arrange
+        when(seatHoldService.createHolds("flight123", List.of(2, 300))).thenReturn(Flux.just(
+                SeatHoldBatchResult.builder().seats(2).status(201).hold(holdResponse).build(),
+                SeatHoldBatchResult.builder().seats(300).status(400).error("Not enough available seats").build()));
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/flight/flight123/holds/batch")
+                .bodyValue(List.of(2, 300))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].hold.holdId").isEqualTo("hold123")
+                .jsonPath("$[1].status").isEqualTo(400)
+                .jsonPath("$[1].error").isEqualTo("Not enough available seats");
+    }
+}
@@ -0,0 +1,143 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.SearchCursor;
+import com.flightapp.flight.entity.FlightInventory;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightInventoryRepositoryCustomImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private FlightInventoryRepositoryCustomImpl repository;
+
+    @Test
+    void testSearchAvailableFlights_PushesStatusAndSeatPredicates() {
+        // Arrange
+        LocalDate journeyDate = LocalDate.now().plusDays(1);
+        when(mongoTemplate.find(any(Query.class), eq(FlightInventory.class))).thenReturn(Flux.empty());
+
+        // Act
+        StepVerifier.create(repository.searchAvailableFlights("Delhi", "Mumbai",
+                        journeyDate.atStartOfDay(), journeyDate.atTime(23, 59), null, 0))
+                .verifyComplete();
+
+        // Assert
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(FlightInventory.class));
+        Document criteria = captor.getValue().getQueryObject();
+        assertEquals("Delhi", criteria.get("fromPlace"));
+        assertEquals("Mumbai", criteria.get("toPlace"));
+        assertEquals(FlightStatus.ACTIVE, criteria.get("flightStatus"));
+        assertTrue(criteria.containsKey("departureDateTime"));
+        assertEquals(new Document("recentReleaseIds", 0), captor.getValue().getFieldsObject());
+        List<?> predicates = criteria.getList("$and", Document.class);
+        assertEquals(1, predicates.size());
+        assertEquals(List.of(new Document("availableSeats", new Document("$gt", 0)),
+                        new Document("escrowBuckets", new Document("$gt", 0))),
+                ((Document) predicates.get(0)).get("$or"));
+        assertEquals(new Document("departureDateTime", 1).append("id", 1), captor.getValue().getSortObject());
+    }
+
+    @Test
+    void testSearchAvailableFlights_ResumesAfterCursor() {
+        // Arrange
+        LocalDate journeyDate = LocalDate.now().plusDays(1);
+        SearchCursor after = new SearchCursor(journeyDate.atTime(9, 0), "flight123");
+        when(mongoTemplate.find(any(Query.class), eq(FlightInventory.class))).thenReturn(Flux.empty());
+
+        // Act
+        StepVerifier.create(repository.searchAvailableFlights("Delhi", "Mumbai",
+                        journeyDate.atStartOfDay(), journeyDate.atTime(23, 59), after, 11))
+                .verifyComplete();
+
+        // Assert
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(FlightInventory.class));
+        assertEquals(2, captor.getValue().getQueryObject().getList("$and", Document.class).size());
+        assertEquals(11, captor.getValue().getLimit());
+    }
+
+    @Test
+    void testDecrementAvailableSeats_GuardsAndDecrementsAtomically() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(AggregationUpdate.class),
+                any(FindAndModifyOptions.class), eq(FlightInventory.class)))
+                .thenReturn(Mono.just(new FlightInventory()));
+
+        // Act
+        StepVerifier.create(repository.decrementAvailableSeats("flight123", 2))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Assert: enough seats, or an escrowed flight that comes back unchanged
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(FlightInventory.class));
+        assertEquals(List.of(new Document("availableSeats", new Document("$gte", 2)),
+                        new Document("escrowBuckets", new Document("$gt", 0))),
+                query.getValue().getQueryObject().get("$or"));
+        Document set = update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set", Document.class);
+        Document cond = set.get("availableSeats", Document.class).get("$cond", Document.class);
+        assertEquals("$availableSeats", cond.get("then"));
+        assertEquals(new Document("$subtract", List.of("$availableSeats", 2)), cond.get("else"));
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    void testIncrementAvailableSeats_WithReleaseIdAppliesOnce() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(FlightInventory.class)))
+                .thenReturn(Mono.just(new FlightInventory()));
+
+        // Act
+        StepVerifier.create(repository.incrementAvailableSeats("flight123", 3, "release-1"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(FlightInventory.class));
+        assertEquals(new Document("$ne", "release-1"), query.getValue().getQueryObject().get("recentReleaseIds"));
+        assertNull(query.getValue().getQueryObject().get("escrowBuckets"));
+        assertEquals(new Document("availableSeats", 3), update.getValue().getUpdateObject().get("$inc"));
+        Update.Modifiers push = (Update.Modifiers) update.getValue().getUpdateObject()
+                .get("$push", Document.class).get("recentReleaseIds");
+        assertEquals(Set.of("$each", "$slice"), push.getModifiers().stream()
+                .map(Update.Modifier::getKey).collect(Collectors.toSet()));
+    }
+}
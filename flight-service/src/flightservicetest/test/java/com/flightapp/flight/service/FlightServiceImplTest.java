@@ -1,23 +1,37 @@
 package com.flightapp.flight.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.flight.cache.FlightSearchCache;
 import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.FlightSearchPage;
 import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.dto.InventoryBatchResult;
 import com.flightapp.flight.dto.InventoryRequest;
+import com.flightapp.flight.dto.SearchCursor;
 import com.flightapp.flight.entity.FlightInventory;
 import com.flightapp.flight.exception.FlightNotFoundException;
 import com.flightapp.flight.repository.FlightInventoryRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +43,18 @@ class FlightServiceImplTest {
     @Mock
     private FlightInventoryRepository flightInventoryRepository;
 
+    @Mock
+    private FlightSearchCache flightSearchCache;
+
+    @Mock
+    private SeatEscrowService seatEscrowService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private FlightServiceImpl flightService;
 
@@ -38,6 +64,12 @@ class FlightServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(flightService, "bulkBatchSize", 2);
+        ReflectionTestUtils.setField(flightService, "defaultPageSize", 1);
+        ReflectionTestUtils.setField(flightService, "maxPageSize", 10);
+        lenient().when(seatEscrowService.withEscrowTotals(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<FlightInventory>>getArgument(0)));
+
         // Setup Inventory Request
         inventoryRequest = InventoryRequest.builder()
                 .airline("Air India")
@@ -101,6 +133,108 @@ class FlightServiceImplTest {
                 .verifyComplete();
 
         verify(flightInventoryRepository).save(any(FlightInventory.class));
+        verify(flightSearchCache).invalidate(flightInventory);
+    }
+
+    private String json(InventoryRequest request) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Test
+    void testAddInventoryBulk_WritesInBatches() throws JsonProcessingException {
+        // Arrange
+        String line = json(inventoryRequest);
+        when(flightInventoryRepository.insertUnordered(anyList()))
+                .thenAnswer(invocation -> Mono.just(BulkWriteResult.acknowledged(
+                        invocation.<List<FlightInventory>>getArgument(0).size(), 0, 0, 0, List.of(), List.of())));
+
+        // Act
+        Flux<InventoryBatchResult> result = flightService.addInventoryBulk(Flux.just(line, line, line));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(batch -> {
+                    assertEquals(1L, batch.getBatchNumber());
+                    assertEquals(2, batch.getReceived());
+                    assertEquals(2, batch.getInserted());
+                    assertEquals(0, batch.getFailed());
+                })
+                .assertNext(batch -> {
+                    assertEquals(2L, batch.getBatchNumber());
+                    assertEquals(1, batch.getReceived());
+                    assertEquals(1, batch.getInserted());
+                })
+                .verifyComplete();
+
+        verify(flightInventoryRepository, times(2)).insertUnordered(anyList());
+        verify(flightInventoryRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddInventoryBulk_ReadsAheadOneBatch() throws JsonProcessingException {
+        // Arrange: the first batch never finishes writing
+        String line = json(inventoryRequest);
+        AtomicInteger read = new AtomicInteger();
+        when(flightInventoryRepository.insertUnordered(anyList())).thenReturn(Mono.never());
+
+        // Act
+        flightService.addInventoryBulk(Flux.range(0, 100).map(i -> line).doOnNext(l -> read.incrementAndGet()))
+                .subscribe()
+                .dispose();
+
+        // Assert: the batch being written and one queued behind it, two lines each
+        assertTrue(read.get() <= 4);
+        verify(flightInventoryRepository, times(1)).insertUnordered(anyList());
+    }
+
+    @Test
+    void testAddInventoryBulk_ReportsMalformedAndInvalidLines() throws JsonProcessingException {
+        // Arrange
+        String valid = json(inventoryRequest);
+        inventoryRequest.setTotalSeats(0);
+        inventoryRequest.setFromPlace(" ");
+        String invalid = json(inventoryRequest);
+        when(flightInventoryRepository.insertUnordered(anyList()))
+                .thenAnswer(invocation -> Mono.just(BulkWriteResult.acknowledged(
+                        invocation.<List<FlightInventory>>getArgument(0).size(), 0, 0, 0, List.of(), List.of())));
+
+        // Act
+        Flux<InventoryBatchResult> result = flightService.addInventoryBulk(
+                Flux.just(valid, "{\"airline\": \"Air", "", invalid, valid));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(batch -> {
+                    assertEquals(2, batch.getReceived());
+                    assertEquals(1, batch.getInserted());
+                    assertEquals(1, batch.getFailed());
+                    assertEquals(1, batch.getErrors().size());
+                    assertTrue(batch.getErrors().get(0).startsWith("Line 2: malformed JSON"));
+                })
+                .assertNext(batch -> {
+                    assertEquals(2, batch.getReceived());
+                    assertEquals(1, batch.getInserted());
+                    assertEquals(List.of("Line 4: From place is required, Total seats must be greater than zero"),
+                            batch.getErrors());
+                })
+                .verifyComplete();
+
+        verify(flightInventoryRepository, times(2)).insertUnordered(argThat(flights -> flights.size() == 1));
+    }
+
+    @Test
+    void testAddInventoryBulk_PropagatesStorageFailure() throws JsonProcessingException {
+        // Arrange
+        when(flightInventoryRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.error(new RuntimeException("Mongo unavailable")));
+
+        // Act
+        Flux<InventoryBatchResult> result = flightService.addInventoryBulk(Flux.just(json(inventoryRequest)));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(RuntimeException.class)
+                .verify();
     }
 
     @Test
@@ -109,8 +243,8 @@ class FlightServiceImplTest {
         LocalDateTime startOfDay = searchRequest.getJourneyDate().atStartOfDay();
         LocalDateTime endOfDay = searchRequest.getJourneyDate().atTime(23, 59, 59, 999999999);
 
-        when(flightInventoryRepository.findByFromPlaceAndToPlaceAndDepartureDateTimeBetween(
-                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(0)))
                 .thenReturn(Flux.just(flightInventory));
 
         // Act
@@ -128,66 +262,127 @@ class FlightServiceImplTest {
                 })
                 .verifyComplete();
 
-        verify(flightInventoryRepository).findByFromPlaceAndToPlaceAndDepartureDateTimeBetween(
-                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(flightInventoryRepository).searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(0));
+        verify(flightSearchCache).put(eq(searchRequest), eq(List.of(flightInventory)), anyLong());
     }
 
     @Test
-    void testSearchFlights_FiltersInactiveFlights() {
+    void testSearchFlights_CacheHit() {
         // Arrange
-        FlightInventory inactiveFlight = FlightInventory.builder()
-                .id("flight456")
-                .airline("Air India")
-                .flightNumber("AI102")
-                .fromPlace("Delhi")
-                .toPlace("Mumbai")
-                .departureDateTime(LocalDateTime.now().plusDays(1))
-                .arrivalDateTime(LocalDateTime.now().plusDays(1).plusHours(2))
-                .totalSeats(180)
-                .availableSeats(100)
-                .flightStatus(FlightStatus.CANCELLED)
-                .build();
-
-        when(flightInventoryRepository.findByFromPlaceAndToPlaceAndDepartureDateTimeBetween(
-                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(Flux.just(flightInventory, inactiveFlight));
+        when(flightSearchCache.getIfPresent(searchRequest)).thenReturn(Optional.of(List.of(flightInventory)));
 
         // Act
         Flux<FlightInventory> result = flightService.searchFlights(searchRequest);
 
         // Assert
         StepVerifier.create(result)
-                .expectNextCount(1) // Only active flight should be returned
+                .expectNext(flightInventory)
                 .verifyComplete();
+
+        verifyNoInteractions(flightInventoryRepository);
     }
 
     @Test
-    void testSearchFlights_FiltersFullFlights() {
+    void testSearchFlightsPage_ReturnsNextCursor() {
         // Arrange
-        FlightInventory fullFlight = FlightInventory.builder()
+        searchRequest.setLimit(1);
+        FlightInventory laterFlight = FlightInventory.builder()
                 .id("flight456")
-                .airline("Air India")
                 .flightNumber("AI102")
                 .fromPlace("Delhi")
                 .toPlace("Mumbai")
-                .departureDateTime(LocalDateTime.now().plusDays(1))
-                .arrivalDateTime(LocalDateTime.now().plusDays(1).plusHours(2))
-                .totalSeats(180)
-                .availableSeats(0) // No available seats
+                .departureDateTime(flightInventory.getDepartureDateTime().plusHours(3))
+                .availableSeats(20)
                 .flightStatus(FlightStatus.ACTIVE)
                 .build();
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(2)))
+                .thenReturn(Flux.just(flightInventory, laterFlight));
+
+        // Act
+        Mono<FlightSearchPage> result = flightService.searchFlightsPage(searchRequest);
 
-        when(flightInventoryRepository.findByFromPlaceAndToPlaceAndDepartureDateTimeBetween(
-                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(Flux.just(flightInventory, fullFlight));
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(page -> {
+                    assertEquals(List.of(flightInventory), page.getFlights());
+                    SearchCursor cursor = SearchCursor.decode(page.getNextCursor());
+                    assertEquals("flight123", cursor.getId());
+                    assertEquals(flightInventory.getDepartureDateTime(), cursor.getDepartureDateTime());
+                })
+                .verifyComplete();
+
+        // A truncated first page is not the whole route-day, so it must not be cached
+        verify(flightSearchCache, never()).put(any(), anyList(), anyLong());
+    }
+
+    @Test
+    void testSearchFlightsPage_WithoutLimitOrCursorReturnsWholeDay() {
+        // Arrange
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(0)))
+                .thenReturn(Flux.just(flightInventory));
+        when(flightSearchCache.generation(searchRequest)).thenReturn(1L);
+
+        // Act & Assert
+        StepVerifier.create(flightService.searchFlightsPage(searchRequest))
+                .assertNext(page -> {
+                    assertEquals(List.of(flightInventory), page.getFlights());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+
+        verify(flightSearchCache).put(searchRequest, List.of(flightInventory), 1L);
+    }
+
+    @Test
+    void testSearchFlightsPage_CursorWithoutLimitUsesDefaultPageSize() {
+        // Arrange
+        searchRequest.setCursor(SearchCursor.after(flightInventory).encode());
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), any(SearchCursor.class),
+                eq(2)))
+                .thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(flightService.searchFlightsPage(searchRequest))
+                .assertNext(page -> assertTrue(page.getFlights().isEmpty()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchFlights_CursorSkipsCachedFlights() {
+        // Arrange
+        searchRequest.setCursor(SearchCursor.after(flightInventory).encode());
+        FlightInventory laterFlight = FlightInventory.builder()
+                .id("flight456")
+                .departureDateTime(flightInventory.getDepartureDateTime().plusHours(3))
+                .availableSeats(20)
+                .build();
+        when(flightSearchCache.getIfPresent(searchRequest))
+                .thenReturn(Optional.of(List.of(flightInventory, laterFlight)));
 
         // Act
         Flux<FlightInventory> result = flightService.searchFlights(searchRequest);
 
         // Assert
         StepVerifier.create(result)
-                .expectNextCount(1) // Only flight with available seats should be returned
+                .expectNext(laterFlight)
                 .verifyComplete();
+
+        verifyNoInteractions(flightInventoryRepository);
+    }
+
+    @Test
+    void testSearchFlights_InvalidCursor() {
+        // Arrange
+        searchRequest.setCursor("not-a-cursor");
+
+        // Act & Assert
+        StepVerifier.create(flightService.searchFlights(searchRequest))
+                .expectError(IllegalArgumentException.class)
+                .verify();
     }
 
     @Test
@@ -243,8 +438,7 @@ class FlightServiceImplTest {
                 .flightStatus(FlightStatus.ACTIVE)
                 .build();
 
-        when(flightInventoryRepository.findById("flight123")).thenReturn(Mono.just(flightInventory));
-        when(flightInventoryRepository.save(any(FlightInventory.class))).thenReturn(Mono.just(updatedFlight));
+        when(flightInventoryRepository.decrementAvailableSeats("flight123", 2)).thenReturn(Mono.just(updatedFlight));
 
         // Act
         Mono<FlightInventory> result = flightService.updateAvailableSeats("flight123", 2);
@@ -257,14 +451,17 @@ class FlightServiceImplTest {
                 })
                 .verifyComplete();
 
-        verify(flightInventoryRepository).findById("flight123");
-        verify(flightInventoryRepository).save(any(FlightInventory.class));
+        verify(flightInventoryRepository).decrementAvailableSeats("flight123", 2);
+        verify(flightSearchCache).applySeatUpdate(updatedFlight);
+        verify(flightInventoryRepository, never()).findById(anyString());
+        verify(flightInventoryRepository, never()).save(any());
     }
 
     @Test
     void testUpdateAvailableSeats_InsufficientSeats() {
         // Arrange
-        when(flightInventoryRepository.findById("flight123")).thenReturn(Mono.just(flightInventory));
+        when(flightInventoryRepository.decrementAvailableSeats("flight123", 200)).thenReturn(Mono.empty());
+        when(flightInventoryRepository.existsById("flight123")).thenReturn(Mono.just(true));
 
         // Act
         Mono<FlightInventory> result = flightService.updateAvailableSeats("flight123", 200);
@@ -276,14 +473,15 @@ class FlightServiceImplTest {
                         throwable.getMessage().contains("Not enough available seats"))
                 .verify();
 
-        verify(flightInventoryRepository).findById("flight123");
+        verify(flightInventoryRepository).decrementAvailableSeats("flight123", 200);
         verify(flightInventoryRepository, never()).save(any());
     }
 
     @Test
     void testUpdateAvailableSeats_FlightNotFound() {
         // Arrange
-        when(flightInventoryRepository.findById("INVALID")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.decrementAvailableSeats("INVALID", 2)).thenReturn(Mono.empty());
+        when(flightInventoryRepository.existsById("INVALID")).thenReturn(Mono.just(false));
 
         // Act
         Mono<FlightInventory> result = flightService.updateAvailableSeats("INVALID", 2);
@@ -293,7 +491,226 @@ class FlightServiceImplTest {
                 .expectError(FlightNotFoundException.class)
                 .verify();
 
-        verify(flightInventoryRepository).findById("INVALID");
+        verify(flightInventoryRepository).existsById("INVALID");
         verify(flightInventoryRepository, never()).save(any());
     }
+
+    @Test
+    void testUpdateAvailableSeats_FallsBackToEscrow() {
+        // Arrange: the guarded decrement hands back an escrowed flight unchanged
+        FlightInventory escrowed = FlightInventory.builder()
+                .id("flight123")
+                .escrowBuckets(8)
+                .availableSeats(0)
+                .build();
+        when(flightInventoryRepository.decrementAvailableSeats("flight123", 2)).thenReturn(Mono.just(escrowed));
+        when(seatEscrowService.takeSeats(escrowed, 2)).thenAnswer(invocation -> {
+            escrowed.setAvailableSeats(178);
+            return Mono.just(escrowed);
+        });
+
+        // Act & Assert
+        StepVerifier.create(flightService.updateAvailableSeats("flight123", 2))
+                .expectNext(escrowed)
+                .verifyComplete();
+
+        verify(flightInventoryRepository, never()).existsById(anyString());
+        verify(flightInventoryRepository, never()).findById(anyString());
+        verify(flightSearchCache).applySeatUpdate(escrowed);
+    }
+
+    @Test
+    void testUpdateAvailableSeats_EscrowedFlightSoldOut() {
+        // Arrange
+        FlightInventory escrowed = FlightInventory.builder().id("flight123").escrowBuckets(8).availableSeats(0).build();
+        when(flightInventoryRepository.decrementAvailableSeats("flight123", 2)).thenReturn(Mono.just(escrowed));
+        when(seatEscrowService.takeSeats(escrowed, 2)).thenReturn(Mono.empty());
+        when(flightInventoryRepository.existsById("flight123")).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(flightService.updateAvailableSeats("flight123", 2))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testSearchFlights_TotalsEscrowedFlights() {
+        // Arrange
+        FlightInventory escrowed = FlightInventory.builder()
+                .id("flight456")
+                .flightNumber("AI202")
+                .escrowBuckets(8)
+                .availableSeats(0)
+                .build();
+        FlightInventory soldOut = FlightInventory.builder()
+                .id("flight789")
+                .flightNumber("AI303")
+                .escrowBuckets(8)
+                .availableSeats(0)
+                .build();
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(0)))
+                .thenReturn(Flux.just(flightInventory, escrowed, soldOut));
+        when(seatEscrowService.withEscrowTotals(List.of(flightInventory, escrowed, soldOut))).thenAnswer(invocation -> {
+            escrowed.setAvailableSeats(40);
+            return Flux.just(flightInventory, escrowed, soldOut);
+        });
+
+        // Act & Assert
+        StepVerifier.create(flightService.searchFlights(searchRequest))
+                .expectNext(flightInventory)
+                .assertNext(flight -> assertEquals(40, flight.getAvailableSeats()))
+                .verifyComplete();
+
+        verify(seatEscrowService, never()).withEscrowTotal(any());
+        verify(seatEscrowService).withEscrowTotals(anyList());
+    }
+
+    @Test
+    void testSearchFlightsPage_CursorCountsSoldOutEscrowedRows() {
+        // Arrange: the query's limit + 1 rows came back; the first is an escrowed flight that is sold out
+        searchRequest.setLimit(2);
+        FlightInventory soldOut = FlightInventory.builder()
+                .id("flight100")
+                .departureDateTime(flightInventory.getDepartureDateTime().minusHours(1))
+                .escrowBuckets(8)
+                .availableSeats(0)
+                .flightStatus(FlightStatus.ACTIVE)
+                .build();
+        FlightInventory later = FlightInventory.builder()
+                .id("flight456")
+                .departureDateTime(flightInventory.getDepartureDateTime().plusHours(3))
+                .availableSeats(20)
+                .flightStatus(FlightStatus.ACTIVE)
+                .build();
+        when(flightInventoryRepository.searchAvailableFlights(
+                eq("Delhi"), eq("Mumbai"), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(3)))
+                .thenReturn(Flux.just(soldOut, flightInventory, later));
+
+        // Act & Assert
+        StepVerifier.create(flightService.searchFlightsPage(searchRequest))
+                .assertNext(page -> {
+                    assertEquals(List.of(flightInventory), page.getFlights());
+                    assertEquals("flight123", SearchCursor.decode(page.getNextCursor()).getId());
+                })
+                .verifyComplete();
+
+        verify(flightSearchCache, never()).put(any(), anyList(), anyLong());
+    }
+
+    @Test
+    void testUpdateAvailableSeats_NonPositiveSeats() {
+        // Act
+        Mono<FlightInventory> result = flightService.updateAvailableSeats("flight123", 0);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(flightInventoryRepository);
+    }
+
+    @Test
+    void testReleaseSeats_Success() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 2)).thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 2))
+                .expectNext(flightInventory)
+                .verifyComplete();
+
+        verify(flightSearchCache).applySeatUpdate(flightInventory);
+    }
+
+    @Test
+    void testReleaseSeats_AboveCapacity() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 5)).thenReturn(Mono.empty());
+        when(seatEscrowService.returnSeats("flight123", 5)).thenReturn(Mono.empty());
+        when(flightInventoryRepository.existsById("flight123")).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 5))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testReleaseSeatsWithReleaseId_Success() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 4, "release-1"))
+                .thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 4, "release-1"))
+                .expectNext(flightInventory)
+                .verifyComplete();
+
+        verify(flightSearchCache).applySeatUpdate(flightInventory);
+        verify(seatEscrowService, never()).returnSeats(any(), anyInt());
+    }
+
+    @Test
+    void testReleaseSeatsWithReleaseId_EscrowedFlight() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 4, "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.recordEscrowRelease("flight123", "release-1")).thenReturn(Mono.just(flightInventory));
+        when(seatEscrowService.returnSeats("flight123", 4)).thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 4, "release-1"))
+                .expectNext(flightInventory)
+                .verifyComplete();
+
+        verify(flightSearchCache).applySeatUpdate(flightInventory);
+    }
+
+    @Test
+    void testReleaseSeatsWithReleaseId_EscrowReturnFailureForgetsReleaseId() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 4, "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.recordEscrowRelease("flight123", "release-1")).thenReturn(Mono.just(flightInventory));
+        when(seatEscrowService.returnSeats("flight123", 4)).thenReturn(Mono.error(new RuntimeException("Mongo down")));
+        when(flightInventoryRepository.forgetEscrowRelease("flight123", "release-1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 4, "release-1"))
+                .expectErrorMessage("Mongo down")
+                .verify();
+
+        verify(flightInventoryRepository).forgetEscrowRelease("flight123", "release-1");
+        verify(flightSearchCache, never()).applySeatUpdate(any());
+    }
+
+    @Test
+    void testReleaseSeatsWithReleaseId_AlreadyApplied() {
+        // Arrange
+        flightInventory.setRecentReleaseIds(List.of("release-1"));
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 4, "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.recordEscrowRelease("flight123", "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.findById("flight123")).thenReturn(Mono.just(flightInventory));
+        when(seatEscrowService.withEscrowTotal(flightInventory)).thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 4, "release-1"))
+                .expectNext(flightInventory)
+                .verifyComplete();
+
+        verify(flightSearchCache, never()).applySeatUpdate(any());
+    }
+
+    @Test
+    void testReleaseSeatsWithReleaseId_AboveCapacity() {
+        // Arrange
+        when(flightInventoryRepository.incrementAvailableSeats("flight123", 400, "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.recordEscrowRelease("flight123", "release-1")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.findById("flight123")).thenReturn(Mono.just(flightInventory));
+
+        // Act & Assert
+        StepVerifier.create(flightService.releaseSeats("flight123", 400, "release-1"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
 }
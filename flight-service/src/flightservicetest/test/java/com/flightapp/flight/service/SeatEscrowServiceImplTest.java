@@ -0,0 +1,364 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.cache.FlightSearchCache;
+import com.flightapp.flight.entity.FlightInventory;
+import com.flightapp.flight.entity.SeatBucket;
+import com.flightapp.flight.exception.FlightNotFoundException;
+import com.flightapp.flight.repository.FlightInventoryRepository;
+import com.flightapp.flight.repository.SeatBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SeatEscrowServiceImplTest {
+
+    private static final int BUCKETS = 4;
+    private static final int CAPACITY = 45;
+
+    @Mock
+    private FlightInventoryRepository flightInventoryRepository;
+
+    @Mock
+    private SeatBucketRepository seatBucketRepository;
+
+    @Mock
+    private FlightSearchCache flightSearchCache;
+
+    @InjectMocks
+    private SeatEscrowServiceImpl seatEscrowService;
+
+    private AtomicIntegerArray buckets;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatEscrowService, "escrowBuckets", BUCKETS);
+        buckets = new AtomicIntegerArray(BUCKETS);
+
+        when(flightInventoryRepository.findById("flight123")).thenAnswer(invocation -> Mono.just(escrowedFlight()));
+        when(seatBucketRepository.totalAvailableSeats(any())).thenAnswer(invocation -> Mono.fromSupplier(() ->
+                Map.of("flight123", IntStream.range(0, BUCKETS).map(buckets::get).sum())));
+
+        // The mocked buckets behave like the guarded findAndModify calls: a bucket is only
+        // decremented when it still holds enough seats.
+        when(seatBucketRepository.decrementFrom(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int start = invocation.getArgument(1);
+            int seats = invocation.getArgument(2);
+            return Mono.fromSupplier(() -> {
+                for (int bucket = start; bucket < BUCKETS; bucket++) {
+                    if (tryTake(bucket, seats)) {
+                        return bucket(bucket);
+                    }
+                }
+                return null;
+            });
+        });
+        when(seatBucketRepository.decrement(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int bucket = invocation.getArgument(1);
+            int seats = invocation.getArgument(2);
+            return Mono.fromSupplier(() -> tryTake(bucket, seats) ? bucket(bucket) : null);
+        });
+        when(seatBucketRepository.increment(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int bucket = invocation.getArgument(1);
+            int seats = invocation.getArgument(2);
+            return Mono.fromSupplier(() -> {
+                buckets.addAndGet(bucket, seats);
+                return bucket(bucket);
+            });
+        });
+        // Refills are guarded the same way against each bucket's capacity
+        when(seatBucketRepository.refillFrom(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int start = invocation.getArgument(1);
+            int seats = invocation.getArgument(2);
+            return Mono.fromSupplier(() -> {
+                for (int bucket = start; bucket < BUCKETS; bucket++) {
+                    if (tryGive(bucket, seats)) {
+                        return bucket(bucket);
+                    }
+                }
+                return null;
+            });
+        });
+        when(seatBucketRepository.refill(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int bucket = invocation.getArgument(1);
+            int seats = invocation.getArgument(2);
+            return Mono.fromSupplier(() -> tryGive(bucket, seats) ? bucket(bucket) : null);
+        });
+        when(seatBucketRepository.findByFlightId(any()))
+                .thenAnswer(invocation -> Flux.range(0, BUCKETS).map(this::bucket));
+        when(seatBucketRepository.findByFlightIdAndAvailableSeatsGreaterThan(any(), anyInt()))
+                .thenAnswer(invocation -> Flux.range(0, BUCKETS)
+                        .map(this::bucket)
+                        .filter(bucket -> bucket.getAvailableSeats() > 0));
+    }
+
+    private FlightInventory escrowedFlight() {
+        return FlightInventory.builder()
+                .id("flight123")
+                .totalSeats(180)
+                .availableSeats(0)
+                .escrowBuckets(BUCKETS)
+                .build();
+    }
+
+    private boolean tryTake(int bucket, int seats) {
+        int current;
+        do {
+            current = buckets.get(bucket);
+            if (current < seats) {
+                return false;
+            }
+        } while (!buckets.compareAndSet(bucket, current, current - seats));
+        return true;
+    }
+
+    private boolean tryGive(int bucket, int seats) {
+        int current;
+        do {
+            current = buckets.get(bucket);
+            if (current + seats > CAPACITY) {
+                return false;
+            }
+        } while (!buckets.compareAndSet(bucket, current, current + seats));
+        return true;
+    }
+
+    private SeatBucket bucket(int bucket) {
+        return SeatBucket.builder()
+                .flightId("flight123")
+                .bucket(bucket)
+                .availableSeats(buckets.get(bucket))
+                .capacity(CAPACITY)
+                .build();
+    }
+
+    private void fillBuckets(int... seats) {
+        for (int bucket = 0; bucket < seats.length; bucket++) {
+            buckets.set(bucket, seats[bucket]);
+        }
+    }
+
+    @Test
+    void testTakeSeats_ConcurrentBookingsNeverOversell() {
+        // Arrange
+        fillBuckets(25, 25, 25, 25);
+
+        // Act
+        List<FlightInventory> booked = Flux.range(0, 400)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(attempt -> seatEscrowService.takeSeats(escrowedFlight(), 1))
+                .sequential()
+                .collectList()
+                .block();
+
+        // Assert
+        assertNotNull(booked);
+        assertEquals(100, booked.size());
+        IntStream.range(0, BUCKETS).forEach(bucket -> assertEquals(0, buckets.get(bucket)));
+    }
+
+    @Test
+    void testTakeSeats_AssemblesSeatsFromSeveralBuckets() {
+        // Arrange
+        fillBuckets(1, 2, 0, 2);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.takeSeats(escrowedFlight(), 4))
+                .assertNext(flight -> assertEquals(1, flight.getAvailableSeats()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testTakeSeats_NotEnoughSeatsPutsPartialTakeBack() {
+        // Arrange
+        fillBuckets(1, 1, 0, 1);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.takeSeats(escrowedFlight(), 4))
+                .verifyComplete();
+
+        assertEquals(1, buckets.get(0));
+        assertEquals(1, buckets.get(1));
+        assertEquals(1, buckets.get(3));
+    }
+
+    @Test
+    void testTakeSeats_FlightNotInEscrow() {
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.takeSeats(
+                        FlightInventory.builder().id("flight456").availableSeats(0).build(), 1))
+                .verifyComplete();
+
+        verify(seatBucketRepository, never()).decrementFrom(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testTakeSeats_DoesNotReadTheFlightAgain() {
+        // Arrange
+        fillBuckets(5, 5, 5, 5);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.takeSeats(escrowedFlight(), 2))
+                .assertNext(flight -> assertEquals(18, flight.getAvailableSeats()))
+                .verifyComplete();
+
+        verify(flightInventoryRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testWithEscrowTotals_OneAggregationPerPage() {
+        // Arrange
+        fillBuckets(1, 2, 3, 4);
+        FlightInventory plain = FlightInventory.builder().id("flight456").availableSeats(7).build();
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.withEscrowTotals(List.of(plain, escrowedFlight())))
+                .expectNext(plain)
+                .assertNext(flight -> assertEquals(10, flight.getAvailableSeats()))
+                .verifyComplete();
+
+        verify(seatBucketRepository).totalAvailableSeats(List.of("flight123"));
+    }
+
+    @Test
+    void testReturnSeats_AddsToBucket() {
+        // Arrange
+        fillBuckets(10, 10, 10, 10);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.returnSeats("flight123", 2))
+                .assertNext(flight -> assertEquals(42, flight.getAvailableSeats()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testReturnSeats_AboveCapacity() {
+        // Arrange
+        fillBuckets(45, 45, 45, 45);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.returnSeats("flight123", 1))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(seatBucketRepository, never()).refillFrom(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testReturnSeats_SpreadsOverBucketsWithRoom() {
+        // Arrange
+        fillBuckets(44, 44, 44, 44);
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.returnSeats("flight123", 3))
+                .assertNext(flight -> assertEquals(179, flight.getAvailableSeats()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testReturnSeats_ConcurrentReturnsNeverExceedTotalSeats() {
+        // Arrange
+        fillBuckets(44, 44, 44, 44);
+
+        // Act
+        List<FlightInventory> returned = Flux.range(0, 40)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(attempt -> seatEscrowService.returnSeats("flight123", 1)
+                        .onErrorResume(IllegalArgumentException.class, error -> Mono.empty()))
+                .sequential()
+                .collectList()
+                .block();
+
+        // Assert
+        assertNotNull(returned);
+        assertEquals(4, returned.size());
+        IntStream.range(0, BUCKETS).forEach(bucket -> assertEquals(CAPACITY, buckets.get(bucket)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnableEscrow_SplitsAvailableSeatsAcrossBuckets() {
+        // Arrange
+        when(flightInventoryRepository.moveSeatsToEscrow("flight123", BUCKETS)).thenReturn(Mono.just(FlightInventory.builder()
+                .id("flight123")
+                .totalSeats(30)
+                .availableSeats(18)
+                .build()));
+        when(seatBucketRepository.insert(any(Iterable.class))).thenAnswer(invocation -> {
+            Iterable<SeatBucket> inserted = invocation.getArgument(0);
+            inserted.forEach(bucket -> buckets.set(bucket.getBucket(), bucket.getAvailableSeats()));
+            return Flux.fromIterable(inserted);
+        });
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.enableEscrow("flight123"))
+                .assertNext(flight -> {
+                    assertEquals(BUCKETS, flight.getEscrowBuckets());
+                    assertEquals(18, flight.getAvailableSeats());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Iterable<SeatBucket>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(seatBucketRepository).insert(captor.capture());
+        assertEquals(List.of(5, 5, 4, 4), Flux.fromIterable(captor.getValue())
+                .map(SeatBucket::getAvailableSeats).collectList().block());
+        assertEquals(List.of(8, 8, 7, 7), Flux.fromIterable(captor.getValue())
+                .map(SeatBucket::getCapacity).collectList().block());
+        verify(flightSearchCache).invalidate(any(FlightInventory.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnableEscrow_RestoresFlightWhenBucketsCannotBeStored() {
+        // Arrange
+        when(flightInventoryRepository.moveSeatsToEscrow("flight123", BUCKETS)).thenReturn(Mono.just(FlightInventory.builder()
+                .id("flight123")
+                .availableSeats(18)
+                .build()));
+        when(seatBucketRepository.insert(any(Iterable.class))).thenReturn(Flux.error(new RuntimeException("Database error")));
+        when(seatBucketRepository.deleteByFlightId("flight123")).thenReturn(Mono.empty());
+        when(flightInventoryRepository.restoreFromEscrow("flight123", 18)).thenReturn(Mono.just(new FlightInventory()));
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.enableEscrow("flight123"))
+                .expectErrorMessage("Database error")
+                .verify();
+
+        verify(flightInventoryRepository).restoreFromEscrow("flight123", 18);
+    }
+
+    @Test
+    void testEnableEscrow_FlightNotFound() {
+        // Arrange
+        when(flightInventoryRepository.moveSeatsToEscrow("INVALID", BUCKETS)).thenReturn(Mono.empty());
+        when(flightInventoryRepository.findById("INVALID")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(seatEscrowService.enableEscrow("INVALID"))
+                .expectError(FlightNotFoundException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,478 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.dto.SeatHoldBatchResult;
+import com.flightapp.flight.dto.SeatHoldResponse;
+import com.flightapp.flight.entity.FlightInventory;
+import com.flightapp.flight.entity.SeatHold;
+import com.flightapp.flight.exception.FlightNotFoundException;
+import com.flightapp.flight.exception.SeatHoldNotFoundException;
+import com.flightapp.flight.repository.SeatHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceImplTest {
+
+    @Mock
+    private SeatHoldRepository seatHoldRepository;
+
+    @Mock
+    private FlightService flightService;
+
+    @InjectMocks
+    private SeatHoldServiceImpl seatHoldService;
+
+    private FlightInventory flightInventory;
+    private SeatHold seatHold;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatHoldService, "holdTtlSeconds", 300L);
+        ReflectionTestUtils.setField(seatHoldService, "reaperBatchSize", 100);
+        ReflectionTestUtils.setField(seatHoldService, "releaseRetryMs", 30000L);
+        ReflectionTestUtils.setField(seatHoldService, "maxBatchSize", 10);
+
+        flightInventory = FlightInventory.builder()
+                .id("flight123")
+                .flightNumber("AI101")
+                .fromPlace("Delhi")
+                .toPlace("Mumbai")
+                .departureDateTime(LocalDateTime.now().plusDays(1))
+                .totalSeats(180)
+                .availableSeats(178)
+                .ticketPrice(5000.0)
+                .flightStatus(FlightStatus.ACTIVE)
+                .build();
+
+        seatHold = SeatHold.builder()
+                .id("hold123")
+                .flightId("flight123")
+                .seats(2)
+                .status(HoldStatus.HELD)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build();
+    }
+
+    @Test
+    void testCreateHold_Success() {
+        // Arrange
+        when(flightService.updateAvailableSeats("flight123", 2)).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.save(any(SeatHold.class))).thenReturn(Mono.just(seatHold));
+
+        // Act
+        Mono<SeatHoldResponse> result = seatHoldService.createHold("flight123", 2);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(hold -> {
+                    assertEquals("hold123", hold.getHoldId());
+                    assertEquals(HoldStatus.HELD, hold.getStatus());
+                    assertEquals("AI101", hold.getFlight().getFlightNumber());
+                })
+                .verifyComplete();
+
+        verify(flightService, never()).releaseSeats(any(), any());
+    }
+
+    @Test
+    void testCreateHold_ReturnsSeatsWhenHoldNotSaved() {
+        // Arrange
+        when(flightService.updateAvailableSeats("flight123", 2)).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.save(any(SeatHold.class))).thenReturn(Mono.error(new RuntimeException("Mongo down")));
+        when(flightService.releaseSeats("flight123", 2)).thenReturn(Mono.just(flightInventory));
+
+        // Act
+        Mono<SeatHoldResponse> result = seatHoldService.createHold("flight123", 2);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMessage("Mongo down")
+                .verify();
+
+        verify(flightService).releaseSeats("flight123", 2);
+    }
+
+    @Test
+    void testCreateHold_InsufficientSeats() {
+        // Arrange
+        when(flightService.updateAvailableSeats("flight123", 200))
+                .thenReturn(Mono.error(new IllegalArgumentException("Not enough available seats")));
+
+        // Act
+        Mono<SeatHoldResponse> result = seatHoldService.createHold("flight123", 200);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(seatHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void testConfirmHold_Success() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.CONFIRMED);
+        seatHold.setPnr("PNR12345678");
+        when(seatHoldRepository.confirm("hold123", "PNR12345678")).thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.confirmHold("hold123", "PNR12345678"))
+                .assertNext(hold -> assertEquals(HoldStatus.CONFIRMED, hold.getStatus()))
+                .verifyComplete();
+
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testConfirmHold_Expired() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.EXPIRED);
+        when(seatHoldRepository.confirm("hold123", "PNR12345678")).thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+        when(seatHoldRepository.existsById("hold123")).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.confirmHold("hold123", "PNR12345678"))
+                .expectErrorMatches(throwable ->
+                        throwable instanceof IllegalArgumentException &&
+                        throwable.getMessage().contains("no longer active"))
+                .verify();
+    }
+
+    @Test
+    void testConfirmHold_AlreadyConfirmedAnswersAgain() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.CONFIRMED);
+        seatHold.setPnr("PNR12345678");
+        when(seatHoldRepository.confirm("hold123", "PNR12345678")).thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.confirmHold("hold123", "PNR12345678"))
+                .assertNext(hold -> assertEquals(HoldStatus.CONFIRMED, hold.getStatus()))
+                .verifyComplete();
+
+        verify(seatHoldRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void testConfirmHold_ConfirmedForAnotherBookingIsRejected() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.CONFIRMED);
+        seatHold.setPnr("PNR87654321");
+        when(seatHoldRepository.confirm("hold123", "PNR12345678")).thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+        when(seatHoldRepository.existsById("hold123")).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.confirmHold("hold123", "PNR12345678"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testReleaseHold_NotFound() {
+        // Arrange
+        when(seatHoldRepository.startRelease(eq("INVALID"), any(HoldStatus.class), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("INVALID")).thenReturn(Mono.empty());
+        when(seatHoldRepository.existsById("INVALID")).thenReturn(Mono.just(false));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.releaseHold("INVALID"))
+                .expectError(SeatHoldNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testReleaseHold_ReturnsSeats() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.RELEASED);
+        SeatHold releasing = releasing(HoldStatus.RELEASED);
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.just(releasing));
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123")).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.RELEASED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.releaseHold("hold123"))
+                .assertNext(hold -> assertEquals(HoldStatus.RELEASED, hold.getStatus()))
+                .verifyComplete();
+
+        verify(flightService).releaseSeats("flight123", 2, "hold-hold123");
+    }
+
+    @Test
+    void testReleaseHold_ConfirmedHoldIsNotReleased() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.CONFIRMED);
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+        when(seatHoldRepository.existsById("hold123")).thenReturn(Mono.just(true));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.releaseHold("hold123"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(seatHoldRepository, never()).startCompensation(any(), any(), any());
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testCompensateHold_ConfirmedHoldReturnsSeatsForItsBooking() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.RELEASED);
+        SeatHold releasing = releasing(HoldStatus.RELEASED);
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(seatHoldRepository.startCompensation(eq("hold123"), eq("PNR12345678"), any(LocalDateTime.class)))
+                .thenReturn(Mono.just(releasing));
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123")).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.RELEASED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.compensateHold("hold123", "PNR12345678"))
+                .assertNext(hold -> assertEquals(HoldStatus.RELEASED, hold.getStatus()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testCompensateHold_AlreadyReleasedAnswersWithoutReturningSeats() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.RELEASED);
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(seatHoldRepository.startCompensation(eq("hold123"), eq("PNR12345678"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.compensateHold("hold123", "PNR12345678"))
+                .assertNext(hold -> assertEquals(HoldStatus.RELEASED, hold.getStatus()))
+                .verifyComplete();
+
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testCompensateHold_ConfirmedForAnotherBookingIsRejected() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.CONFIRMED);
+        seatHold.setPnr("PNR87654321");
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(seatHoldRepository.startCompensation(eq("hold123"), eq("PNR12345678"), any(LocalDateTime.class)))
+                .thenReturn(Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.compensateHold("hold123", "PNR12345678"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testReleaseHold_FailedSeatReturnLeavesHoldReleasingForRetry() {
+        // Arrange
+        seatHold.setStatus(HoldStatus.RELEASED);
+        SeatHold releasing = releasing(HoldStatus.RELEASED);
+        when(seatHoldRepository.startRelease(eq("hold123"), any(HoldStatus.class), eq(HoldStatus.RELEASED),
+                any(LocalDateTime.class))).thenReturn(Mono.just(releasing), Mono.empty());
+        when(seatHoldRepository.findById("hold123")).thenReturn(Mono.just(releasing));
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123"))
+                .thenReturn(Mono.error(new RuntimeException("Mongo down")), Mono.just(flightInventory));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.RELEASED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert: the first attempt fails, the retry finishes the same release
+        StepVerifier.create(seatHoldService.releaseHold("hold123"))
+                .expectErrorMessage("Mongo down")
+                .verify();
+        verify(seatHoldRepository, never()).transition(any(), any(), any());
+
+        StepVerifier.create(seatHoldService.releaseHold("hold123"))
+                .assertNext(hold -> assertEquals(HoldStatus.RELEASED, hold.getStatus()))
+                .verifyComplete();
+
+        verify(flightService, times(2)).releaseSeats("flight123", 2, "hold-hold123");
+    }
+
+    @Test
+    void testExpireHolds_SkipsHoldsClaimedElsewhere() {
+        // Arrange
+        SeatHold confirmedMeanwhile = SeatHold.builder().id("hold456").flightId("flight123").seats(1).build();
+        when(seatHoldRepository.findByStatusAndReleasingSinceBefore(eq(HoldStatus.RELEASING),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(Flux.empty());
+        when(seatHoldRepository.findByStatusAndExpiresAtBefore(eq(HoldStatus.HELD), any(LocalDateTime.class),
+                any(Pageable.class)))
+                .thenReturn(Flux.just(seatHold, confirmedMeanwhile));
+        when(seatHoldRepository.startRelease(eq("hold123"), eq(HoldStatus.HELD), eq(HoldStatus.EXPIRED),
+                any(LocalDateTime.class))).thenReturn(Mono.just(releasing(HoldStatus.EXPIRED)));
+        when(seatHoldRepository.startRelease(eq("hold456"), eq(HoldStatus.HELD), eq(HoldStatus.EXPIRED),
+                any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123")).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.EXPIRED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.expireHolds())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(flightService).releaseSeats("flight123", 2, "hold-hold123");
+        verify(flightService, never()).releaseSeats(eq("flight123"), eq(1), anyString());
+    }
+
+    @Test
+    void testExpireHolds_RetriesUnfinishedReleasesAndKeepsFailuresReleasing() {
+        // Arrange
+        SeatHold stuck = releasing(HoldStatus.EXPIRED);
+        SeatHold stillFailing = SeatHold.builder().id("hold456").flightId("flight456").seats(1)
+                .status(HoldStatus.RELEASING).releasedAs(HoldStatus.RELEASED).build();
+        when(seatHoldRepository.findByStatusAndReleasingSinceBefore(eq(HoldStatus.RELEASING),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(Flux.just(stuck, stillFailing));
+        when(seatHoldRepository.findByStatusAndExpiresAtBefore(eq(HoldStatus.HELD), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(Flux.empty());
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123")).thenReturn(Mono.just(flightInventory));
+        when(flightService.releaseSeats("flight456", 1, "hold-hold456"))
+                .thenReturn(Mono.error(new RuntimeException("Mongo down")));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.EXPIRED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.expireHolds())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(seatHoldRepository, never()).transition(eq("hold456"), any(), any());
+    }
+
+    @Test
+    void testExpireHolds_ClosesHoldWhoseFlightIsGone() {
+        // Arrange
+        SeatHold stuck = releasing(HoldStatus.EXPIRED);
+        when(seatHoldRepository.findByStatusAndReleasingSinceBefore(eq(HoldStatus.RELEASING),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(Flux.just(stuck));
+        when(seatHoldRepository.findByStatusAndExpiresAtBefore(eq(HoldStatus.HELD), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(Flux.empty());
+        when(flightService.releaseSeats("flight123", 2, "hold-hold123"))
+                .thenReturn(Mono.error(new FlightNotFoundException("Flight not found with id: flight123")));
+        when(seatHoldRepository.transition("hold123", HoldStatus.RELEASING, HoldStatus.EXPIRED))
+                .thenReturn(Mono.just(seatHold));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.expireHolds())
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(seatHoldRepository).transition("hold123", HoldStatus.RELEASING, HoldStatus.EXPIRED);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateHolds_TakesCombinedSeatsOnce() {
+        // Arrange
+        when(flightService.updateAvailableSeats("flight123", 5)).thenReturn(Mono.just(flightInventory));
+        when(seatHoldRepository.saveAll(any(Iterable.class))).thenAnswer(invocation ->
+                Flux.fromIterable((Iterable<SeatHold>) invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.createHolds("flight123", List.of(2, 3)))
+                .assertNext(result -> {
+                    assertEquals(201, result.getStatus());
+                    assertEquals(2, result.getHold().getSeats());
+                })
+                .assertNext(result -> assertEquals(3, result.getHold().getSeats()))
+                .verifyComplete();
+
+        verify(flightService, times(1)).updateAvailableSeats(any(), any());
+        verify(seatHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateHolds_FallsBackToSingleHoldsWhenSeatsRunShort() {
+        // Arrange
+        when(flightService.updateAvailableSeats("flight123", 5))
+                .thenReturn(Mono.error(new IllegalArgumentException("Not enough available seats")));
+        when(flightService.updateAvailableSeats("flight123", 2)).thenReturn(Mono.just(flightInventory));
+        when(flightService.updateAvailableSeats("flight123", 3))
+                .thenReturn(Mono.error(new IllegalArgumentException("Not enough available seats")));
+        when(seatHoldRepository.save(any(SeatHold.class))).thenReturn(Mono.just(seatHold));
+
+        // Act
+        Flux<SeatHoldBatchResult> result = seatHoldService.createHolds("flight123", List.of(2, 3));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(hold -> assertEquals("hold123", hold.getHold().getHoldId()))
+                .assertNext(failed -> {
+                    assertEquals(400, failed.getStatus());
+                    assertEquals("Not enough available seats", failed.getError());
+                    assertNull(failed.getHold());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testCreateHolds_FlightNotFound() {
+        // Arrange
+        when(flightService.updateAvailableSeats("INVALID", 3))
+                .thenReturn(Mono.error(new FlightNotFoundException("Flight not found with id: INVALID")));
+
+        // Act & Assert
+        StepVerifier.create(seatHoldService.createHolds("INVALID", List.of(1, 2)))
+                .expectNextMatches(failed -> failed.getStatus() == 404)
+                .expectNextMatches(failed -> failed.getStatus() == 404)
+                .verifyComplete();
+    }
+
+    @Test
+    void testCreateHolds_RejectsOversizedBatch() {
+        // Act & Assert
+        StepVerifier.create(seatHoldService.createHolds("flight123", Collections.nCopies(11, 1)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(flightService);
+    }
+
+    private SeatHold releasing(HoldStatus releasedAs) {
+        return SeatHold.builder()
+                .id("hold123")
+                .flightId("flight123")
+                .seats(2)
+                .status(HoldStatus.RELEASING)
+                .releasedAs(releasedAs)
+                .releasingSince(LocalDateTime.now())
+                .build();
+    }
+}
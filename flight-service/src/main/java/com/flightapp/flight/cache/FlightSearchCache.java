@@ -0,0 +1,107 @@
+package com.flightapp.flight.cache;
+
+import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.entity.FlightInventory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Route-day search results. Every write to a route-day bumps its generation inside the same atomic map operation,
+// and a search only stores its results if the generation has not moved since it started, so a search that read
+// the database before a seat update cannot put its older results back after the update. Generations are striped
+// by key hash rather than kept per route-day: a collision only skips a put, and nothing grows or expires.
+@Component
+public class FlightSearchCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<RouteDay, List<FlightInventory>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Autowired
+    public FlightSearchCache(@Value("${flight.search-cache.max-size:10000}") long maxSize,
+                             @Value("${flight.search-cache.ttl-seconds:60}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "flightSearch");
+    }
+
+    public Optional<List<FlightInventory>> getIfPresent(FlightSearchRequest request) {
+        return Optional.ofNullable(cache.getIfPresent(keyOf(request)));
+    }
+
+    // Taken before the search reads the database and handed back to put
+    public long generation(FlightSearchRequest request) {
+        return generations.get(stripe(keyOf(request)));
+    }
+
+    public void put(FlightSearchRequest request, List<FlightInventory> flights, long generation) {
+        List<FlightInventory> results = List.copyOf(flights);
+        cache.asMap().compute(keyOf(request), (key, current) ->
+                generations.get(stripe(key)) == generation ? results : current);
+    }
+
+    public void invalidate(FlightInventory flight) {
+        if (flight.getDepartureDateTime() == null) {
+            return;
+        }
+        cache.asMap().compute(keyOf(flight), (key, flights) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    // Patches the cached route-day in place so a busy flight does not keep emptying the cache
+    // for every other flight on the same route. A flight that becomes searchable again is not
+    // in the cached list, so that entry is dropped and reloaded instead.
+    public void applySeatUpdate(FlightInventory updated) {
+        cache.asMap().compute(keyOf(updated), (key, flights) -> {
+            generations.incrementAndGet(stripe(key));
+            if (flights == null) {
+                return null;
+            }
+            boolean searchable = updated.getFlightStatus() == FlightStatus.ACTIVE
+                    && updated.getAvailableSeats() != null
+                    && updated.getAvailableSeats() > 0;
+            boolean cached = flights.stream().anyMatch(flight -> flight.getId().equals(updated.getId()));
+            if (searchable && !cached) {
+                return null;
+            }
+            return flights.stream()
+                    .filter(flight -> searchable || !flight.getId().equals(updated.getId()))
+                    .map(flight -> flight.getId().equals(updated.getId()) ? updated : flight)
+                    .toList();
+        });
+    }
+
+    private static int stripe(RouteDay key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    private RouteDay keyOf(FlightSearchRequest request) {
+        return new RouteDay(request.getFromPlace(), request.getToPlace(), request.getJourneyDate());
+    }
+
+    private RouteDay keyOf(FlightInventory flight) {
+        return new RouteDay(flight.getFromPlace(), flight.getToPlace(),
+                flight.getDepartureDateTime().toLocalDate());
+    }
+
+    private record RouteDay(String fromPlace, String toPlace, LocalDate journeyDate) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.flightapp.flight.constants;
+
+public enum HoldStatus {
+    HELD, CONFIRMED, RELEASING, RELEASED, EXPIRED
+}
@@ -1,31 +1,58 @@
 package com.flightapp.flight.controller;
 
 import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.dto.InventoryBatchResult;
 import com.flightapp.flight.dto.InventoryRequest;
 import com.flightapp.flight.entity.FlightInventory;
 import com.flightapp.flight.service.FlightService;
+import com.flightapp.flight.service.SeatEscrowService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/flight")
 @RequiredArgsConstructor
 public class FlightController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final FlightService flightService;
+    private final SeatEscrowService seatEscrowService;
 
     @PostMapping("/inventory")
-    public Mono<ResponseEntity<FlightInventory>> addInventory(@RequestBody InventoryRequest request) {
+    public Mono<ResponseEntity<FlightInventory>> addInventory(@Valid @RequestBody InventoryRequest request) {
         return flightService.addInventory(request)
                 .map(saved -> ResponseEntity.status(201).body(saved));
     }
 
-    @PostMapping("/search")
-    public Flux<FlightInventory> searchFlights(@Valid @RequestBody FlightSearchRequest request) {
+    // Read as raw lines so a malformed one is reported in its batch instead of ending the upload
+    @PostMapping(value = "/inventory/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<InventoryBatchResult> addInventoryBulk(@RequestBody Flux<String> lines) {
+        return flightService.addInventoryBulk(lines);
+    }
+
+    @PostMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<FlightInventory>>> searchFlights(@Valid @RequestBody FlightSearchRequest request) {
+        return flightService.searchFlightsPage(request)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    }
+                    return response.body(page.getFlights());
+                });
+    }
+
+    @PostMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FlightInventory> streamFlights(@Valid @RequestBody FlightSearchRequest request) {
         return flightService.searchFlights(request);
     }
 
@@ -38,4 +65,16 @@ public class FlightController {
     public Mono<FlightInventory> updateSeats(@PathVariable String flightId, @RequestParam Integer seatsToReduce) {
         return flightService.updateAvailableSeats(flightId, seatsToReduce);
     }
+
+    // Seats freed by cancellations, aggregated per flight by booking-service. releaseId makes retries safe.
+    @PutMapping("/{flightId}/seats/release")
+    public Mono<FlightInventory> releaseSeats(@PathVariable String flightId, @RequestParam Integer seats,
+                                              @RequestParam String releaseId) {
+        return flightService.releaseSeats(flightId, seats, releaseId);
+    }
+
+    @PutMapping("/{flightId}/escrow")
+    public Mono<FlightInventory> enableSeatEscrow(@PathVariable String flightId) {
+        return seatEscrowService.enableEscrow(flightId);
+    }
 }
@@ -0,0 +1,21 @@
+package com.flightapp.flight.controller;
+
+import com.flightapp.flight.dto.SeatHoldResponse;
+import com.flightapp.flight.service.SeatHoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// Calls from booking-service only. The gateway routes /api/v1/flight/** and nothing under /api/v1/internal.
+@RestController
+@RequestMapping("/api/v1/internal/holds")
+@RequiredArgsConstructor
+public class InternalSeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    @PutMapping("/{holdId}/compensate")
+    public Mono<SeatHoldResponse> compensateHold(@PathVariable String holdId, @RequestParam String pnr) {
+        return seatHoldService.compensateHold(holdId, pnr);
+    }
+}
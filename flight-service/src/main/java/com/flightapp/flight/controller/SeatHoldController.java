@@ -0,0 +1,48 @@
+package com.flightapp.flight.controller;
+
+import com.flightapp.flight.dto.SeatHoldBatchResult;
+import com.flightapp.flight.dto.SeatHoldResponse;
+import com.flightapp.flight.service.SeatHoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/flight")
+@RequiredArgsConstructor
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    @PostMapping("/{flightId}/holds")
+    public Mono<ResponseEntity<SeatHoldResponse>> createHold(@PathVariable String flightId,
+                                                             @RequestParam Integer seats) {
+        return seatHoldService.createHold(flightId, seats)
+                .map(hold -> ResponseEntity.status(201).body(hold));
+    }
+
+    @PostMapping("/{flightId}/holds/batch")
+    public Flux<SeatHoldBatchResult> createHolds(@PathVariable String flightId, @RequestBody List<Integer> seats) {
+        return seatHoldService.createHolds(flightId, seats);
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public Mono<SeatHoldResponse> getHold(@PathVariable String holdId) {
+        return seatHoldService.getHold(holdId);
+    }
+
+    @PutMapping("/holds/{holdId}/confirm")
+    public Mono<SeatHoldResponse> confirmHold(@PathVariable String holdId,
+                                              @RequestParam(required = false) String pnr) {
+        return seatHoldService.confirmHold(holdId, pnr);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public Mono<SeatHoldResponse> releaseHold(@PathVariable String holdId) {
+        return seatHoldService.releaseHold(holdId);
+    }
+}
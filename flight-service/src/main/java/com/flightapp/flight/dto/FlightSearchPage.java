@@ -0,0 +1,18 @@
+package com.flightapp.flight.dto;
+
+import com.flightapp.flight.entity.FlightInventory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchPage {
+    private List<FlightInventory> flights;
+    private String nextCursor;
+}
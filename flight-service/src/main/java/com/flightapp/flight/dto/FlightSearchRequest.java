@@ -2,6 +2,7 @@ package com.flightapp.flight.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,4 +24,9 @@ public class FlightSearchRequest {
 
     @NotNull(message = "Journey date is required")
     private LocalDate journeyDate;
+
+    @Positive(message = "Limit must be greater than zero")
+    private Integer limit;
+
+    private String cursor;
 }
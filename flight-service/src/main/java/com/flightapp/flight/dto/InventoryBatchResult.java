@@ -0,0 +1,20 @@
+package com.flightapp.flight.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBatchResult {
+    private Long batchNumber;
+    private Integer received;
+    private Integer inserted;
+    private Integer failed;
+    private List<String> errors;
+}
@@ -1,5 +1,8 @@
 package com.flightapp.flight.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,14 +15,33 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class InventoryRequest {
+
+    @NotBlank(message = "Airline is required")
     private String airline;
+
+    @NotBlank(message = "Flight number is required")
     private String flightNumber;
+
+    @NotBlank(message = "From place is required")
     private String fromPlace;
+
+    @NotBlank(message = "To place is required")
     private String toPlace;
+
+    @NotNull(message = "Departure date time is required")
     private LocalDateTime departureDateTime;
+
+    @NotNull(message = "Arrival date time is required")
     private LocalDateTime arrivalDateTime;
+
+    @NotNull(message = "Total seats is required")
+    @Positive(message = "Total seats must be greater than zero")
     private Integer totalSeats;
+
+    @NotNull(message = "Ticket price is required")
+    @Positive(message = "Ticket price must be greater than zero")
     private Double ticketPrice;
+
     private Double oneWayPrice;
     private Double roundTripPrice;
     private Boolean mealAvailable;
@@ -0,0 +1,17 @@
+package com.flightapp.flight.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldBatchResult {
+    private Integer seats;
+    private Integer status;
+    private SeatHoldResponse hold;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.flightapp.flight.dto;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.entity.FlightInventory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldResponse {
+    private String holdId;
+    private String flightId;
+    private Integer seats;
+    private HoldStatus status;
+    private LocalDateTime expiresAt;
+    private FlightInventory flight;
+}
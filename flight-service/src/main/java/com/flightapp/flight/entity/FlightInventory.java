@@ -1,17 +1,22 @@
 package com.flightapp.flight.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.flightapp.flight.constants.FlightStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Document(collection = "flight_inventory")
+@CompoundIndex(name = "route_departure_status_idx",
+        def = "{'fromPlace': 1, 'toPlace': 1, 'departureDateTime': 1, 'flightStatus': 1}")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +34,7 @@ public class FlightInventory {
 
     private Integer totalSeats;
     private Integer availableSeats;
+    private Integer escrowBuckets;
 
     private Double ticketPrice;
     private FlightStatus flightStatus;
@@ -37,4 +43,8 @@ public class FlightInventory {
     private Double roundTripPrice;
 
     private Boolean mealAvailable;
+
+    // Ids of the latest batched seat releases applied to this flight, so a retried release is not applied twice
+    @JsonIgnore
+    private List<String> recentReleaseIds;
 }
@@ -0,0 +1,28 @@
+package com.flightapp.flight.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Document(collection = "seat_bucket")
+@CompoundIndex(name = "flight_bucket_idx", def = "{'flightId': 1, 'bucket': 1}", unique = true)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatBucket {
+
+    @Id
+    private String id;
+
+    private String flightId;
+    private Integer bucket;
+    private Integer availableSeats;
+
+    // This bucket's share of totalSeats; returned seats never take availableSeats above it
+    private Integer capacity;
+}
@@ -0,0 +1,38 @@
+package com.flightapp.flight.entity;
+
+import com.flightapp.flight.constants.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "seat_hold")
+@CompoundIndex(name = "status_expiry_idx", def = "{'status': 1, 'expiresAt': 1}")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+
+    @Id
+    private String id;
+
+    private String flightId;
+    private Integer seats;
+    private HoldStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    // The booking the hold was confirmed for; only that booking can give a confirmed hold back
+    private String pnr;
+
+    // Set while the hold is RELEASING: the status it ends in once its seats are back, and since when
+    private HoldStatus releasedAs;
+    private LocalDateTime releasingSince;
+}
@@ -0,0 +1,7 @@
+package com.flightapp.flight.exception;
+
+public class SeatHoldNotFoundException extends RuntimeException {
+    public SeatHoldNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.dto.SearchCursor;
+import com.flightapp.flight.entity.FlightInventory;
+import com.mongodb.bulk.BulkWriteResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FlightInventoryRepositoryCustom {
+
+    Flux<FlightInventory> searchAvailableFlights(String fromPlace, String toPlace,
+                                                 LocalDateTime startOfDay, LocalDateTime endOfDay,
+                                                 SearchCursor after, int limit);
+
+    Mono<FlightInventory> decrementAvailableSeats(String flightId, int seats);
+
+    Mono<FlightInventory> incrementAvailableSeats(String flightId, int seats);
+
+    Mono<FlightInventory> incrementAvailableSeats(String flightId, int seats, String releaseId);
+
+    Mono<FlightInventory> recordEscrowRelease(String flightId, String releaseId);
+
+    Mono<Void> forgetEscrowRelease(String flightId, String releaseId);
+
+    Mono<FlightInventory> moveSeatsToEscrow(String flightId, int buckets);
+
+    Mono<FlightInventory> restoreFromEscrow(String flightId, int seats);
+
+    Mono<BulkWriteResult> insertUnordered(List<FlightInventory> flights);
+}
@@ -0,0 +1,166 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.SearchCursor;
+import com.flightapp.flight.entity.FlightInventory;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class FlightInventoryRepositoryCustomImpl implements FlightInventoryRepositoryCustom {
+
+    // How many release ids a flight remembers; far more than can be in flight for one flight at a time
+    private static final int RECENT_RELEASE_IDS = 100;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Status and seat predicates run in Mongo on the route/date index instead of in a Reactor filter,
+    // so cancelled and sold-out flights never leave the database. Every field a client reads comes back,
+    // totalSeats included; recentReleaseIds is bookkeeping for seat releases and can hold up to
+    // RECENT_RELEASE_IDS entries per flight, so it stays in Mongo.
+    // Results are ordered by (departureDateTime, id) so a page can resume after the cursor flight.
+    @Override
+    public Flux<FlightInventory> searchAvailableFlights(String fromPlace, String toPlace,
+                                                        LocalDateTime startOfDay, LocalDateTime endOfDay,
+                                                        SearchCursor after, int limit) {
+        // Escrowed flights keep their seats in seat_bucket, so they are matched here and totalled by the caller.
+        // The limit counts these rows, including any escrowed flight the caller then finds sold out.
+        List<Criteria> predicates = new ArrayList<>();
+        predicates.add(new Criteria().orOperator(
+                Criteria.where("availableSeats").gt(0),
+                Criteria.where("escrowBuckets").gt(0)));
+        if (after != null) {
+            predicates.add(new Criteria().orOperator(
+                    Criteria.where("departureDateTime").gt(after.getDepartureDateTime()),
+                    Criteria.where("departureDateTime").is(after.getDepartureDateTime())
+                            .and("_id").gt(after.getId())));
+        }
+        Criteria criteria = Criteria.where("fromPlace").is(fromPlace)
+                .and("toPlace").is(toPlace)
+                .and("departureDateTime").gte(startOfDay).lte(endOfDay)
+                .and("flightStatus").is(FlightStatus.ACTIVE)
+                .andOperator(predicates);
+
+        Query query = Query.query(criteria)
+                .with(Sort.by("departureDateTime", "id"))
+                .limit(limit);
+        query.fields().exclude("recentReleaseIds");
+
+        return mongoTemplate.find(query, FlightInventory.class);
+    }
+
+    // Guard and decrement run as one findAndModify, so concurrent bookings can never oversell.
+    // An escrowed flight is returned unchanged, so the caller can take its seats from the buckets without
+    // reading the flight again. Empty when the flight does not exist or has fewer than the requested seats left.
+    @Override
+    public Mono<FlightInventory> decrementAvailableSeats(String flightId, int seats) {
+        Query query = Query.query(Criteria.where("_id").is(flightId)
+                .orOperator(Criteria.where("availableSeats").gte(seats), Criteria.where("escrowBuckets").gt(0)));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("availableSeats").toValue(ConditionalOperators
+                        .when(ComparisonOperators.Gt.valueOf(ConditionalOperators.ifNull("escrowBuckets").then(0))
+                                .greaterThanValue(0))
+                        .thenValueOf("availableSeats")
+                        .otherwiseValueOf(ArithmeticOperators.Subtract.valueOf("availableSeats").subtract(seats)));
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), FlightInventory.class);
+    }
+
+    // Returned seats can never push availableSeats above totalSeats. Escrowed flights are not matched;
+    // their seats go back to a bucket instead.
+    @Override
+    public Mono<FlightInventory> incrementAvailableSeats(String flightId, int seats) {
+        Query query = Query.query(Criteria.where("_id").is(flightId)
+                .and("escrowBuckets").is(null)
+                .andOperator(Criteria.expr(ComparisonOperators.Lte
+                        .valueOf(ArithmeticOperators.Add.valueOf("availableSeats").add(seats))
+                        .lessThanEqualTo("totalSeats"))));
+        Update update = new Update().inc("availableSeats", seats);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), FlightInventory.class);
+    }
+
+    // Same as above, applied at most once per releaseId: the id is recorded on the flight in the same update,
+    // so a retried release no longer matches. Empty when already applied, escrowed, over capacity or missing.
+    @Override
+    public Mono<FlightInventory> incrementAvailableSeats(String flightId, int seats, String releaseId) {
+        Query query = Query.query(Criteria.where("_id").is(flightId)
+                .and("escrowBuckets").is(null)
+                .and("recentReleaseIds").ne(releaseId)
+                .andOperator(Criteria.expr(ComparisonOperators.Lte
+                        .valueOf(ArithmeticOperators.Add.valueOf("availableSeats").add(seats))
+                        .lessThanEqualTo("totalSeats"))));
+        Update update = new Update().inc("availableSeats", seats)
+                .push("recentReleaseIds").slice(-RECENT_RELEASE_IDS).each(releaseId);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), FlightInventory.class);
+    }
+
+    // Escrowed flights return seats to a bucket in a separate write, so the release id is recorded first and
+    // taken back by forgetEscrowRelease if the seats could not be returned.
+    // Empty when the flight is not in escrow or the release was already recorded.
+    @Override
+    public Mono<FlightInventory> recordEscrowRelease(String flightId, String releaseId) {
+        Query query = Query.query(Criteria.where("_id").is(flightId)
+                .and("escrowBuckets").ne(null)
+                .and("recentReleaseIds").ne(releaseId));
+        Update update = new Update().push("recentReleaseIds").slice(-RECENT_RELEASE_IDS).each(releaseId);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), FlightInventory.class);
+    }
+
+    @Override
+    public Mono<Void> forgetEscrowRelease(String flightId, String releaseId) {
+        Query query = Query.query(Criteria.where("_id").is(flightId));
+
+        return mongoTemplate.updateFirst(query, new Update().pull("recentReleaseIds", releaseId), FlightInventory.class)
+                .then();
+    }
+
+    // Returns the flight as it was before the switch, so the caller knows how many seats to distribute
+    @Override
+    public Mono<FlightInventory> moveSeatsToEscrow(String flightId, int buckets) {
+        Query query = Query.query(Criteria.where("_id").is(flightId).and("escrowBuckets").is(null));
+        Update update = new Update().set("escrowBuckets", buckets).set("availableSeats", 0);
+
+        return mongoTemplate.findAndModify(query, update, FlightInventory.class);
+    }
+
+    @Override
+    public Mono<FlightInventory> restoreFromEscrow(String flightId, int seats) {
+        Query query = Query.query(Criteria.where("_id").is(flightId));
+        Update update = new Update().set("availableSeats", seats).unset("escrowBuckets");
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), FlightInventory.class);
+    }
+
+    // Unordered so one bad document does not stop the rest of the batch from being written.
+    @Override
+    public Mono<BulkWriteResult> insertUnordered(List<FlightInventory> flights) {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FlightInventory.class)
+                .insert(flights)
+                .execute();
+    }
+}
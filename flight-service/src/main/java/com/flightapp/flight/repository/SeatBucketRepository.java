@@ -0,0 +1,17 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.entity.SeatBucket;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface SeatBucketRepository extends ReactiveMongoRepository<SeatBucket, String>, SeatBucketRepositoryCustom {
+
+    Flux<SeatBucket> findByFlightId(String flightId);
+
+    Flux<SeatBucket> findByFlightIdAndAvailableSeatsGreaterThan(String flightId, Integer availableSeats);
+
+    Mono<Void> deleteByFlightId(String flightId);
+}
@@ -0,0 +1,22 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.entity.SeatBucket;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface SeatBucketRepositoryCustom {
+
+    Mono<SeatBucket> decrementFrom(String flightId, int startBucket, int seats);
+
+    Mono<SeatBucket> decrement(String flightId, int bucket, int seats);
+
+    Mono<SeatBucket> increment(String flightId, int bucket, int seats);
+
+    Mono<SeatBucket> refillFrom(String flightId, int startBucket, int seats);
+
+    Mono<SeatBucket> refill(String flightId, int bucket, int seats);
+
+    Mono<Map<String, Integer>> totalAvailableSeats(Collection<String> flightIds);
+}
@@ -0,0 +1,93 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.entity.SeatBucket;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class SeatBucketRepositoryCustomImpl implements SeatBucketRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Takes the seats from the first bucket at or after startBucket that can cover them on its own,
+    // so concurrent bookings that start at different buckets write to different documents.
+    @Override
+    public Mono<SeatBucket> decrementFrom(String flightId, int startBucket, int seats) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId)
+                        .and("bucket").gte(startBucket)
+                        .and("availableSeats").gte(seats))
+                .with(Sort.by("bucket"));
+
+        return mongoTemplate.findAndModify(query, new Update().inc("availableSeats", -seats),
+                FindAndModifyOptions.options().returnNew(true), SeatBucket.class);
+    }
+
+    @Override
+    public Mono<SeatBucket> decrement(String flightId, int bucket, int seats) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId)
+                .and("bucket").is(bucket)
+                .and("availableSeats").gte(seats));
+
+        return mongoTemplate.findAndModify(query, new Update().inc("availableSeats", -seats),
+                FindAndModifyOptions.options().returnNew(true), SeatBucket.class);
+    }
+
+    @Override
+    public Mono<SeatBucket> increment(String flightId, int bucket, int seats) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId).and("bucket").is(bucket));
+
+        return mongoTemplate.findAndModify(query, new Update().inc("availableSeats", seats),
+                FindAndModifyOptions.options().returnNew(true), SeatBucket.class);
+    }
+
+    // Like decrementFrom, but for returned seats: the first bucket at or after startBucket with room for all
+    // of them under its capacity.
+    @Override
+    public Mono<SeatBucket> refillFrom(String flightId, int startBucket, int seats) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId)
+                        .and("bucket").gte(startBucket)
+                        .andOperator(hasRoomFor(seats)))
+                .with(Sort.by("bucket"));
+
+        return mongoTemplate.findAndModify(query, new Update().inc("availableSeats", seats),
+                FindAndModifyOptions.options().returnNew(true), SeatBucket.class);
+    }
+
+    @Override
+    public Mono<SeatBucket> refill(String flightId, int bucket, int seats) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId)
+                .and("bucket").is(bucket)
+                .andOperator(hasRoomFor(seats)));
+
+        return mongoTemplate.findAndModify(query, new Update().inc("availableSeats", seats),
+                FindAndModifyOptions.options().returnNew(true), SeatBucket.class);
+    }
+
+    private static Criteria hasRoomFor(int seats) {
+        return Criteria.expr(ComparisonOperators.valueOf(ArithmeticOperators.valueOf("availableSeats").add(seats))
+                .lessThanEqualTo("capacity"));
+    }
+
+    @Override
+    public Mono<Map<String, Integer>> totalAvailableSeats(Collection<String> flightIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("flightId").in(flightIds)),
+                Aggregation.group("flightId").sum("availableSeats").as("availableSeats"));
+
+        return mongoTemplate.aggregate(aggregation, SeatBucket.class, Document.class)
+                .collectMap(total -> total.getString("_id"), total -> total.getInteger("availableSeats"));
+    }
+}
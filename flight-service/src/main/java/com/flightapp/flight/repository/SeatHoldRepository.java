@@ -0,0 +1,18 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.entity.SeatHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SeatHoldRepository extends ReactiveMongoRepository<SeatHold, String>, SeatHoldRepositoryCustom {
+
+    Flux<SeatHold> findByStatusAndExpiresAtBefore(HoldStatus status, LocalDateTime now, Pageable pageable);
+
+    Flux<SeatHold> findByStatusAndReleasingSinceBefore(HoldStatus status, LocalDateTime before, Pageable pageable);
+}
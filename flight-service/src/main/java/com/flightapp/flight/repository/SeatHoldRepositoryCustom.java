@@ -0,0 +1,18 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.entity.SeatHold;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface SeatHoldRepositoryCustom {
+
+    Mono<SeatHold> transition(String holdId, HoldStatus from, HoldStatus to);
+
+    Mono<SeatHold> confirm(String holdId, String pnr);
+
+    Mono<SeatHold> startRelease(String holdId, HoldStatus from, HoldStatus releasedAs, LocalDateTime now);
+
+    Mono<SeatHold> startCompensation(String holdId, String pnr, LocalDateTime now);
+}
@@ -0,0 +1,68 @@
+package com.flightapp.flight.repository;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.entity.SeatHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class SeatHoldRepositoryCustomImpl implements SeatHoldRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Compare-and-set on status, so a confirm racing the reaper or a release can only have one winner.
+    // Empty when the hold does not exist or has already left the expected status.
+    @Override
+    public Mono<SeatHold> transition(String holdId, HoldStatus from, HoldStatus to) {
+        Query query = Query.query(Criteria.where("_id").is(holdId).and("status").is(from));
+        Update update = new Update().set("status", to);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+    }
+
+    @Override
+    public Mono<SeatHold> confirm(String holdId, String pnr) {
+        Query query = Query.query(Criteria.where("_id").is(holdId).and("status").is(HoldStatus.HELD));
+        Update update = new Update().set("status", HoldStatus.CONFIRMED).set("pnr", pnr);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+    }
+
+    // Same compare-and-set, into RELEASING: the hold remembers where it is going so the release can be finished
+    // by whoever picks it up next if returning its seats fails.
+    @Override
+    public Mono<SeatHold> startRelease(String holdId, HoldStatus from, HoldStatus releasedAs, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(holdId).and("status").is(from));
+        Update update = new Update()
+                .set("status", HoldStatus.RELEASING)
+                .set("releasedAs", releasedAs)
+                .set("releasingSince", now);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+    }
+
+    // A confirmed hold only goes back for the booking it was confirmed for
+    @Override
+    public Mono<SeatHold> startCompensation(String holdId, String pnr, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(holdId)
+                .and("status").is(HoldStatus.CONFIRMED)
+                .and("pnr").is(pnr));
+        Update update = new Update()
+                .set("status", HoldStatus.RELEASING)
+                .set("releasedAs", HoldStatus.RELEASED)
+                .set("releasingSince", now);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+    }
+}
@@ -1,6 +1,8 @@
 package com.flightapp.flight.service;
 
 import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.dto.FlightSearchPage;
+import com.flightapp.flight.dto.InventoryBatchResult;
 import com.flightapp.flight.dto.InventoryRequest;
 import com.flightapp.flight.entity.FlightInventory;
 import reactor.core.publisher.Flux;
@@ -10,9 +12,17 @@ public interface FlightService {
 
     Mono<FlightInventory> addInventory(InventoryRequest request);
 
+    Flux<InventoryBatchResult> addInventoryBulk(Flux<String> lines);
+
     Flux<FlightInventory> searchFlights(FlightSearchRequest request);
 
+    Mono<FlightSearchPage> searchFlightsPage(FlightSearchRequest request);
+
     Mono<FlightInventory> getFlightById(String flightId);
 
     Mono<FlightInventory> updateAvailableSeats(String flightId, Integer seatsToReduce);
+
+    Mono<FlightInventory> releaseSeats(String flightId, Integer seatsToRelease);
+
+    Mono<FlightInventory> releaseSeats(String flightId, Integer seatsToRelease, String releaseId);
 }
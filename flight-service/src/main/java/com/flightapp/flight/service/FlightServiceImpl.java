@@ -1,31 +1,143 @@
 package com.flightapp.flight.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.flight.cache.FlightSearchCache;
 import com.flightapp.flight.constants.FlightStatus;
+import com.flightapp.flight.dto.FlightSearchPage;
 import com.flightapp.flight.dto.FlightSearchRequest;
+import com.flightapp.flight.dto.InventoryBatchResult;
 import com.flightapp.flight.dto.InventoryRequest;
+import com.flightapp.flight.dto.SearchCursor;
 import com.flightapp.flight.entity.FlightInventory;
 import com.flightapp.flight.exception.FlightNotFoundException;
 import com.flightapp.flight.repository.FlightInventoryRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FlightServiceImpl implements FlightService {
 
+    // Search rows whose escrow totals are read together
+    private static final int SEAT_TOTAL_BATCH = 64;
+
     private final FlightInventoryRepository flightInventoryRepository;
+    private final FlightSearchCache flightSearchCache;
+    private final SeatEscrowService seatEscrowService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${flight.bulk-insert.batch-size:500}")
+    private int bulkBatchSize;
+
+    @Value("${flight.search.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${flight.search.max-page-size:200}")
+    private int maxPageSize;
 
     @Override
     public Mono<FlightInventory> addInventory(InventoryRequest request) {
-        FlightInventory flight = FlightInventory.builder()
+        return flightInventoryRepository.save(toFlightInventory(request))
+                .doOnNext(flightSearchCache::invalidate)
+                .doOnSuccess(saved -> log.info("Flight inventory added: {}", saved.getFlightNumber()));
+    }
+
+    // Batches are written one at a time with a single batch queued behind the one in flight, so the
+    // request body is only read as fast as Mongo accepts it. Each line is parsed and validated
+    // on its own; a malformed or invalid line is reported in its batch's errors and the upload goes on.
+    @Override
+    public Flux<InventoryBatchResult> addInventoryBulk(Flux<String> lines) {
+        return lines
+                .index()
+                .filter(line -> StringUtils.hasText(line.getT2()))
+                .map(line -> parseLine(line.getT1() + 1, line.getT2()))
+                .buffer(bulkBatchSize)
+                .index()
+                .concatMap(batch -> insertBatch(batch.getT1() + 1, batch.getT2()), 1);
+    }
+
+    private InventoryLine parseLine(long lineNumber, String line) {
+        InventoryRequest request;
+        try {
+            request = objectMapper.readValue(line, InventoryRequest.class);
+        } catch (JsonProcessingException ex) {
+            return InventoryLine.rejected("Line " + lineNumber + ": malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (request == null) {
+            return InventoryLine.rejected("Line " + lineNumber + ": not a flight");
+        }
+        Set<ConstraintViolation<InventoryRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return InventoryLine.rejected("Line " + lineNumber + ": " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return new InventoryLine(toFlightInventory(request), null);
+    }
+
+    private Mono<InventoryBatchResult> insertBatch(long batchNumber, List<InventoryLine> lines) {
+        List<FlightInventory> flights = lines.stream().map(InventoryLine::flight).filter(Objects::nonNull).toList();
+        List<String> rejected = lines.stream().map(InventoryLine::error).filter(Objects::nonNull).toList();
+        if (flights.isEmpty()) {
+            return Mono.just(batchResult(batchNumber, lines.size(), 0, rejected));
+        }
+        return flightInventoryRepository.insertUnordered(flights)
+                .map(result -> batchResult(batchNumber, lines.size(), result.getInsertedCount(), rejected))
+                .onErrorResume(BulkOperationException.class, ex -> Mono.just(batchResult(batchNumber, lines.size(),
+                        ex.getResult().getInsertedCount(),
+                        concat(rejected, ex.getErrors().stream().map(BulkWriteError::getMessage)))))
+                .onErrorResume(MongoBulkWriteException.class, ex -> Mono.just(batchResult(batchNumber, lines.size(),
+                        ex.getWriteResult().getInsertedCount(),
+                        concat(rejected, ex.getWriteErrors().stream().map(BulkWriteError::getMessage)))))
+                .doOnNext(result -> {
+                    flights.forEach(flightSearchCache::invalidate);
+                    log.info("Inventory batch {} stored: {} of {} flights", batchNumber,
+                            result.getInserted(), result.getReceived());
+                });
+    }
+
+    private static List<String> concat(List<String> rejected, Stream<String> writeErrors) {
+        return Stream.concat(rejected.stream(), writeErrors).toList();
+    }
+
+    private InventoryBatchResult batchResult(long batchNumber, int received, int inserted, List<String> errors) {
+        return InventoryBatchResult.builder()
+                .batchNumber(batchNumber)
+                .received(received)
+                .inserted(inserted)
+                .failed(received - inserted)
+                .errors(errors)
+                .build();
+    }
+
+    private FlightInventory toFlightInventory(InventoryRequest request) {
+        return FlightInventory.builder()
                 .airline(request.getAirline())
                 .flightNumber(request.getFlightNumber())
                 .fromPlace(request.getFromPlace())
@@ -40,46 +152,187 @@ public class FlightServiceImpl implements FlightService {
                 .mealAvailable(request.getMealAvailable())
                 .flightStatus(FlightStatus.ACTIVE)
                 .build();
-
-        return flightInventoryRepository.save(flight)
-                .doOnSuccess(saved -> log.info("Flight inventory added: {}", saved.getFlightNumber()));
     }
 
     @Override
     public Flux<FlightInventory> searchFlights(FlightSearchRequest request) {
-        LocalDate journeyDate = request.getJourneyDate();
-        LocalDateTime startOfDay = journeyDate.atStartOfDay();
-        LocalDateTime endOfDay = journeyDate.atTime(LocalTime.MAX);
-
-        return flightInventoryRepository.findByFromPlaceAndToPlaceAndDepartureDateTimeBetween(
-                        request.getFromPlace(),
-                        request.getToPlace(),
-                        startOfDay,
-                        endOfDay
-                )
-                .filter(flight -> flight.getFlightStatus() == FlightStatus.ACTIVE)
-                .filter(flight -> flight.getAvailableSeats() > 0)
-                .doOnComplete(() -> log.info("Flight search completed for {} to {}",
-                        request.getFromPlace(), request.getToPlace()));
+        return findFlights(request, request.getLimit() == null ? 0 : pageSize(request))
+                .filter(this::hasSeats);
+    }
+
+    // Paged only when the client sends a limit or a cursor; otherwise the whole route-day comes back in one list,
+    // as it did before paging. One extra flight is fetched to learn whether another page exists without a count query.
+    // The page is cut on the rows the query returned, before sold-out escrowed flights are dropped, so the
+    // cursor always resumes after the last row read; a page may then hold fewer than limit flights.
+    @Override
+    public Mono<FlightSearchPage> searchFlightsPage(FlightSearchRequest request) {
+        if (request.getLimit() == null && request.getCursor() == null) {
+            return searchFlights(request)
+                    .collectList()
+                    .map(flights -> FlightSearchPage.builder().flights(flights).build());
+        }
+        int limit = pageSize(request);
+        return findFlights(request, limit + 1)
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= limit) {
+                        return FlightSearchPage.builder().flights(withSeats(rows)).build();
+                    }
+                    List<FlightInventory> page = rows.subList(0, limit);
+                    return FlightSearchPage.builder()
+                            .flights(withSeats(page))
+                            .nextCursor(SearchCursor.after(page.get(limit - 1)).encode())
+                            .build();
+                });
+    }
+
+    private boolean hasSeats(FlightInventory flight) {
+        return flight.getAvailableSeats() != null && flight.getAvailableSeats() > 0;
+    }
+
+    private List<FlightInventory> withSeats(List<FlightInventory> rows) {
+        return rows.stream().filter(this::hasSeats).toList();
+    }
+
+    private int pageSize(FlightSearchRequest request) {
+        return request.getLimit() == null ? defaultPageSize : Math.min(request.getLimit(), maxPageSize);
+    }
+
+    // The rows the query matched, escrowed flights with their bucket totals; callers drop the sold-out ones.
+    // A batch of rows shares one aggregation for the totals of its escrowed flights.
+    private Flux<FlightInventory> findFlights(FlightSearchRequest request, int limit) {
+        return Flux.defer(() -> {
+            SearchCursor after = SearchCursor.decode(request.getCursor());
+
+            Optional<List<FlightInventory>> cached = flightSearchCache.getIfPresent(request);
+            if (cached.isPresent()) {
+                Flux<FlightInventory> flights = Flux.fromIterable(cached.get())
+                        .filter(flight -> after == null || after.isBefore(flight));
+                return limit > 0 ? flights.take(limit) : flights;
+            }
+
+            LocalDate journeyDate = request.getJourneyDate();
+            LocalDateTime startOfDay = journeyDate.atStartOfDay();
+            LocalDateTime endOfDay = journeyDate.atTime(LocalTime.MAX);
+
+            Flux<FlightInventory> flights = flightInventoryRepository.searchAvailableFlights(
+                    request.getFromPlace(),
+                    request.getToPlace(),
+                    startOfDay,
+                    endOfDay,
+                    after,
+                    limit
+            ).buffer(SEAT_TOTAL_BATCH).concatMap(seatEscrowService::withEscrowTotals);
+            return (after == null ? cacheOnComplete(request, flights, limit) : flights)
+                    .doOnComplete(() -> log.info("Flight search completed for {} to {}",
+                            request.getFromPlace(), request.getToPlace()));
+        });
+    }
+
+    // Results still stream to the caller; only a search that returned the whole route-day is cached,
+    // and only if no write reached that route-day while it ran. The limit is checked against the rows read,
+    // sold-out ones included, so a search cut short by its limit is never taken for the whole day.
+    private Flux<FlightInventory> cacheOnComplete(FlightSearchRequest request, Flux<FlightInventory> flights,
+                                                  int limit) {
+        return Flux.defer(() -> {
+            long generation = flightSearchCache.generation(request);
+            List<FlightInventory> results = new ArrayList<>();
+            AtomicInteger rows = new AtomicInteger();
+            return flights
+                    .doOnNext(flight -> {
+                        rows.incrementAndGet();
+                        if (hasSeats(flight)) {
+                            results.add(flight);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (limit == 0 || rows.get() < limit) {
+                            flightSearchCache.put(request, results, generation);
+                        }
+                    });
+        });
+    }
+
+    // Only escrowed flights need the extra read to total their seat buckets.
+    private Mono<FlightInventory> withSeatTotal(FlightInventory flight) {
+        return flight.getEscrowBuckets() == null ? Mono.just(flight) : seatEscrowService.withEscrowTotal(flight);
     }
 
     @Override
     public Mono<FlightInventory> getFlightById(String flightId) {
         return flightInventoryRepository.findById(flightId)
+                .flatMap(this::withSeatTotal)
                 .switchIfEmpty(Mono.error(new FlightNotFoundException("Flight not found with id: " + flightId)));
     }
 
     @Override
     public Mono<FlightInventory> updateAvailableSeats(String flightId, Integer seatsToReduce) {
-        return flightInventoryRepository.findById(flightId)
-                .switchIfEmpty(Mono.error(new FlightNotFoundException("Flight not found with id: " + flightId)))
-                .flatMap(flight -> {
-                    if (flight.getAvailableSeats() < seatsToReduce) {
-                        return Mono.error(new IllegalArgumentException("Not enough available seats"));
-                    }
-                    flight.setAvailableSeats(flight.getAvailableSeats() - seatsToReduce);
-                    return flightInventoryRepository.save(flight);
-                })
+        if (seatsToReduce == null || seatsToReduce <= 0) {
+            return Mono.error(new IllegalArgumentException("Seats to reduce must be greater than zero"));
+        }
+
+        return flightInventoryRepository.decrementAvailableSeats(flightId, seatsToReduce)
+                .flatMap(flight -> flight.getEscrowBuckets() == null
+                        ? Mono.just(flight)
+                        : seatEscrowService.takeSeats(flight, seatsToReduce))
+                .switchIfEmpty(Mono.defer(() -> flightInventoryRepository.existsById(flightId)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new IllegalArgumentException("Not enough available seats")
+                                : new FlightNotFoundException("Flight not found with id: " + flightId)))))
+                .doOnNext(flightSearchCache::applySeatUpdate)
                 .doOnSuccess(updated -> log.info("Updated available seats for flight: {}", flightId));
     }
+
+    @Override
+    public Mono<FlightInventory> releaseSeats(String flightId, Integer seatsToRelease) {
+        if (seatsToRelease == null || seatsToRelease <= 0) {
+            return Mono.error(new IllegalArgumentException("Seats to release must be greater than zero"));
+        }
+
+        return flightInventoryRepository.incrementAvailableSeats(flightId, seatsToRelease)
+                .switchIfEmpty(Mono.defer(() -> seatEscrowService.returnSeats(flightId, seatsToRelease)))
+                .switchIfEmpty(Mono.defer(() -> flightInventoryRepository.existsById(flightId)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new IllegalArgumentException("Cannot release more seats than the flight has")
+                                : new FlightNotFoundException("Flight not found with id: " + flightId)))))
+                .doOnNext(flightSearchCache::applySeatUpdate)
+                .doOnSuccess(updated -> log.info("Released {} seats for flight: {}", seatsToRelease, flightId));
+    }
+
+    // Batched releases from booking-service cancellations. Safe to retry with the same releaseId.
+    @Override
+    public Mono<FlightInventory> releaseSeats(String flightId, Integer seatsToRelease, String releaseId) {
+        if (seatsToRelease == null || seatsToRelease <= 0) {
+            return Mono.error(new IllegalArgumentException("Seats to release must be greater than zero"));
+        }
+        if (releaseId == null || releaseId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Release id is required"));
+        }
+
+        return flightInventoryRepository.incrementAvailableSeats(flightId, seatsToRelease, releaseId)
+                .switchIfEmpty(Mono.defer(() -> flightInventoryRepository.recordEscrowRelease(flightId, releaseId)
+                        .flatMap(flight -> seatEscrowService.returnSeats(flightId, seatsToRelease)
+                                // Otherwise a retry would be taken as already applied and the seats never returned
+                                .onErrorResume(error -> flightInventoryRepository.forgetEscrowRelease(flightId, releaseId)
+                                        .then(Mono.error(error))))))
+                .doOnNext(flightSearchCache::applySeatUpdate)
+                .doOnNext(updated -> log.info("Released {} seats for flight: {} ({})", seatsToRelease, flightId, releaseId))
+                .switchIfEmpty(Mono.defer(() -> flightInventoryRepository.findById(flightId)
+                        .switchIfEmpty(Mono.error(new FlightNotFoundException("Flight not found with id: " + flightId)))
+                        .flatMap(flight -> {
+                            if (flight.getRecentReleaseIds() != null && flight.getRecentReleaseIds().contains(releaseId)) {
+                                log.info("Release {} was already applied to flight: {}", releaseId, flightId);
+                                return seatEscrowService.withEscrowTotal(flight);
+                            }
+                            return Mono.error(new IllegalArgumentException("Cannot release more seats than the flight has"));
+                        })));
+    }
+
+    // One line of a bulk upload: the flight to insert, or why the line was rejected
+    private record InventoryLine(FlightInventory flight, String error) {
+
+        static InventoryLine rejected(String error) {
+            return new InventoryLine(null, error);
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.entity.FlightInventory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface SeatEscrowService {
+
+    Mono<FlightInventory> enableEscrow(String flightId);
+
+    Mono<FlightInventory> takeSeats(FlightInventory flight, int seats);
+
+    Mono<FlightInventory> returnSeats(String flightId, int seats);
+
+    Mono<FlightInventory> withEscrowTotal(FlightInventory flight);
+
+    Flux<FlightInventory> withEscrowTotals(List<FlightInventory> flights);
+}
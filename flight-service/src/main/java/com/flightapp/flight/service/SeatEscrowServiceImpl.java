@@ -0,0 +1,206 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.cache.FlightSearchCache;
+import com.flightapp.flight.entity.FlightInventory;
+import com.flightapp.flight.entity.SeatBucket;
+import com.flightapp.flight.exception.FlightNotFoundException;
+import com.flightapp.flight.repository.FlightInventoryRepository;
+import com.flightapp.flight.repository.SeatBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A flight in escrow keeps its available seats split across seat_bucket documents instead of
+// the single availableSeats counter, so concurrent bookings on a hot flight update different
+// documents instead of all queueing on one.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatEscrowServiceImpl implements SeatEscrowService {
+
+    private final FlightInventoryRepository flightInventoryRepository;
+    private final SeatBucketRepository seatBucketRepository;
+    private final FlightSearchCache flightSearchCache;
+
+    @Value("${flight.escrow.buckets:8}")
+    private int escrowBuckets;
+
+    // Enabling twice is a no-op; the flight is returned with its current total either way.
+    @Override
+    public Mono<FlightInventory> enableEscrow(String flightId) {
+        return flightInventoryRepository.moveSeatsToEscrow(flightId, escrowBuckets)
+                .flatMap(before -> seatBucketRepository.insert(splitSeats(before))
+                        .then()
+                        .onErrorResume(error -> seatBucketRepository.deleteByFlightId(flightId)
+                                .then(flightInventoryRepository.restoreFromEscrow(flightId, before.getAvailableSeats()))
+                                .then(Mono.error(error)))
+                        .doOnSuccess(done -> log.info("Seat escrow enabled for flight {} with {} buckets",
+                                flightId, escrowBuckets)))
+                .then(flightInventoryRepository.findById(flightId))
+                .switchIfEmpty(Mono.error(new FlightNotFoundException("Flight not found with id: " + flightId)))
+                .flatMap(this::withEscrowTotal)
+                .doOnNext(flightSearchCache::invalidate);
+    }
+
+    // Available and total seats are split the same way, so every bucket starts at or below its capacity.
+    private List<SeatBucket> splitSeats(FlightInventory flight) {
+        int seats = flight.getAvailableSeats() == null ? 0 : flight.getAvailableSeats();
+        int totalSeats = flight.getTotalSeats() == null ? seats : flight.getTotalSeats();
+        List<SeatBucket> buckets = new ArrayList<>(escrowBuckets);
+        for (int bucket = 0; bucket < escrowBuckets; bucket++) {
+            buckets.add(SeatBucket.builder()
+                    .flightId(flight.getId())
+                    .bucket(bucket)
+                    .availableSeats(share(seats, bucket))
+                    .capacity(share(totalSeats, bucket))
+                    .build());
+        }
+        return buckets;
+    }
+
+    private int share(int seats, int bucket) {
+        return seats / escrowBuckets + (bucket < seats % escrowBuckets ? 1 : 0);
+    }
+
+    // The flight is the one the booking already read; empty when it is not in escrow or its buckets together
+    // hold fewer than the requested seats.
+    // A random starting bucket spreads concurrent bookings; a dry bucket just moves the booking on to the next.
+    @Override
+    public Mono<FlightInventory> takeSeats(FlightInventory flight, int seats) {
+        if (flight.getEscrowBuckets() == null) {
+            return Mono.empty();
+        }
+        String flightId = flight.getId();
+        int start = ThreadLocalRandom.current().nextInt(flight.getEscrowBuckets());
+        return seatBucketRepository.decrementFrom(flightId, start, seats)
+                .switchIfEmpty(Mono.defer(() -> start == 0
+                        ? Mono.empty()
+                        : seatBucketRepository.decrementFrom(flightId, 0, seats)))
+                .map(bucket -> seats)
+                .switchIfEmpty(Mono.defer(() -> takeAcrossBuckets(flightId, seats)))
+                .flatMap(taken -> withEscrowTotal(flight));
+    }
+
+    // No single bucket can cover the booking, so it is assembled from several. If the seats run out
+    // part way, whatever was taken goes back to the buckets it came from.
+    private Mono<Integer> takeAcrossBuckets(String flightId, int seats) {
+        return Mono.defer(() -> {
+            AtomicInteger remaining = new AtomicInteger(seats);
+            Map<Integer, Integer> taken = new LinkedHashMap<>();
+
+            return seatBucketRepository.findByFlightIdAndAvailableSeatsGreaterThan(flightId, 0)
+                    .concatMap(bucket -> {
+                        int want = Math.min(remaining.get(), bucket.getAvailableSeats());
+                        if (want == 0) {
+                            return Mono.empty();
+                        }
+                        return seatBucketRepository.decrement(flightId, bucket.getBucket(), want)
+                                .doOnNext(updated -> {
+                                    remaining.addAndGet(-want);
+                                    taken.put(bucket.getBucket(), want);
+                                });
+                    })
+                    .then(Mono.defer(() -> remaining.get() == 0
+                            ? Mono.just(seats)
+                            : Flux.fromIterable(taken.entrySet())
+                                    .concatMap(entry -> seatBucketRepository.increment(
+                                            flightId, entry.getKey(), entry.getValue()))
+                                    .then(Mono.<Integer>empty())));
+        });
+    }
+
+    // Empty when the flight is not in escrow. The check against the total only turns away an obvious
+    // over-release early; concurrent returns are held to totalSeats by each bucket's capacity, which the
+    // guarded refill checks in the same write that adds the seats.
+    @Override
+    public Mono<FlightInventory> returnSeats(String flightId, int seats) {
+        return flightInventoryRepository.findById(flightId)
+                .filter(flight -> flight.getEscrowBuckets() != null)
+                .flatMap(this::withEscrowTotal)
+                .flatMap(flight -> {
+                    if (flight.getAvailableSeats() + seats > flight.getTotalSeats()) {
+                        return Mono.error(new IllegalArgumentException("Cannot release more seats than the flight has"));
+                    }
+                    int start = ThreadLocalRandom.current().nextInt(flight.getEscrowBuckets());
+                    return seatBucketRepository.refillFrom(flightId, start, seats)
+                            .switchIfEmpty(Mono.defer(() -> start == 0
+                                    ? Mono.empty()
+                                    : seatBucketRepository.refillFrom(flightId, 0, seats)))
+                            .map(bucket -> seats)
+                            .switchIfEmpty(Mono.defer(() -> returnAcrossBuckets(flightId, seats)))
+                            .switchIfEmpty(Mono.error(
+                                    new IllegalArgumentException("Cannot release more seats than the flight has")))
+                            .flatMap(returned -> withEscrowTotal(flight));
+                });
+    }
+
+    // No single bucket has room for all the seats, so they are spread over several. If the room runs out
+    // part way, whatever was added is taken back out of the buckets it went to.
+    private Mono<Integer> returnAcrossBuckets(String flightId, int seats) {
+        return Mono.defer(() -> {
+            AtomicInteger remaining = new AtomicInteger(seats);
+            Map<Integer, Integer> returned = new LinkedHashMap<>();
+
+            return seatBucketRepository.findByFlightId(flightId)
+                    .concatMap(bucket -> {
+                        int give = Math.min(remaining.get(), bucket.getCapacity() - bucket.getAvailableSeats());
+                        if (give <= 0) {
+                            return Mono.empty();
+                        }
+                        return seatBucketRepository.refill(flightId, bucket.getBucket(), give)
+                                .doOnNext(updated -> {
+                                    remaining.addAndGet(-give);
+                                    returned.put(bucket.getBucket(), give);
+                                });
+                    })
+                    .then(Mono.defer(() -> remaining.get() == 0
+                            ? Mono.just(seats)
+                            : Flux.fromIterable(returned.entrySet())
+                                    .concatMap(entry -> seatBucketRepository.decrement(
+                                            flightId, entry.getKey(), entry.getValue()))
+                                    .then(Mono.<Integer>empty())));
+        });
+    }
+
+    // Reports the sum of the buckets as availableSeats, so callers see the same shape as a normal flight.
+    @Override
+    public Mono<FlightInventory> withEscrowTotal(FlightInventory flight) {
+        if (flight.getEscrowBuckets() == null) {
+            return Mono.just(flight);
+        }
+        return seatBucketRepository.totalAvailableSeats(List.of(flight.getId()))
+                .map(totals -> {
+                    flight.setAvailableSeats(totals.getOrDefault(flight.getId(), 0));
+                    return flight;
+                });
+    }
+
+    // Same for a page of search results, with one aggregation for all of its escrowed flights
+    @Override
+    public Flux<FlightInventory> withEscrowTotals(List<FlightInventory> flights) {
+        List<String> escrowed = flights.stream()
+                .filter(flight -> flight.getEscrowBuckets() != null)
+                .map(FlightInventory::getId)
+                .toList();
+        if (escrowed.isEmpty()) {
+            return Flux.fromIterable(flights);
+        }
+        return seatBucketRepository.totalAvailableSeats(escrowed)
+                .flatMapMany(totals -> Flux.fromIterable(flights)
+                        .doOnNext(flight -> {
+                            if (flight.getEscrowBuckets() != null) {
+                                flight.setAvailableSeats(totals.getOrDefault(flight.getId(), 0));
+                            }
+                        }));
+    }
+}
@@ -0,0 +1,23 @@
+package com.flightapp.flight.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldReaper {
+
+    private final SeatHoldService seatHoldService;
+
+    @Scheduled(fixedDelayString = "${flight.seat-hold.reaper-interval-ms:15000}")
+    public void expireHolds() {
+        seatHoldService.expireHolds()
+                .doOnError(error -> log.error("Seat hold reaper failed: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+}
@@ -0,0 +1,25 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.dto.SeatHoldBatchResult;
+import com.flightapp.flight.dto.SeatHoldResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface SeatHoldService {
+
+    Mono<SeatHoldResponse> createHold(String flightId, Integer seats);
+
+    Flux<SeatHoldBatchResult> createHolds(String flightId, List<Integer> seats);
+
+    Mono<SeatHoldResponse> getHold(String holdId);
+
+    Mono<SeatHoldResponse> confirmHold(String holdId, String pnr);
+
+    Mono<SeatHoldResponse> releaseHold(String holdId);
+
+    Mono<SeatHoldResponse> compensateHold(String holdId, String pnr);
+
+    Mono<Long> expireHolds();
+}
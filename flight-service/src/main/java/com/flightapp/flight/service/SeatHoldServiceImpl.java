@@ -0,0 +1,258 @@
+package com.flightapp.flight.service;
+
+import com.flightapp.flight.constants.HoldStatus;
+import com.flightapp.flight.dto.SeatHoldBatchResult;
+import com.flightapp.flight.dto.SeatHoldResponse;
+import com.flightapp.flight.entity.FlightInventory;
+import com.flightapp.flight.entity.SeatHold;
+import com.flightapp.flight.exception.FlightNotFoundException;
+import com.flightapp.flight.exception.SeatHoldNotFoundException;
+import com.flightapp.flight.repository.SeatHoldRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldServiceImpl implements SeatHoldService {
+
+    private final SeatHoldRepository seatHoldRepository;
+    private final FlightService flightService;
+
+    @Value("${flight.seat-hold.ttl-seconds:300}")
+    private long holdTtlSeconds;
+
+    @Value("${flight.seat-hold.reaper-batch-size:500}")
+    private int reaperBatchSize;
+
+    @Value("${flight.seat-hold.release-retry-ms:30000}")
+    private long releaseRetryMs;
+
+    @Value("${flight.seat-hold.max-batch-size:100}")
+    private int maxBatchSize;
+
+    // Seats are taken with the atomic decrement first; if the hold cannot be stored they are given back.
+    @Override
+    public Mono<SeatHoldResponse> createHold(String flightId, Integer seats) {
+        return flightService.updateAvailableSeats(flightId, seats)
+                .flatMap(flight -> {
+                    SeatHold hold = newHold(flightId, seats, LocalDateTime.now());
+
+                    return seatHoldRepository.save(hold)
+                            .map(saved -> mapToResponse(saved, flight))
+                            .onErrorResume(error -> flightService.releaseSeats(flightId, seats)
+                                    .then(Mono.error(error)));
+                })
+                .doOnSuccess(hold -> log.info("Seat hold {} created for flight: {}", hold.getHoldId(), flightId));
+    }
+
+    // Collapsed requests for one flight take their combined seats with a single decrement. When the
+    // flight cannot cover all of them, each request is tried on its own so as many as possible succeed.
+    // Results come back in request order, each with its own status.
+    @Override
+    public Flux<SeatHoldBatchResult> createHolds(String flightId, List<Integer> seats) {
+        if (seats.size() > maxBatchSize) {
+            return Flux.error(new IllegalArgumentException(
+                    "A batch can request at most " + maxBatchSize + " seat holds, got " + seats.size()));
+        }
+        if (seats.isEmpty() || seats.stream().anyMatch(requested -> requested == null || requested <= 0)) {
+            return createHoldsOneByOne(flightId, seats);
+        }
+        int total = seats.stream().mapToInt(Integer::intValue).sum();
+
+        return flightService.updateAvailableSeats(flightId, total)
+                .map(Optional::of)
+                .onErrorResume(IllegalArgumentException.class, error -> Mono.just(Optional.empty()))
+                .flatMapMany(flight -> flight.isPresent()
+                        ? saveHolds(flightId, seats, total, flight.get())
+                        : createHoldsOneByOne(flightId, seats))
+                .onErrorResume(error -> Flux.fromIterable(seats).map(requested -> failed(requested, error)))
+                .doOnComplete(() -> log.info("Seat hold batch of {} processed for flight: {}", seats.size(), flightId));
+    }
+
+    private Flux<SeatHoldBatchResult> saveHolds(String flightId, List<Integer> seats, int total,
+                                                FlightInventory flight) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SeatHold> holds = seats.stream().map(requested -> newHold(flightId, requested, now)).toList();
+
+        return seatHoldRepository.saveAll(holds)
+                .collectList()
+                .onErrorResume(error -> seatHoldRepository.deleteAll(holds.stream()
+                                .filter(hold -> hold.getId() != null)
+                                .toList())
+                        .then(flightService.releaseSeats(flightId, total))
+                        .then(Mono.error(error)))
+                .flatMapIterable(saved -> saved.stream()
+                        .map(hold -> SeatHoldBatchResult.builder()
+                                .seats(hold.getSeats())
+                                .status(201)
+                                .hold(mapToResponse(hold, flight))
+                                .build())
+                        .toList());
+    }
+
+    private Flux<SeatHoldBatchResult> createHoldsOneByOne(String flightId, List<Integer> seats) {
+        return Flux.fromIterable(seats)
+                .concatMap(requested -> createHold(flightId, requested)
+                        .map(hold -> SeatHoldBatchResult.builder()
+                                .seats(requested)
+                                .status(201)
+                                .hold(hold)
+                                .build())
+                        .onErrorResume(error -> Mono.just(failed(requested, error))));
+    }
+
+    // Same status codes ErrorHandler would have returned for a single hold request
+    private SeatHoldBatchResult failed(Integer seats, Throwable error) {
+        int status = error instanceof IllegalArgumentException ? 400
+                : error instanceof FlightNotFoundException ? 404
+                : 500;
+        return SeatHoldBatchResult.builder()
+                .seats(seats)
+                .status(status)
+                .error(error.getMessage())
+                .build();
+    }
+
+    private SeatHold newHold(String flightId, Integer seats, LocalDateTime now) {
+        return SeatHold.builder()
+                .flightId(flightId)
+                .seats(seats)
+                .status(HoldStatus.HELD)
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(holdTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public Mono<SeatHoldResponse> getHold(String holdId) {
+        return seatHoldRepository.findById(holdId)
+                .switchIfEmpty(Mono.error(new SeatHoldNotFoundException("Seat hold not found with id: " + holdId)))
+                .map(hold -> mapToResponse(hold, null));
+    }
+
+    // The hold remembers the booking it was confirmed for. Confirming it again for the same booking answers
+    // like the first confirm did, so a caller whose response was lost can ask again and learn the outcome.
+    @Override
+    public Mono<SeatHoldResponse> confirmHold(String holdId, String pnr) {
+        return seatHoldRepository.confirm(holdId, pnr)
+                .switchIfEmpty(Mono.defer(() -> seatHoldRepository.findById(holdId)
+                        .filter(hold -> hold.getStatus() == HoldStatus.CONFIRMED && Objects.equals(hold.getPnr(), pnr))))
+                .switchIfEmpty(Mono.defer(() -> inactiveHold(holdId)))
+                .map(hold -> mapToResponse(hold, null))
+                .doOnSuccess(hold -> log.info("Seat hold {} confirmed", holdId));
+    }
+
+    // Only a hold nobody has booked yet can be released here; a confirmed hold goes back through
+    // compensateHold. A hold left RELEASING by a release that failed part way is finished, so the caller can retry.
+    @Override
+    public Mono<SeatHoldResponse> releaseHold(String holdId) {
+        return seatHoldRepository.startRelease(holdId, HoldStatus.HELD, HoldStatus.RELEASED, LocalDateTime.now())
+                .switchIfEmpty(Mono.defer(() -> unfinishedRelease(holdId)))
+                .switchIfEmpty(Mono.defer(() -> inactiveHold(holdId)))
+                .flatMap(this::returnSeats)
+                .doOnSuccess(hold -> log.info("Seat hold {} released", holdId));
+    }
+
+    // Internal: booking-service gives a hold back when it could not keep the booking the hold was taken for,
+    // including after a confirm whose outcome it never saw. A confirmed hold is only given back for the PNR it
+    // was confirmed for. A hold that is already released or expired is reported as it is, so the call can be
+    // repeated until it succeeds.
+    @Override
+    public Mono<SeatHoldResponse> compensateHold(String holdId, String pnr) {
+        LocalDateTime now = LocalDateTime.now();
+        return seatHoldRepository.startRelease(holdId, HoldStatus.HELD, HoldStatus.RELEASED, now)
+                .switchIfEmpty(Mono.defer(() -> seatHoldRepository.startCompensation(holdId, pnr, now)))
+                .switchIfEmpty(Mono.defer(() -> unfinishedRelease(holdId)))
+                .flatMap(this::returnSeats)
+                .switchIfEmpty(Mono.defer(() -> seatHoldRepository.findById(holdId)
+                        .switchIfEmpty(Mono.error(new SeatHoldNotFoundException("Seat hold not found with id: " + holdId)))
+                        .flatMap(hold -> hold.getStatus() == HoldStatus.RELEASED || hold.getStatus() == HoldStatus.EXPIRED
+                                ? Mono.just(mapToResponse(hold, null))
+                                : Mono.error(new IllegalArgumentException("Seat hold was confirmed for another booking")))))
+                .doOnSuccess(hold -> log.info("Seat hold {} given back for booking {}", holdId, pnr));
+    }
+
+    private Mono<SeatHold> unfinishedRelease(String holdId) {
+        return seatHoldRepository.findById(holdId)
+                .filter(hold -> hold.getStatus() == HoldStatus.RELEASING);
+    }
+
+    // Holds past their expiry go to RELEASING through the same HELD guard as confirm/release, so only one of
+    // them wins. Holds still RELEASING from an earlier failure are retried first.
+    @Override
+    public Mono<Long> expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        Flux<SeatHold> unfinished = seatHoldRepository.findByStatusAndReleasingSinceBefore(HoldStatus.RELEASING,
+                now.minus(Duration.ofMillis(releaseRetryMs)), PageRequest.of(0, reaperBatchSize));
+        Flux<SeatHold> expired = seatHoldRepository.findByStatusAndExpiresAtBefore(HoldStatus.HELD, now,
+                        PageRequest.of(0, reaperBatchSize))
+                .concatMap(hold -> seatHoldRepository.startRelease(hold.getId(), HoldStatus.HELD,
+                        HoldStatus.EXPIRED, now));
+
+        return Flux.concat(unfinished, expired)
+                .concatMap(hold -> returnSeats(hold)
+                        .onErrorResume(error -> {
+                            if (error instanceof IllegalArgumentException || error instanceof FlightNotFoundException) {
+                                // The flight is gone or already full; retrying cannot put these seats anywhere
+                                log.error("Seats of hold {} cannot be returned, closing it: {}", hold.getId(),
+                                        error.getMessage());
+                                return finishRelease(hold).then(Mono.<SeatHoldResponse>empty());
+                            }
+                            log.error("Failed to return seats for hold {}, will retry: {}", hold.getId(),
+                                    error.getMessage());
+                            return Mono.empty();
+                        }))
+                .count()
+                .doOnNext(returned -> {
+                    if (returned > 0) {
+                        log.info("Returned seats for {} seat holds", returned);
+                    }
+                });
+    }
+
+    // The seats go back under a releaseId taken from the hold, which flight inventory applies only once, so
+    // finishing the same release again after a failure cannot return them twice.
+    private Mono<SeatHoldResponse> returnSeats(SeatHold hold) {
+        return flightService.releaseSeats(hold.getFlightId(), hold.getSeats(), "hold-" + hold.getId())
+                .flatMap(flight -> finishRelease(hold).map(released -> mapToResponse(released, flight)));
+    }
+
+    private Mono<SeatHold> finishRelease(SeatHold hold) {
+        return seatHoldRepository.transition(hold.getId(), HoldStatus.RELEASING, hold.getReleasedAs())
+                // Finished meanwhile by another caller
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    hold.setStatus(hold.getReleasedAs());
+                    return hold;
+                }));
+    }
+
+    private Mono<SeatHold> inactiveHold(String holdId) {
+        return seatHoldRepository.existsById(holdId)
+                .flatMap(exists -> Mono.error(exists
+                        ? new IllegalArgumentException("Seat hold is no longer active")
+                        : new SeatHoldNotFoundException("Seat hold not found with id: " + holdId)));
+    }
+
+    private SeatHoldResponse mapToResponse(SeatHold hold, FlightInventory flight) {
+        return SeatHoldResponse.builder()
+                .holdId(hold.getId())
+                .flightId(hold.getFlightId())
+                .seats(hold.getSeats())
+                .status(hold.getStatus())
+                .expiresAt(hold.getExpiresAt())
+                .flight(flight)
+                .build();
+    }
+}
@@ -1,7 +1,10 @@
 #!/bin/bash
 
 # JMeter Load Testing Script for Flight Microservices
-# Usage: ./run-jmeter.sh
+# Usage: ./run-jmeter.sh [test-plan.jmx] [extra jmeter args]
+#   e.g. ./run-jmeter.sh ../jmeter/HotFlight-SeatContention.jmx -JhotFlightId=<flightId>
+#        ./run-jmeter.sh ../jmeter/HotFlight-SeatContention.jmx -JhotFlightId=<flightId> -Jescrow=true
+#        ./run-jmeter.sh ../jmeter/Booking-BrokerSlowness.jmx -JflightId=<flightId> -JmaxBookingMs=1000
 
 echo "========================================"
 echo "Flight Microservices - JMeter Load Test"
@@ -16,7 +19,8 @@ fi
 
 # Variables
 JMETER_HOME=${JMETER_HOME:-"/usr/local/jmeter"}
-TEST_PLAN="../jmeter/FlightApp-LoadTest.jmx"
+TEST_PLAN=${1:-"../jmeter/FlightApp-LoadTest.jmx"}
+shift $(( $# > 0 ? 1 : 0 ))
 RESULTS_DIR="../jmeter/results"
 TIMESTAMP=$(date +"%Y%m%d_%H%M%S")
 RESULTS_FILE="${RESULTS_DIR}/results_${TIMESTAMP}.jtl"
@@ -32,7 +36,7 @@ echo "HTML Report will be generated in: ${REPORT_DIR}"
 echo ""
 
 # Run JMeter in non-GUI mode
-jmeter -n -t ${TEST_PLAN} -l ${RESULTS_FILE} -e -o ${REPORT_DIR}
+jmeter -n -t ${TEST_PLAN} -l ${RESULTS_FILE} -e -o ${REPORT_DIR} "$@"
 
 # Check if test was successful
 if [ $? -eq 0 ]; then